@@ -1,14 +1,58 @@
 #!/bin/bash
 set -e
 
-echo "🧪 Running tests with timeout control..."
+# === Shard mode: run one slice of the suite into the shared volume and stop ===
+# SHARD=i/n, results go to /app/shards/shard-i-of-n (see start_bc_docker_tests.sh). A shard that
+# times out or crashes exits with an error; the merge then reports it as incomplete.
+if [ -n "$SHARD" ]; then
+  SHARD_DIR="/app/shards/shard-${SHARD%/*}-of-${SHARD#*/}"
+  echo "🧩 Running shard $SHARD into $SHARD_DIR..."
+  SHARD_EXIT=0
+  timeout 120s java -jar calc-test-framework-fat-1.0.jar --shard "$SHARD" \
+    --timings /app/shards/case-timings.json --results-dir "$SHARD_DIR" $TEST_ARGS || SHARD_EXIT=$?
+  if [ $SHARD_EXIT -eq 124 ]; then
+    echo "⚠️ Shard $SHARD timed out after 120 seconds"
+  elif [ $SHARD_EXIT -ne 0 ]; then
+    echo "⚠️ Shard $SHARD exited with code $SHARD_EXIT"
+  fi
+  exit $SHARD_EXIT
+fi
+
+# Per-case timings of earlier runs, kept in a volume so that latency regressions show up across runs
+HISTORY_ARGS=""
+if [ -d /app/history ]; then
+  HISTORY_ARGS="--history /app/history/timing-history.bin"
+fi
 
-# Run JAR with timeout (120s max)
-timeout 120s java -jar calc-test-framework-fat-1.0.jar
-EXIT_CODE=$?
+EXIT_CODE=0
+if [ -n "$MERGE_SHARDS" ]; then
+  # === Merge mode: combine the shards' results instead of running the tests again ===
+  # MERGE_SHARDS=n names every shard directory, so a shard that never wrote one is still reported
+  echo "🧩 Merging shard results..."
+  SHARD_DIRS=()
+  for ((i=1; i<=MERGE_SHARDS; i++)); do
+    SHARD_DIRS+=("/app/shards/shard-$i-of-$MERGE_SHARDS")
+  done
+  java -jar calc-test-framework-fat-1.0.jar $HISTORY_ARGS $TEST_ARGS --merge /app/shards/merged "${SHARD_DIRS[@]}" \
+    || EXIT_CODE=$?
+  rm -rf /app/allure-results
+  cp -r /app/shards/merged/allure-results /app/allure-results
+  cp /app/shards/merged/case-timings.json /app/shards/case-timings.json
+else
+  echo "🧪 Running tests with timeout control..."
+
+  # Run JAR with timeout (120s max)
+  timeout 120s java -jar calc-test-framework-fat-1.0.jar $HISTORY_ARGS $TEST_ARGS || EXIT_CODE=$?
+fi
 
 if [ $EXIT_CODE -eq 124 ]; then
   echo "⚠️ Test execution timed out after 120 seconds"
+elif [ $EXIT_CODE -eq 3 ]; then
+  # --fail-on-regression: still serve the report, whose "Latency regressions" suite shows the trends
+  echo "📈 Latency regressions found, see the 'Latency regressions' suite of the report"
+elif [ $EXIT_CODE -eq 4 ]; then
+  # a shard did not finish: serve what the others produced, the 'Shards' suite names the missing one
+  echo "⚠️ Some shards did not finish, the report is partial"
 elif [ $EXIT_CODE -ne 0 ]; then
   echo "❌ Test execution failed with exit code $EXIT_CODE"
   exit $EXIT_CODE
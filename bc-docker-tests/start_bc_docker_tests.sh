@@ -29,8 +29,51 @@ fi
 
 echo "✅ Using port: $PORT"
 
-# === Run Docker container ===
-docker run --rm -e PORT="$PORT" -p "$PORT:$PORT" "$IMAGE_NAME" &
+# === Run Docker container(s) ===
+# Per-case timings of every run are kept in .timing-history next to this script, so that each run
+# is checked for latency regressions against the ones before it.
+HISTORY_ROOT="$(cd "$(dirname "$0")" && pwd)/.timing-history"
+mkdir -p "$HISTORY_ROOT"
+
+# SHARDS=n splits the suite over n containers running side by side; their results are merged
+# into one report served by a final container. Shard results and the case timings that balance
+# the next run are kept in .shard-results next to this script, the shards' logs in its logs
+# directory. When a shard fails, the report is still served, but flags the shard as incomplete,
+# and this script exits with an error.
+SHARDS=${SHARDS:-1}
+FAILED_SHARDS=0
+if [ "$SHARDS" -gt 1 ]; then
+    SHARD_ROOT="$(cd "$(dirname "$0")" && pwd)/.shard-results"
+    LOG_ROOT="$SHARD_ROOT/logs"
+    mkdir -p "$SHARD_ROOT"
+    rm -rf "$SHARD_ROOT"/shard-* "$SHARD_ROOT"/merged "$LOG_ROOT"
+    mkdir -p "$LOG_ROOT"
+
+    echo "🧩 Running $SHARDS shards in parallel..."
+    PIDS=()
+    for ((i=1; i<=SHARDS; i++)); do
+        docker run --rm -e SHARD="$i/$SHARDS" -e TEST_ARGS="$TEST_ARGS" \
+            -v "$SHARD_ROOT:/app/shards" "$IMAGE_NAME" > "$LOG_ROOT/shard-$i.log" 2>&1 &
+        PIDS+=($!)
+    done
+    for ((i=1; i<=SHARDS; i++)); do
+        if ! wait "${PIDS[$((i-1))]}"; then
+            echo "⚠️ Shard $i/$SHARDS failed, see $LOG_ROOT/shard-$i.log"
+            FAILED_SHARDS=$((FAILED_SHARDS + 1))
+        fi
+    done
+    if [ "$FAILED_SHARDS" -gt 0 ]; then
+        echo "❌ $FAILED_SHARDS of $SHARDS shards failed, the merged report is partial"
+    else
+        echo "✅ All shards finished"
+    fi
+
+    docker run --rm -e PORT="$PORT" -e MERGE_SHARDS="$SHARDS" -e TEST_ARGS="$TEST_ARGS" -v "$SHARD_ROOT:/app/shards" \
+        -v "$HISTORY_ROOT:/app/history" -p "$PORT:$PORT" "$IMAGE_NAME" &
+else
+    docker run --rm -e PORT="$PORT" -e TEST_ARGS="$TEST_ARGS" -v "$HISTORY_ROOT:/app/history" \
+        -p "$PORT:$PORT" "$IMAGE_NAME" &
+fi
 
 # === Wait until the Flask server becomes available ===
 echo "⏳ Waiting for the report to become available at http://localhost:$PORT..."
@@ -77,4 +120,8 @@ open_browser() {
     esac
 }
 
-open_browser
\ No newline at end of file
+open_browser
+
+if [ "$FAILED_SHARDS" -gt 0 ]; then
+    exit 1
+fi
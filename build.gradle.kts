@@ -7,6 +7,12 @@ plugins {
 group = "your.group"
 version = "1.0"
 
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 application {
     mainClass.set("runner.TestMain")
 }
@@ -26,12 +32,64 @@ dependencies {
 }
 
 tasks.test {
-    useTestNG()
+    useTestNG {
+        // opt-in parallel run, e.g. ./gradlew test -Dtestng.parallel=methods [-Dtestng.threads=8]
+        System.getProperty("testng.parallel")?.let { mode ->
+            parallel = mode
+            threadCount = System.getProperty("testng.threads")?.toInt() ?: Runtime.getRuntime().availableProcessors()
+        }
+    }
+    // bc (default), pooled or java, e.g. ./gradlew test -Dcalculator.tool=java
+    systemProperty("calculator.tool", System.getProperty("calculator.tool", "bc"))
+    // opt-in result cache for local runs, e.g. ./gradlew test -Dcalculator.cache=true
+    systemProperty("calculator.cache", System.getProperty("calculator.cache", "false"))
+    // bc resource limit profile and overrides, e.g. ./gradlew test -Dbc.limits=strict -Dbc.limits.cpuSeconds=5
+    System.getProperties().stringPropertyNames().filter { it.startsWith("bc.limits") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    // default and adaptive timeouts, e.g. ./gradlew test -Dbc.timeout.factor=5 -Dbc.timeout.adaptive=false
+    System.getProperties().stringPropertyNames().filter { it.startsWith("bc.timeout") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    // evaluation event journal, e.g. ./gradlew test -Dbc.journal.level=phases -Dbc.journal.sample=0.1
+    System.getProperties().stringPropertyNames().filter { it.startsWith("bc.journal") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    // fuzzing seed and case counts, e.g. ./gradlew test -Dfuzz.seed=42 or -Dfuzz.campaign=true -Dfuzz.budgetMs=60000
+    System.getProperties().stringPropertyNames().filter { it.startsWith("fuzz.") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    // external case catalog and filters, e.g. ./gradlew test -Dcatalog.file=cases.jsonl -Dcatalog.group=arithmetic
+    System.getProperties().stringPropertyNames().filter { it.startsWith("catalog.") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
     testLogging {
         events("passed", "skipped", "failed")
     }
 }
 
+// JMH benchmarks of the framework's own overhead, kept out of the fat jar:
+// ./gradlew jmh [-Pjmh.args="StreamHandler -wi 1 -i 3"] writes build/reports/jmh/results.json
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes the results as JSON"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    doFirst { results.parentFile.mkdirs() }
+    args("-rf", "json", "-rff", results.absolutePath)
+    project.findProperty("jmh.args")?.let { args(it.toString().trim().split(Regex("\\s+"))) }
+}
+
 tasks.jar {
     archiveBaseName.set("calc-test-framework-fat")
     duplicatesStrategy = DuplicatesStrategy.EXCLUDE
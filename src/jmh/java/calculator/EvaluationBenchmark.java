@@ -0,0 +1,48 @@
+package calculator;
+
+import model.TestCaseData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-case latency of a small expression: spawning bc, the deadline machinery on top of it, and
+ * the in-process engine as the floor without any process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private final TestCaseData smallExpression = TestCaseData.fromStringInput(
+            "bench", () -> "2 + 3 * 4 - 5", "9", "Small expression");
+
+    private final BcCalculator bc = new BcCalculator();
+    private final JavaBcCalculator java = new JavaBcCalculator();
+
+    @Benchmark
+    public EvaluationResult bcEvaluate() {
+        return bc.evaluate(smallExpression);
+    }
+
+    @Benchmark
+    public EvaluationResult bcEvaluateWithTimeout() {
+        return bc.evaluateWithTimeout(smallExpression);
+    }
+
+    @Benchmark
+    public EvaluationResult javaEngineEvaluate() {
+        return java.evaluate(smallExpression);
+    }
+}
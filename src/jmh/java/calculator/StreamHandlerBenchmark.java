@@ -0,0 +1,67 @@
+package calculator;
+
+import calculator.output.DigestSink;
+import calculator.output.FullCaptureSink;
+import calculator.output.HeadTailSink;
+import calculator.output.OutputSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of draining bc stdout: decoding, removing line continuations and handing chunks to a sink.
+ * The input is shaped like real bc output, 69 digits plus a backslash-newline per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamHandlerBenchmark {
+
+    @Param({"16", "4096", "262144", "4194304"})
+    public int outputDigits;
+
+    @Param({"full", "headTail", "digest"})
+    public String sink;
+
+    private byte[] output;
+
+    @Setup
+    public void createOutput() {
+        StringBuilder text = new StringBuilder(outputDigits + outputDigits / 69 * 2 + 1);
+        for (int i = 0; i < outputDigits; i++) {
+            if (i > 0 && i % 69 == 0) {
+                text.append("\\\n");
+            }
+            text.append((char) ('0' + i % 10));
+        }
+        text.append('\n');
+        output = text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public long drain() {
+        OutputSink target = switch (sink) {
+            case "headTail" -> new HeadTailSink(1024, 1024);
+            case "digest" -> new DigestSink();
+            default -> new FullCaptureSink();
+        };
+        StreamHandler handler = new StreamHandler(new ByteArrayInputStream(output), target);
+        handler.run();
+        return target.length();
+    }
+}
@@ -0,0 +1,94 @@
+package calculator.data;
+
+import calculator.tests.ArithmeticLimitsTest;
+import model.TestCaseData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a test pays before bc even starts: looking its case up in the registry, creating it, and
+ * materializing the input from the case's supplier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataProviderBenchmark {
+
+    private final ArithmeticDataProvider provider = new ArithmeticDataProvider();
+
+    private Method limitsMethod;
+    private Method heavyMethod;
+    private TestCaseData largeMultiplication;
+    private TestCaseData deepNesting;
+    private TestCaseData thousandAdditions;
+
+    @Setup
+    public void findCases() throws NoSuchMethodException {
+        limitsMethod = ArithmeticLimitsTest.class.getMethod("testValidParenthesesNesting", TestCaseData.class);
+        heavyMethod = ArithmeticLimitsTest.class.getMethod("testLargeMultiplication", TestCaseData.class);
+        largeMultiplication = (TestCaseData) provider.provideLargeExpressions(heavyMethod)[0][0];
+        deepNesting = (TestCaseData) provider.provideSmallExpressions(limitsMethod)[0][0];
+        Method additions = ArithmeticLimitsTest.class.getMethod("testThousandAdditions", TestCaseData.class);
+        thousandAdditions = (TestCaseData) provider.provideSmallExpressions(additions)[0][0];
+    }
+
+    /**
+     * Includes creating the method's case, as TestNG does for each test method.
+     */
+    @Benchmark
+    public Object[][] provideSmallExpressions() {
+        return provider.provideSmallExpressions(limitsMethod);
+    }
+
+    @Benchmark
+    public Object[][] provideLargeExpressions() {
+        return provider.provideLargeExpressions(heavyMethod);
+    }
+
+    /**
+     * The lookup alone, without reading the test method's annotation.
+     */
+    @Benchmark
+    public TestCaseData registryLookup() {
+        return TestCaseRegistry.getInstance().get(ArithmeticDataProvider.LIMITS, "010");
+    }
+
+    @Benchmark
+    public String largeMultiplicationInput() {
+        return largeMultiplication.input();
+    }
+
+    @Benchmark
+    public String deepNestingInput() {
+        return deepNesting.input();
+    }
+
+    @Benchmark
+    public long thousandAdditionsReader() throws IOException {
+        char[] buffer = new char[8192];
+        long total = 0;
+        try (Reader reader = thousandAdditions.getStreamReader()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
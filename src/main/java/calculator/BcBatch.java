@@ -0,0 +1,107 @@
+package calculator;
+
+import model.TestCaseData;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Pipes a sequence of cases through one bc session, yielding one {@link EvaluationResult} per case
+ * in input order.
+ * <p>
+ * Cases are written back to back on the same stdin and separated by sentinels. The next case is
+ * written once the previous sentinel has arrived, so every stderr message is attributed to the
+ * case that caused it. The session is only swapped for a fresh worker when a case kills it or
+ * leaves state behind that cannot be reset.
+ * <p>
+ * Each case runs under its own {@link EvaluationDeadline}, with the case's timeout or the one its
+ * latency history on the batch's tool gives it. An expired case kills its worker, and the next case
+ * starts on a fresh one.
+ * <p>
+ * A case that leaves bc's lexer inside a string, a comment or braces, or ends in a backslash, would
+ * swallow its sentinel. It runs on a one-shot bc instead, which reports the error at end of input.
+ */
+class BcBatch implements Iterator<EvaluationResult>, AutoCloseable {
+
+    private final WorkerSource workers;
+    private final BcCalculator oneShot;
+    private final String latencyTool;
+    private final Iterator<TestCaseData> cases;
+    private final long resultTimeoutMs;
+    private BcWorker worker;
+    private int evaluated;
+
+    BcBatch(WorkerSource workers, BcCalculator oneShot, String latencyTool, Iterator<TestCaseData> cases,
+            long resultTimeoutMs) {
+        this.workers = workers;
+        this.oneShot = oneShot;
+        this.latencyTool = latencyTool;
+        this.cases = cases;
+        this.resultTimeoutMs = resultTimeoutMs;
+    }
+
+    static Stream<EvaluationResult> stream(WorkerSource workers, BcCalculator oneShot, String latencyTool,
+                                           Iterator<TestCaseData> cases, long resultTimeoutMs) {
+        BcBatch batch = new BcBatch(workers, oneShot, latencyTool, cases, resultTimeoutMs);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(batch, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(batch::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cases.hasNext();
+    }
+
+    @Override
+    public EvaluationResult next() {
+        if (!cases.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TestCaseData testCase = cases.next();
+        if (!BcWorker.canFrame(testCase)) {
+            evaluated++;
+            return oneShot.evaluateWithTimeout(testCase);
+        }
+        try {
+            if (worker != null && !worker.isReusable()) {
+                workers.release(worker);
+                worker = null;
+            }
+            if (worker == null) {
+                worker = workers.borrow();
+            }
+        } catch (IOException | TimeoutException e) {
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+        evaluated++;
+        BcWorker current = worker;
+        Duration timeout = EvaluationDeadline.timeoutFor(latencyTool, testCase);
+        return EvaluationDeadline.run("bc batch case", timeout, deadline -> {
+            deadline.guard(current.process());
+            deadline.onExpire(current::poison);
+            return current.evaluate(testCase, resultTimeoutMs);
+        });
+    }
+
+    @Override
+    public void close() {
+        if (worker != null) {
+            workers.release(worker);
+            worker = null;
+        }
+        getLogger().info("📦 [batch] Evaluated {} cases", evaluated);
+    }
+}
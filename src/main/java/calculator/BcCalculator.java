@@ -1,101 +1,297 @@
 package calculator;
 
+import calculator.journal.EvaluationEvent;
+import calculator.journal.EvaluationEvent.Phase;
+import calculator.journal.EventJournal;
+import calculator.limits.ResourceLimit;
+import calculator.limits.ResourceLimits;
+import calculator.metrics.ChildResources;
+import calculator.metrics.EvaluationMetrics;
+import calculator.metrics.EvaluationStatistics;
+import calculator.output.OutputSink;
+import calculator.timeouts.AdaptiveTimeouts;
 import model.TestCaseData;
 
 import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.util.concurrent.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static utils.LoggingService.getLogger;
 
 public class BcCalculator implements CalculatorTool {
 
-    public EvaluationResult evaluate(TestCaseData testCase) {
-        if (testCase.isStreamed()) {
-            return evaluateInternal(null, testCase.getStreamReader());
-        } else {
-            return evaluateInternal(testCase.input(), null);
+    /**
+     * Batches and sessions get a private bc process that is thrown away once they are done with it.
+     */
+    private static final WorkerSource SESSION_WORKERS = new WorkerSource() {
+        @Override
+        public BcWorker borrow() throws IOException {
+            return newSessionWorker();
+        }
+
+        @Override
+        public void release(BcWorker worker) {
+            worker.destroy();
         }
+    };
+
+    private static final List<String> COMMAND = List.of("bc");
+
+    /**
+     * Stdin buffer for byte inputs; the process stream is only an OutputStream, so a heap buffer is
+     * written straight from its array, where a direct one would need an extra copy.
+     */
+    private static final int STDIN_BUFFER_BYTES = 1 << 20;
+
+    private final ResourceLimits limits;
+
+    /**
+     * Uses the resource limit profile selected by the {@code bc.limits} system properties.
+     */
+    public BcCalculator() {
+        this(ResourceLimits.fromSystemProperties());
+    }
+
+    public BcCalculator(ResourceLimits limits) {
+        this.limits = limits;
+        if (!limits.isUnlimited()) {
+            getLogger().info("🚧 [limits] bc runs with resource limits: {}", limits);
+        }
+    }
+
+    public ResourceLimits getLimits() {
+        return limits;
+    }
+
+    public EvaluationResult evaluate(TestCaseData testCase) {
+        return evaluateInternal(testCase, null);
     }
 
     public EvaluationResult evaluateWithTimeout(TestCaseData testCase) {
+        return EvaluationDeadline.run("bc evaluation", AdaptiveTimeouts.bcTool(), testCase,
+                deadline -> evaluateInternal(testCase, deadline));
+    }
+
+    public Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases) {
+        return BcBatch.stream(SESSION_WORKERS, this, AdaptiveTimeouts.bcTool(), testCases,
+                BcWorker.DEFAULT_RESULT_TIMEOUT_MS);
+    }
+
+    /**
+     * The session's bc runs without the resource limits of this calculator, like batches do.
+     */
+    public BcSession openSession() {
         try {
-            return runWithTimeout(() -> evaluate(testCase), 2, "bc evaluation");
-        } catch (TimeoutException e) {
-            getLogger().error(e.getMessage());
-            return new EvaluationResult(null, e.getMessage());
-        } catch (Exception e) {
-            return new EvaluationResult(null, "Execution failed: " + e.getMessage());
+            return new BcWorkerSession(SESSION_WORKERS, newSessionWorker(), EvaluationDeadline.DEFAULT_TIMEOUT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start bc session: " + e.getMessage(), e);
         }
     }
 
-    private EvaluationResult evaluateInternal(String expression, Reader streamReader) {
-        getLogger().info("🚀 [evaluate] Launching bc process");
-        try {
-            Process process = new ProcessBuilder("bc").start();
-
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()))) {
-                if (streamReader != null) {
-                    getLogger().info("📥 Streaming input directly from Reader");
-                    char[] buffer = new char[8192];
-                    int read;
-                    while ((read = streamReader.read(buffer)) != -1) {
-                        writer.write(buffer, 0, read);
-                    }
-                } else if (expression != null) {
-                    writer.write(expression);
-                    writer.newLine();
-                }
+    private static BcWorker newSessionWorker() throws IOException {
+        String sentinel = "__BC_BATCH_" + UUID.randomUUID().toString().replace("-", "") + "__";
+        return new BcWorker(0, BcProcessPool.WORKER_COMMAND, sentinel);
+    }
 
-                writer.flush();
+    /**
+     * Reports progress to the {@link EventJournal} only; the console gets debug lines at most, so
+     * parallel evaluations never queue up behind console output.
+     */
+    private EvaluationResult evaluateInternal(TestCaseData testCase, EvaluationDeadline deadline) {
+        EventJournal journal = EventJournal.shared();
+        long evaluation;
+        if (deadline != null) {
+            evaluation = deadline.evaluation();
+        } else {
+            evaluation = journal.begin();
+            journal.phase(evaluation, testCase.id(), Phase.START, EvaluationEvent.UNSET);
+        }
+        getLogger().debug("🚀 [evaluate] Launching bc process");
+        try {
+            ReadableByteChannel byteInput = testCase.hasByteInput() ? testCase.openByteChannel() : null;
+            Reader streamReader = byteInput == null && testCase.isStreamed() ? testCase.getStreamReader() : null;
+            String expression = testCase.isStreamed() ? null : testCase.input();
+            long startNanos = System.nanoTime();
+            Process process = new ProcessBuilder(limits.wrap(COMMAND)).start();
+            long spawnedNanos = System.nanoTime();
+            if (deadline != null) {
+                deadline.guard(process);
             }
+            journal.phase(evaluation, testCase.id(), Phase.SPAWNED, spawnedNanos - startNanos);
+            ChildResources resources = ChildResources.watch(process);
 
-            StreamHandler stdoutHandler = new StreamHandler(process.getInputStream());
+            // Drain stdout/stderr from the start: bc must never block on a full output pipe while
+            // we are still writing its input.
+            AtomicBoolean outputExceeded = new AtomicBoolean();
+            InputStream stdout = limits.capOutput(process.getInputStream(), () -> {
+                outputExceeded.set(true);
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            });
+            StreamHandler stdoutHandler = new StreamHandler(stdout, testCase.createOutputSink());
             StreamHandler stderrHandler = new StreamHandler(process.getErrorStream());
             stdoutHandler.start();
             stderrHandler.start();
 
-            stdoutHandler.join();
-            stderrHandler.join();
+            long[] stdinBytes = {0};
+            try {
+                feedInput(process, expression, streamReader, byteInput, stdinBytes);
+            } catch (InputReadException e) {
+                // bc already saw EOF after the part it got; its output for that part is no result
+                EvaluationDeadline.destroyTree(process);
+                resources.finish();
+                throw e;
+            } catch (IOException e) {
+                // A broken pipe is expected when bc exits (or is killed) before reading all input;
+                // its output is still collected. Anything else leaves no usable process behind.
+                if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                    EvaluationDeadline.destroyTree(process);
+                    resources.finish();
+                    throw e;
+                }
+                getLogger().warn("⚠️ bc stopped reading input: {}", e.getMessage());
+            }
+            long stdinDoneNanos = System.nanoTime();
+            journal.phase(evaluation, testCase.id(), Phase.STDIN_DONE, stdinDoneNanos - spawnedNanos, stdinBytes[0]);
+
+            try {
+                stdoutHandler.join();
+                stderrHandler.join();
+            } finally {
+                resources.finish();
+            }
+            int exitCode = process.waitFor(1, TimeUnit.SECONDS) ? process.exitValue() : -1;
+            long firstByte = stdoutHandler.getFirstByteNanoTime();
+            EvaluationMetrics metrics = new EvaluationMetrics(testCase.id(),
+                    spawnedNanos - startNanos,
+                    stdinDoneNanos - spawnedNanos,
+                    stdinBytes[0],
+                    firstByte < 0 ? EvaluationMetrics.UNKNOWN : firstByte - startNanos,
+                    System.nanoTime() - startNanos,
+                    stdoutHandler.getBytesRead(),
+                    stderrHandler.getBytesRead(),
+                    resources);
+            EvaluationStatistics.record(metrics);
+            getLogger().debug("📊 [metrics] {}", metrics);
 
-            String output = stdoutHandler.getOutput().replaceAll("[\\r\\n]", "");
+            OutputSink sink = stdoutHandler.getSink();
             String error = String.join("\n", stderrHandler.getLines()).trim();
+            journal.result(evaluation, metrics, exitCode == 0 ? null : "exit " + exitCode);
             if (!error.isEmpty()) {
-                getLogger().error("🛑 STDERR from bc:\n{}", error);
+                journal.error(evaluation, testCase.id(), Phase.STDERR, EvaluationEvent.UNSET, error);
+                getLogger().debug("🛑 STDERR from bc:\n{}", error);
             }
 
-            String outputPreview = output.length() > 100
-                    ? output.substring(0, 100) + "... (truncated)"
-                    : output;
+            EvaluationResult result = EvaluationResult.fromSink(sink, error).withMetrics(metrics);
+            ResourceLimit limit = outputExceeded.get() ? ResourceLimit.OUTPUT_SIZE : limits.classify(exitCode, error);
+            if (limit != null) {
+                String message = "🚧 Resource limit: bc exceeded the " + limits.describe(limit)
+                        + (error.isEmpty() ? "" : " (" + error + ")");
+                getLogger().error("🚧 [limits] Case {} stopped by the {}", testCase.id(), limits.describe(limit));
+                journal.error(evaluation, testCase.id(), Phase.LIMIT, metrics.getWallNanos(), message);
+                return result.withLimitExceeded(limit, message);
+            }
+            return result;
 
-            String outputTail = output.length() > 20
-                    ? output.substring(output.length() - 10)
-                    : output;
+        } catch (IOException | InterruptedException e) {
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param bytesWritten receives the number of bytes that reached bc's stdin, also on failure
+     * @throws InputReadException when the case's own input cannot be read
+     * @throws IOException        when bc stops reading its stdin
+     */
+    private static void feedInput(Process process, String expression, Reader streamReader,
+                                  ReadableByteChannel byteInput, long[] bytesWritten) throws IOException {
+        OutputStream counted = new FilterOutputStream(process.getOutputStream()) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytesWritten[0]++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                bytesWritten[0] += length;
+            }
+        };
+        if (byteInput != null) {
+            getLogger().debug("📥 Streaming input bytes directly from channel");
+            try (byteInput; OutputStream stdin = counted) {
+                pumpBytes(byteInput, stdin);
+            }
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(counted))) {
+            if (streamReader != null) {
+                getLogger().debug("📥 Streaming input directly from Reader");
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = readInput(streamReader, buffer)) != -1) {
+                    writer.write(buffer, 0, read);
+                }
+            } else if (expression != null) {
+                writer.write(expression);
+                writer.newLine();
+            }
 
-            getLogger().info("📤 Result received. Output preview: '{}', ends with: '{}', length: {}, error length: {}",
-                    outputPreview, outputTail, output.length(), error.length());
+            writer.flush();
+        }
+    }
 
-            return new EvaluationResult(output, error);
+    /**
+     * Copies {@code source} to {@code stdin} without decoding. Writes of a whole buffer bypass the
+     * small buffer of the process stream and go to the pipe in one call.
+     */
+    private static void pumpBytes(ReadableByteChannel source, OutputStream stdin) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STDIN_BUFFER_BYTES);
+        byte[] bytes = buffer.array();
+        while (readInput(source, buffer) != -1) {
+            if (buffer.position() > 0) {
+                stdin.write(bytes, 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        stdin.flush();
+    }
 
-        } catch (IOException | InterruptedException e) {
-            return new EvaluationResult(null, "Exception: " + e.getMessage());
+    private static int readInput(Reader source, char[] buffer) throws InputReadException {
+        try {
+            return source.read(buffer);
+        } catch (IOException e) {
+            throw new InputReadException(e);
         }
     }
 
-    public static <T> T runWithTimeout(Callable<T> task, int timeoutSeconds, String taskName) throws TimeoutException, Exception {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static int readInput(ReadableByteChannel source, ByteBuffer buffer) throws InputReadException {
         try {
-            getLogger().info("⏳ Starting task '{}' with timeout of {}s", taskName, timeoutSeconds);
-            Future<T> future = executor.submit(task);
-            return future.get(timeoutSeconds, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            throw new TimeoutException("⏱️ Timeout: " + taskName + " exceeded " + timeoutSeconds + "s");
-        } catch (ExecutionException e) {
-            throw new Exception("Execution error in " + taskName + ": " + e.getCause().getMessage(), e.getCause());
-        } finally {
-            executor.shutdownNow();
+            return source.read(buffer);
+        } catch (IOException e) {
+            throw new InputReadException(e);
+        }
+    }
+
+    /**
+     * Reading the case's input failed, as opposed to writing it to bc.
+     */
+    private static class InputReadException extends IOException {
+        InputReadException(IOException cause) {
+            super("Cannot read the case's input: " + cause.getMessage(), cause);
         }
     }
 }
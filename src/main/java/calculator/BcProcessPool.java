@@ -0,0 +1,229 @@
+package calculator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Keeps a fixed number of warm bc processes so that cases do not pay fork/exec per evaluation.
+ * <p>
+ * Workers are borrowed exclusively, and dead or poisoned workers are replaced on release.
+ * When a replacement cannot be started, an empty slot takes its place and the next borrower
+ * retries the spawn, so a failed spawn never shrinks the pool. Borrowers wait at most
+ * {@code bc.pool.borrowTimeoutMs}, and closing the pool wakes those still waiting.
+ * The pool records how long callers waited for a worker.
+ */
+public class BcProcessPool implements AutoCloseable {
+
+    public static final int DEFAULT_SIZE = Integer.getInteger("bc.pool.size",
+            Runtime.getRuntime().availableProcessors());
+
+    public static final long DEFAULT_BORROW_TIMEOUT_MS = Long.getLong("bc.pool.borrowTimeoutMs", 60_000);
+
+    /**
+     * {@code -q} suppresses the banner and {@code -i} makes bc flush stdout after every statement,
+     * which the sentinel protocol relies on.
+     */
+    static final List<String> WORKER_COMMAND = List.of("bc", "-q", "-i");
+
+    /**
+     * A place in the idle queue: a worker, or none when its replacement failed to start.
+     */
+    private record Slot(BcWorker worker) {
+    }
+
+    private static final Slot EMPTY = new Slot(null);
+
+    /**
+     * Put into the queue on close; every borrower that takes it puts it back for the next one.
+     */
+    private static final Slot CLOSED = new Slot(null);
+
+    private final int size;
+    private final String sentinel = "__BC_POOL_" + UUID.randomUUID().toString().replace("-", "") + "__";
+    private final BlockingQueue<Slot> idle;
+    private final List<BcWorker> all = new ArrayList<>();
+    private final AtomicInteger nextWorkerId = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong replacedWorkers = new AtomicLong();
+    private volatile boolean closed;
+
+    public BcProcessPool() {
+        this(DEFAULT_SIZE);
+    }
+
+    public BcProcessPool(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive, got " + size);
+        }
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            try {
+                idle.add(new Slot(spawn()));
+            } catch (IOException e) {
+                close();
+                throw new IllegalStateException("Failed to start bc worker: " + e.getMessage(), e);
+            }
+        }
+        getLogger().info("🏊 [pool] Started {} warm bc workers", size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    BcWorker borrow() throws IOException, InterruptedException, TimeoutException {
+        return borrow(DEFAULT_BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits at most {@code timeout} for a free worker. An empty or dead slot is refilled with a
+     * fresh process; if that fails, the slot goes back empty and the failure is thrown.
+     *
+     * @throws TimeoutException      when no worker became free in time
+     * @throws IllegalStateException when the pool is or gets closed
+     */
+    BcWorker borrow(long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException {
+        if (closed) {
+            throw new IllegalStateException("bc process pool is closed");
+        }
+        long start = System.nanoTime();
+        Slot slot = idle.poll(timeout, unit);
+        long waited = System.nanoTime() - start;
+        if (slot == null) {
+            throw new TimeoutException("No bc worker became free within " + unit.toMillis(timeout) + "ms");
+        }
+        if (slot == CLOSED || closed) {
+            idle.offer(CLOSED);
+            if (slot.worker() != null) {
+                slot.worker().destroy();
+            }
+            throw new IllegalStateException("bc process pool is closed");
+        }
+
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        BcWorker worker = slot.worker();
+        if (worker == null || !worker.isUsable()) {
+            try {
+                worker = replace(worker);
+            } catch (IOException e) {
+                idle.offer(EMPTY);
+                throw e;
+            }
+        }
+        getLogger().debug("🏊 [pool] Borrowed worker {} after {}µs", worker.id(), waited / 1_000);
+        return worker;
+    }
+
+    /**
+     * Returns a worker to the pool. Workers that died, were poisoned, or carry state the reset
+     * prelude cannot undo are destroyed and replaced by a fresh process.
+     */
+    void release(BcWorker worker) {
+        if (closed) {
+            worker.destroy();
+            return;
+        }
+        Slot slot = new Slot(worker);
+        if (!worker.isReusable()) {
+            try {
+                slot = new Slot(replace(worker));
+            } catch (IOException e) {
+                getLogger().warn("⚠️ [pool] Cannot start a replacement bc worker, the next borrower retries: {}",
+                        e.getMessage());
+                slot = EMPTY;
+            }
+        }
+        if (!idle.offer(slot) && slot.worker() != null) {
+            // only the closed marker can have taken the place
+            slot.worker().destroy();
+        }
+    }
+
+    WorkerSource asWorkerSource() {
+        return new WorkerSource() {
+            @Override
+            public BcWorker borrow() throws IOException, InterruptedException, TimeoutException {
+                return BcProcessPool.this.borrow();
+            }
+
+            @Override
+            public void release(BcWorker worker) {
+                BcProcessPool.this.release(worker);
+            }
+        };
+    }
+
+    /**
+     * Destroys {@code worker}, if there is one, and starts a fresh process in its place.
+     */
+    private BcWorker replace(BcWorker worker) throws IOException {
+        if (worker != null) {
+            getLogger().info("♻️ [pool] Replacing bc worker {} after {} cases", worker.id(), worker.casesServed());
+            worker.destroy();
+            synchronized (all) {
+                all.remove(worker);
+            }
+            replacedWorkers.incrementAndGet();
+        }
+        return spawn();
+    }
+
+    private BcWorker spawn() throws IOException {
+        BcWorker worker = new BcWorker(nextWorkerId.incrementAndGet(), WORKER_COMMAND, sentinel);
+        synchronized (all) {
+            all.add(worker);
+        }
+        return worker;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTotalBorrowWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public long getMaxBorrowWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    public double getAverageBorrowWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    public long getReplacedWorkers() {
+        return replacedWorkers.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (all) {
+            all.forEach(BcWorker::destroy);
+            all.clear();
+        }
+        idle.clear();
+        idle.offer(CLOSED);
+        getLogger().info("🏁 [pool] Closed. Borrows: {}, avg wait: {}ms, max wait: {}ms, replaced workers: {}",
+                borrowCount.get(), String.format("%.3f", getAverageBorrowWaitMillis()),
+                getMaxBorrowWaitMillis(), replacedWorkers.get());
+    }
+}
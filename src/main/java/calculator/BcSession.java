@@ -0,0 +1,34 @@
+package calculator;
+
+/**
+ * One bc interpreter kept open across calls, obtained from {@link CalculatorTool#openSession()}.
+ * <p>
+ * Every {@link #submit(String)} runs against the state the previous ones left behind: variables,
+ * arrays, functions, {@code scale}, {@code ibase} and {@code obase} carry over, so a calculation can
+ * be built up statement by statement and each step checked on its own. A submission must consist of
+ * complete statements; a definition cannot be split across calls.
+ * <p>
+ * Each submission runs under {@link EvaluationDeadline#DEFAULT_TIMEOUT}. A timeout, a {@code quit}
+ * or a failure of the interpreter ends the session, since its state can no longer be trusted.
+ */
+public interface BcSession extends AutoCloseable {
+
+    /**
+     * Evaluates {@code statements} and waits for everything they printed.
+     *
+     * @return the normalized output and stderr of these statements only
+     * @throws IllegalStateException if the session is closed
+     */
+    EvaluationResult submit(String statements);
+
+    /**
+     * @return whether the session still accepts statements
+     */
+    boolean isOpen();
+
+    /**
+     * Ends the session and releases its interpreter. Closing twice has no effect.
+     */
+    @Override
+    void close();
+}
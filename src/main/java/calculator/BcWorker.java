@@ -0,0 +1,309 @@
+package calculator;
+
+import calculator.output.BcOutputNormalizer;
+import calculator.output.FullCaptureSink;
+import calculator.output.OutputSink;
+import model.TestCaseData;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * A single long-lived bc process owned by {@link BcProcessPool}.
+ * <p>
+ * Every case is written to stdin followed by a reset prelude and a string statement carrying the
+ * pool sentinel. bc prints strings verbatim, so the sentinel line on stdout marks the end of the
+ * case. stdout is drained line by line into a queue by a virtual thread; stderr is polled without
+ * blocking so that everything bc wrote before the sentinel can be collected race-free.
+ * <p>
+ * After each case {@code ibase}, {@code obase}, {@code scale} and {@code last} are restored and
+ * every simple variable the input mentioned is reset to 0. Inputs whose state cannot be undone
+ * this way (function definitions, arrays, streamed input) mark the worker as dirty so its owner
+ * retires it. A case must leave bc's lexer in its default state, see {@link #canFrame}; otherwise
+ * the sentinel is read as part of the case and never printed.
+ */
+class BcWorker {
+
+    static final long DEFAULT_RESULT_TIMEOUT_MS = Long.getLong("bc.pool.resultTimeoutMs", 60_000);
+
+    private static final String EOF = new String("<eof>");
+    private static final String BASE_RESET = "ibase=A; obase=A; scale=0; last=0";
+    private static final int MAX_RESET_VARIABLES = 64;
+    private static final Pattern IDENTIFIER = Pattern.compile("\\b([a-z][a-z0-9_]*)\\b\\s*(\\(|\\[)?");
+    private static final Set<String> KEYWORDS = Set.of(
+            "scale", "ibase", "obase", "last", "define", "auto", "if", "else", "while", "for", "break",
+            "continue", "return", "quit", "halt", "length", "sqrt", "read", "print", "limits", "warranty");
+
+    private final int id;
+    private final String sentinel;
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final InputStream stderr;
+    private final BlockingQueue<String> stdoutLines = new LinkedBlockingQueue<>();
+    private final StringBuilder stderrBuffer = new StringBuilder();
+    private final Thread stdoutPump;
+    private final Thread stderrPump;
+    private volatile boolean poisoned;
+    private boolean dirty;
+    private int casesServed;
+
+    BcWorker(int id, List<String> command, String sentinel) throws IOException {
+        this.id = id;
+        this.sentinel = sentinel;
+        this.process = new ProcessBuilder(command).start();
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.stderr = process.getErrorStream();
+        this.stdoutPump = Thread.ofVirtual().name("bc-worker-" + id + "-stdout").start(this::pumpStdout);
+        this.stderrPump = Thread.ofVirtual().name("bc-worker-" + id + "-stderr").start(this::pumpStderr);
+    }
+
+    int id() {
+        return id;
+    }
+
+    Process process() {
+        return process;
+    }
+
+    int casesServed() {
+        return casesServed;
+    }
+
+    boolean isUsable() {
+        return !poisoned && process.isAlive();
+    }
+
+    /**
+     * Whether the worker can serve another case: it is alive, healthy, and its state was reset.
+     */
+    boolean isReusable() {
+        return !dirty && isUsable();
+    }
+
+    void poison() {
+        poisoned = true;
+    }
+
+    /**
+     * @return whether bc's lexer is back in its default state after the case, so that the reset
+     * prelude and the sentinel written after it are read as statements of their own. Streamed input
+     * is not scanned.
+     */
+    static boolean canFrame(TestCaseData testCase) {
+        return testCase.isStreamed() || StatementReader.isComplete(testCase.input());
+    }
+
+    /**
+     * Evaluates one case on this worker. Failures are reported in the result and poison the worker.
+     */
+    EvaluationResult evaluate(TestCaseData testCase, long resultTimeoutMs) {
+        try {
+            if (testCase.isStreamed()) {
+                dirty = true;
+                return run(null, testCase.getStreamReader(), BASE_RESET, testCase.createOutputSink(), resultTimeoutMs);
+            }
+            String expression = testCase.input();
+            String reset = resetFor(expression);
+            if (reset == null) {
+                dirty = true;
+                reset = BASE_RESET;
+            }
+            return run(expression, null, reset, testCase.createOutputSink(), resultTimeoutMs);
+        } catch (IOException | TimeoutException e) {
+            poisoned = true;
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        } catch (InterruptedException e) {
+            poisoned = true;
+            Thread.currentThread().interrupt();
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates {@code statements} for a {@link BcSession}: nothing is reset afterwards, so the
+     * variables, functions and bases they set stay for the next call, and the worker is dirty from
+     * then on. Failures are reported in the result and poison the worker.
+     */
+    EvaluationResult submit(String statements, long resultTimeoutMs) {
+        dirty = true;
+        try {
+            return run(statements, null, "", new FullCaptureSink(), resultTimeoutMs);
+        } catch (IOException | TimeoutException e) {
+            poisoned = true;
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        } catch (InterruptedException e) {
+            poisoned = true;
+            Thread.currentThread().interrupt();
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the statements that bring a worker back to a blank interpreter after {@code expression},
+     * or returns {@code null} when the input leaves state behind that cannot be reset in place.
+     */
+    static String resetFor(String expression) {
+        if (expression == null || expression.isEmpty()) {
+            return BASE_RESET;
+        }
+        Set<String> variables = new LinkedHashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(expression);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            String suffix = matcher.group(2);
+            if ("define".equals(name) || "[".equals(suffix)) {
+                return null;
+            }
+            if ("(".equals(suffix) || KEYWORDS.contains(name)) {
+                continue;
+            }
+            variables.add(name);
+        }
+        if (variables.size() > MAX_RESET_VARIABLES) {
+            return null;
+        }
+        StringBuilder reset = new StringBuilder(BASE_RESET);
+        for (String variable : variables) {
+            reset.append("; ").append(variable).append("=0");
+        }
+        return reset.toString();
+    }
+
+    /**
+     * Writes one case and waits for its sentinel.
+     *
+     * @param expression     literal input, or {@code null} when {@code streamReader} is used
+     * @param streamReader   streamed input, or {@code null}
+     * @param reset          statements restoring interpreter state, written before the sentinel
+     * @param sink           receives the normalized stdout of this case
+     * @param resultTimeoutMs how long to wait for the sentinel once input is written
+     */
+    private EvaluationResult run(String expression, Reader streamReader, String reset, OutputSink sink,
+                                 long resultTimeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        casesServed++;
+        drainStderr();
+
+        if (streamReader != null) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = streamReader.read(buffer)) != -1) {
+                stdin.write(buffer, 0, read);
+            }
+        } else if (expression != null) {
+            stdin.write(expression);
+        }
+        stdin.newLine();
+        stdin.write(reset);
+        stdin.newLine();
+        stdin.write("\"\n" + sentinel + "\n\"");
+        stdin.newLine();
+        stdin.flush();
+
+        BcOutputNormalizer output = new BcOutputNormalizer(sink);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(resultTimeoutMs);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            String line = stdoutLines.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            if (line == null) {
+                poisoned = true;
+                throw new TimeoutException("bc worker " + id + " produced no sentinel within " + resultTimeoutMs + "ms");
+            }
+            if (line == EOF) {
+                // e.g. the case ran "quit"; a one-shot bc would end the same way
+                poisoned = true;
+                getLogger().warn("⚠️ bc worker {} exited before the sentinel", id);
+                output.finish();
+                return EvaluationResult.fromSink(sink, drainStderr());
+            }
+            if (line.equals(sentinel)) {
+                output.finish();
+                return EvaluationResult.fromSink(sink, drainStderr());
+            }
+            if (sink.wantsMore()) {
+                output.writeLine(line);
+            }
+        }
+    }
+
+    void destroy() {
+        poisoned = true;
+        EvaluationDeadline.destroyTree(process);
+        stderrPump.interrupt();
+    }
+
+    private String drainStderr() {
+        synchronized (stderrBuffer) {
+            readAvailableStderr();
+            String error = stderrBuffer.toString().trim();
+            stderrBuffer.setLength(0);
+            return error;
+        }
+    }
+
+    private void pumpStdout() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                stdoutLines.add(line);
+            }
+        } catch (IOException e) {
+            if (!poisoned) {
+                getLogger().warn("⚠️ bc worker {} stdout pump stopped: {}", id, e.getMessage());
+            }
+        } finally {
+            stdoutLines.add(EOF);
+        }
+    }
+
+    /**
+     * Polls stderr instead of blocking in read(), so a reader holding the buffer lock always sees
+     * every byte bc wrote before the sentinel, and bc never blocks on a full stderr pipe.
+     */
+    private void pumpStderr() {
+        while (process.isAlive() && !Thread.currentThread().isInterrupted()) {
+            synchronized (stderrBuffer) {
+                readAvailableStderr();
+            }
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void readAvailableStderr() {
+        try {
+            byte[] buffer = new byte[4096];
+            int available;
+            while ((available = stderr.available()) > 0) {
+                int read = stderr.read(buffer, 0, Math.min(available, buffer.length));
+                if (read <= 0) {
+                    break;
+                }
+                stderrBuffer.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            poisoned = true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package calculator;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * {@link BcSession} on a {@link BcWorker} held for the whole session. Statements go to the worker
+ * without the reset prelude, so the worker is dirty afterwards and its source retires it on close.
+ * <p>
+ * Guarded by a lock rather than {@code synchronized}: a virtual thread waiting for bc inside a
+ * monitor would pin its carrier, which the evaluation itself may need.
+ */
+class BcWorkerSession implements BcSession {
+
+    private final WorkerSource workers;
+    private final BcWorker worker;
+    private final Duration statementTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean open = true;
+    private int submitted;
+
+    BcWorkerSession(WorkerSource workers, BcWorker worker, Duration statementTimeout) {
+        this.workers = workers;
+        this.worker = worker;
+        this.statementTimeout = statementTimeout;
+    }
+
+    @Override
+    public EvaluationResult submit(String statements) {
+        lock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("bc session is closed");
+            }
+            submitted++;
+            EvaluationResult result = EvaluationDeadline.run("bc session statement", statementTimeout, deadline -> {
+                deadline.guard(worker.process());
+                deadline.onExpire(worker::poison);
+                return worker.submit(statements, BcWorker.DEFAULT_RESULT_TIMEOUT_MS);
+            });
+            if (!worker.isUsable()) {
+                getLogger().warn("⚠️ [session] bc session ended after {} statements", submitted);
+                close();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        lock.lock();
+        try {
+            return open;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (open) {
+                open = false;
+                workers.release(worker);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
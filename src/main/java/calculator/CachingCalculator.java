@@ -0,0 +1,220 @@
+package calculator;
+
+import calculator.cache.CacheKeys;
+import calculator.cache.ResultCache;
+import calculator.journal.EvaluationEvent;
+import calculator.journal.EvaluationEvent.Phase;
+import calculator.journal.EventJournal;
+import calculator.output.OutputSink;
+import calculator.timeouts.AdaptiveTimeouts;
+import model.TestCaseData;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Decorator that answers repeated cases from a {@link ResultCache} instead of evaluating them again.
+ * <p>
+ * Keys combine the delegate's identity (for bc, the binary's path, size and hash) with the exact
+ * input, so only deterministic reruns hit. Only results whose full output is known are stored, and
+ * never timeouts, resource limit hits or exceptions, which depend on the machine rather than the
+ * input. A hit replays the cached output through the case's own {@link OutputSink}, so streaming
+ * matchers and digests see the same text as on a real run.
+ */
+public class CachingCalculator implements CalculatorTool, AutoCloseable {
+
+    public static final long DEFAULT_MAX_INPUT_CHARS = Long.getLong("calculator.cache.maxInputChars", 64L * 1024 * 1024);
+
+    private final CalculatorTool delegate;
+    private final String toolIdentity;
+    private final String latencyTool;
+    private final ResultCache cache;
+    private final long maxInputChars;
+
+    public CachingCalculator(CalculatorTool delegate, String toolIdentity, ResultCache cache) {
+        this(delegate, toolIdentity, cache, DEFAULT_MAX_INPUT_CHARS);
+    }
+
+    public CachingCalculator(CalculatorTool delegate, String toolIdentity, ResultCache cache, long maxInputChars) {
+        this.delegate = delegate;
+        this.toolIdentity = toolIdentity;
+        this.latencyTool = latencyToolOf(delegate);
+        this.cache = cache;
+        this.maxInputChars = maxInputChars;
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    public EvaluationResult evaluate(TestCaseData testCase) {
+        String key = keyFor(testCase);
+        return lookup(key, testCase).orElseGet(() -> store(key, delegate.evaluate(testCase)));
+    }
+
+    /**
+     * Hashing streamed input can take as long as evaluating it, so the lookup runs under the
+     * case's timeout as well. A hit, or a lookup that timed out, ends there. A miss is evaluated
+     * afterwards, under the delegate's own deadline only.
+     */
+    public EvaluationResult evaluateWithTimeout(TestCaseData testCase) {
+        Duration timeout = EvaluationDeadline.timeoutFor(latencyTool, testCase);
+        String[] key = new String[1];
+        EvaluationResult answered = EvaluationDeadline.run("cache lookup", timeout, deadline -> {
+            key[0] = keyFor(testCase);
+            return lookup(key[0], testCase).orElse(null);
+        });
+        if (answered != null) {
+            return answered;
+        }
+        return store(key[0], delegate.evaluateWithTimeout(testCase));
+    }
+
+    /**
+     * Misses are forwarded one at a time to a single delegate batch session, which is opened on
+     * the first miss; hits never reach it.
+     */
+    public Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases) {
+        MissFeed misses = new MissFeed();
+        Iterator<EvaluationResult> results = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return testCases.hasNext();
+            }
+
+            @Override
+            public EvaluationResult next() {
+                TestCaseData testCase = testCases.next();
+                String key = keyFor(testCase);
+                Optional<EvaluationResult> hit = lookup(key, testCase);
+                return hit.isPresent() ? hit.get() : store(key, misses.evaluate(testCase));
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED), false)
+                .onClose(misses::close);
+    }
+
+    /**
+     * A statement's result depends on everything submitted before it, so sessions bypass the cache.
+     */
+    public BcSession openSession() {
+        return delegate.openSession();
+    }
+
+    /**
+     * The lookup gets the timeout the delegate would give the case, so it must read the latency
+     * history the delegate records under; a pool keeps its own, apart from plain bc.
+     */
+    private static String latencyToolOf(CalculatorTool delegate) {
+        return switch (delegate) {
+            case PooledBcCalculator pooled -> PooledBcCalculator.latencyTool();
+            case JavaBcCalculator java -> AdaptiveTimeouts.javaTool();
+            case BcCalculator bc -> AdaptiveTimeouts.bcTool();
+            default -> null;
+        };
+    }
+
+    private String keyFor(TestCaseData testCase) {
+        try {
+            return CacheKeys.keyFor(toolIdentity, testCase, maxInputChars);
+        } catch (IOException e) {
+            getLogger().warn("⚠️ [cache] Cannot hash input of {}, bypassing the cache: {}", testCase.id(), e.getMessage());
+            return null;
+        }
+    }
+
+    private Optional<EvaluationResult> lookup(String key, TestCaseData testCase) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        return cache.get(key).map(cached -> {
+            EventJournal journal = EventJournal.shared();
+            journal.phase(journal.begin(), testCase.id(), Phase.CACHE_HIT, EvaluationEvent.UNSET);
+            OutputSink sink = testCase.createOutputSink();
+            if (cached.getOutput() != null) {
+                char[] chars = cached.getOutput().toCharArray();
+                sink.write(chars, 0, chars.length);
+            }
+            return EvaluationResult.fromSink(sink, cached.getError());
+        });
+    }
+
+    private EvaluationResult store(String key, EvaluationResult result) {
+        if (key != null && isCacheable(result)) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Only results whose output was kept in full can be replayed, and only answers and errors bc
+     * itself gives are a property of the input, see {@link EvaluationOutcome#isDeterministic()}.
+     */
+    private static boolean isCacheable(EvaluationResult result) {
+        long keptLength = result.getOutput() == null ? 0 : result.getOutput().length();
+        return keptLength == result.getOutputLength() && result.getOutcome().isDeterministic();
+    }
+
+    @Override
+    public void close() {
+        getLogger().info("🗃️ [cache] Hits: {}, misses: {}, stored: {}, evicted: {}, entries: {} ({} bytes)",
+                cache.getHits(), cache.getMisses(), cache.getStores(), cache.getEvictions(),
+                cache.getEntryCount(), cache.getTotalBytes());
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                getLogger().warn("⚠️ [cache] Closing {} failed: {}", delegate.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hands misses one by one to a lazily opened delegate batch stream. Relies on the delegate
+     * pulling a case only when its next result is requested, as {@link CalculatorTool} specifies.
+     */
+    private class MissFeed implements Iterator<TestCaseData> {
+        private TestCaseData pending;
+        private Stream<EvaluationResult> session;
+        private Iterator<EvaluationResult> results;
+
+        EvaluationResult evaluate(TestCaseData testCase) {
+            if (session == null) {
+                session = delegate.evaluateBatchStream(this);
+                results = session.iterator();
+            }
+            pending = testCase;
+            return results.next();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public TestCaseData next() {
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            TestCaseData next = pending;
+            pending = null;
+            return next;
+        }
+
+        void close() {
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+}
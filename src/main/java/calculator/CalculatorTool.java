@@ -3,9 +3,54 @@ package calculator;
 
 import model.TestCaseData;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public interface CalculatorTool {
 
     EvaluationResult evaluate(TestCaseData testCase);
 
     EvaluationResult evaluateWithTimeout(TestCaseData testCase);
-}
\ No newline at end of file
+
+    /**
+     * Starts the evaluation on a virtual thread and returns immediately.
+     */
+    default CompletableFuture<EvaluationResult> evaluateAsync(TestCaseData testCase) {
+        return CompletableFuture.supplyAsync(() -> evaluate(testCase), VirtualThreads.EXECUTOR);
+    }
+
+    /**
+     * Evaluates all cases through a single calculator session.
+     *
+     * @return one result per case, in the same order as {@code testCases}
+     */
+    default List<EvaluationResult> evaluateBatch(List<TestCaseData> testCases) {
+        try (Stream<EvaluationResult> results = evaluateBatchStream(testCases.iterator())) {
+            return results.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily evaluates cases through a single calculator session as the stream is consumed.
+     * The stream holds the session open and must be closed.
+     */
+    Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases);
+
+    /**
+     * Opens an interpreter that keeps its state between submitted statements. The session holds
+     * the interpreter until it is closed.
+     */
+    BcSession openSession();
+
+    /**
+     * Evaluates {@code testCase} statement by statement on a session of this tool, publishing each
+     * statement's output and errors as soon as they arrive.
+     */
+    default Flow.Publisher<StatementResult> evaluateStatements(TestCaseData testCase) {
+        return new StatementPublisher(this::openSession, testCase);
+    }
+}
@@ -0,0 +1,94 @@
+package calculator;
+
+import calculator.cache.CacheKeys;
+import calculator.cache.ResultCache;
+import calculator.engine.BcEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Picks the {@link CalculatorTool} for a run from the {@code calculator.tool} system property:
+ * <ul>
+ *     <li>{@code bc} (default) — one bc process per case</li>
+ *     <li>{@code pooled} — warm bc processes from a {@link BcProcessPool}</li>
+ *     <li>{@code java} — the in-process {@link calculator.engine.BcEngine}, no processes at all</li>
+ * </ul>
+ * With {@code -Dcalculator.cache=true} the tool is wrapped in a {@link CachingCalculator} backed by
+ * {@code calculator.cache.dir} (default {@code build/bc-result-cache}) and bounded by
+ * {@code calculator.cache.maxBytes}. Caching is off by default, so certification runs always
+ * evaluate every case.
+ */
+public final class CalculatorTools {
+
+    public static final String PROPERTY = "calculator.tool";
+    public static final String CACHE_PROPERTY = "calculator.cache";
+
+    private CalculatorTools() {
+    }
+
+    public static CalculatorTool fromSystemProperty() {
+        String name = System.getProperty(PROPERTY, "bc");
+        CalculatorTool tool = create(name);
+        if (!Boolean.getBoolean(CACHE_PROPERTY)) {
+            return tool;
+        }
+        String identity;
+        try {
+            identity = name.trim().equalsIgnoreCase("java")
+                    ? CacheKeys.codeIdentity(BcEngine.class)
+                    : CacheKeys.bcBinaryIdentity();
+        } catch (RuntimeException e) {
+            getLogger().warn("⚠️ [calculator] Result cache disabled: {}", e.getMessage());
+            return tool;
+        }
+        return new CachingCalculator(tool, identity, SharedCache.CACHE);
+    }
+
+    public static CalculatorTool create(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "bc" -> new BcCalculator();
+            case "pooled" -> SharedPool.CALCULATOR;
+            case "java" -> new JavaBcCalculator();
+            default -> throw new IllegalArgumentException(
+                    "Unknown " + PROPERTY + " '" + name + "', expected bc, pooled or java");
+        };
+    }
+
+    /**
+     * All test classes of a run share one pool, which is closed when the JVM exits.
+     */
+    private static final class SharedPool {
+        static final PooledBcCalculator CALCULATOR = new PooledBcCalculator();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(CALCULATOR::close, "bc-pool-shutdown"));
+            getLogger().info("🏊 [calculator] Using a shared pool of warm bc processes");
+        }
+    }
+
+    /**
+     * One cache per run; its statistics are logged when the JVM exits.
+     */
+    private static final class SharedCache {
+        static final ResultCache CACHE;
+
+        static {
+            Path directory = Path.of(System.getProperty("calculator.cache.dir", "build/bc-result-cache"));
+            long maxBytes = Long.getLong("calculator.cache.maxBytes", 256L * 1024 * 1024);
+            try {
+                CACHE = new ResultCache(directory, maxBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open result cache " + directory, e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> getLogger().info(
+                    "🗃️ [cache] Hits: {}, misses: {}, stored: {}, evicted: {}, entries: {} ({} bytes)",
+                    CACHE.getHits(), CACHE.getMisses(), CACHE.getStores(), CACHE.getEvictions(),
+                    CACHE.getEntryCount(), CACHE.getTotalBytes()), "bc-cache-stats"));
+        }
+    }
+}
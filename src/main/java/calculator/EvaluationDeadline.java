@@ -0,0 +1,217 @@
+package calculator;
+
+import calculator.journal.EvaluationEvent.Phase;
+import calculator.journal.EventJournal;
+import calculator.timeouts.AdaptiveTimeouts;
+import model.TestCaseData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Deadline for one evaluation, armed on a single scheduler thread shared by all calculators.
+ * <p>
+ * On expiry the guarded bc processes are destroyed together with their descendants, their pipes are
+ * closed so pumping threads see EOF, the evaluating thread is interrupted, and the caller gets a
+ * timeout result immediately. The time from expiry until every guarded process has exited is
+ * reported as the cleanup time.
+ * <p>
+ * Each deadline opens an evaluation in the {@link EventJournal}, whose number the guarded
+ * evaluation uses for its own events. Starts go to the journal only; timeouts are logged as well.
+ */
+public final class EvaluationDeadline {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMillis(Long.getLong("bc.timeoutMs", 2_000));
+
+    private static final long EXIT_WAIT_MS = 5_000;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "bc-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String taskName;
+    private final String caseId;
+    private final Duration timeout;
+    private final long evaluation = EventJournal.shared().begin();
+    private final CompletableFuture<EvaluationResult> result = new CompletableFuture<>();
+    private final List<Process> guarded = new CopyOnWriteArrayList<>();
+    private final List<Runnable> cleanups = new CopyOnWriteArrayList<>();
+    private volatile Thread evaluatingThread;
+    private volatile boolean expired;
+
+    private EvaluationDeadline(String taskName, String caseId, Duration timeout) {
+        this.taskName = taskName;
+        this.caseId = caseId;
+        this.timeout = timeout;
+    }
+
+    public static Duration timeoutFor(TestCaseData testCase) {
+        return testCase.getTimeout() != null ? testCase.getTimeout() : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * @return the case's own timeout, or one adapted to its latency history on {@code tool}
+     */
+    public static Duration timeoutFor(String tool, TestCaseData testCase) {
+        return AdaptiveTimeouts.shared().timeoutFor(tool, testCase);
+    }
+
+    /**
+     * Runs {@code evaluation} under the timeout {@link AdaptiveTimeouts} gives {@code testCase} on
+     * {@code tool}, and adds its latency to the case's history unless it timed out.
+     */
+    static EvaluationResult run(String taskName, String tool, TestCaseData testCase,
+                                Function<EvaluationDeadline, EvaluationResult> evaluation) {
+        AdaptiveTimeouts timeouts = AdaptiveTimeouts.shared();
+        long start = System.nanoTime();
+        EvaluationDeadline[] deadline = new EvaluationDeadline[1];
+        EvaluationResult result = run(taskName, testCase.id(), timeouts.timeoutFor(tool, testCase), started -> {
+            deadline[0] = started;
+            return evaluation.apply(started);
+        });
+        if (deadline[0] != null && !deadline[0].expired) {
+            timeouts.record(tool, testCase, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code evaluation} on a virtual thread and waits for it, at most until {@code timeout}.
+     * The evaluation registers the processes it starts through {@link #guard(Process)}.
+     */
+    static EvaluationResult run(String taskName, Duration timeout,
+                                Function<EvaluationDeadline, EvaluationResult> evaluation) {
+        return run(taskName, null, timeout, evaluation);
+    }
+
+    private static EvaluationResult run(String taskName, String caseId, Duration timeout,
+                                        Function<EvaluationDeadline, EvaluationResult> evaluation) {
+        EvaluationDeadline deadline = new EvaluationDeadline(taskName, caseId, timeout);
+        EventJournal.shared().phase(deadline.evaluation, caseId, Phase.START, timeout.toNanos());
+        getLogger().debug("⏳ Starting task '{}' with timeout of {}ms", taskName, timeout.toMillis());
+
+        // expiry only kills, flags and interrupts, so it runs on the scheduler thread itself: a
+        // CPU-bound evaluation may hold every carrier thread, and must still be interrupted
+        ScheduledFuture<?> expiry = SCHEDULER.schedule(deadline::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        VirtualThreads.EXECUTOR.execute(() -> {
+            deadline.evaluatingThread = Thread.currentThread();
+            try {
+                deadline.complete(evaluation.apply(deadline));
+            } catch (RuntimeException e) {
+                deadline.complete(EvaluationResult.toolFailure(
+                        "Execution failed: Execution error in " + taskName + ": " + e.getMessage()));
+            } finally {
+                deadline.evaluatingThread = null;
+            }
+        });
+
+        try {
+            return deadline.result.join();
+        } finally {
+            expiry.cancel(false);
+        }
+    }
+
+    /**
+     * Kills {@code process} and its descendants if this deadline expires, or right away if it
+     * already has.
+     */
+    public void guard(Process process) {
+        guarded.add(process);
+        if (expired) {
+            destroyTree(process);
+        }
+    }
+
+    /**
+     * Runs {@code cleanup} if this deadline expires, or right away if it already has.
+     */
+    public void onExpire(Runnable cleanup) {
+        cleanups.add(cleanup);
+        if (expired) {
+            cleanup.run();
+        }
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * @return the {@link EventJournal} number of the evaluation this deadline guards
+     */
+    public long evaluation() {
+        return evaluation;
+    }
+
+    /**
+     * Once expired, whatever the evaluation returns is an artifact of the kill; only the timeout
+     * result produced by {@link #expire()} counts.
+     */
+    private void complete(EvaluationResult evaluationResult) {
+        if (!expired) {
+            result.complete(evaluationResult);
+        }
+    }
+
+    private void expire() {
+        if (result.isDone()) {
+            return;
+        }
+        expired = true;
+        long start = System.nanoTime();
+
+        guarded.forEach(EvaluationDeadline::destroyTree);
+        cleanups.forEach(Runnable::run);
+        Thread thread = evaluatingThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+
+        CompletableFuture.allOf(guarded.stream().map(Process::onExit).toArray(CompletableFuture[]::new))
+                .orTimeout(EXIT_WAIT_MS, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, failure) -> {
+                    long cleanupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    String message = "⏱️ Timeout: " + taskName + " exceeded " + timeout.toMillis() + "ms"
+                            + " (cleanup took " + cleanupMillis + "ms"
+                            + (failure instanceof TimeoutException ? ", process still alive" : "") + ")";
+                    getLogger().error(message);
+                    EventJournal.shared().error(evaluation, caseId, Phase.TIMEOUT, timeout.toNanos(), message);
+                    result.complete(EvaluationResult.timeout(message));
+                });
+    }
+
+    /**
+     * Forcibly destroys {@code process} and all of its descendants and closes its pipes, so that
+     * threads blocked on them return.
+     */
+    static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+        closeQuietly(process.getOutputStream());
+        closeQuietly(process.getInputStream());
+        closeQuietly(process.getErrorStream());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // the process is gone, nothing left to flush
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package calculator;
+
+/**
+ * How an evaluation ended, set where its {@link EvaluationResult} is built. Only {@link #OK} and
+ * {@link #BC_ERROR} are a property of the input alone; the others depend on the machine and the
+ * moment.
+ */
+public enum EvaluationOutcome {
+    /** bc answered without writing to stderr. */
+    OK,
+    /** bc answered and reported an error of its own, e.g. a syntax or runtime error. */
+    BC_ERROR,
+    /** The deadline expired before bc answered. */
+    TIMEOUT,
+    /** A resource limit stopped bc, see {@link EvaluationResult#getLimitExceeded()}. */
+    LIMIT,
+    /** The framework could not get an answer: bc could not be started, fed or read, or no worker was free. */
+    TOOL_FAILURE;
+
+    /**
+     * @return whether a result with this outcome may be answered from a cache on a later run
+     */
+    public boolean isDeterministic() {
+        return this == OK || this == BC_ERROR;
+    }
+}
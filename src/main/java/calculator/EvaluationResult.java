@@ -1,16 +1,80 @@
 package calculator;
 
+import calculator.limits.ResourceLimit;
+import calculator.metrics.EvaluationMetrics;
+import calculator.output.OutputSink;
+
 public class EvaluationResult {
     private final String output;
     private final String error;
     private final boolean success;
+    private final long outputLength;
+    private final OutputSink outputSink;
+    private final EvaluationMetrics metrics;
+    private final ResourceLimit limitExceeded;
+    private final EvaluationOutcome outcome;
 
+    /**
+     * A result bc answered: {@link EvaluationOutcome#OK} without an error, else
+     * {@link EvaluationOutcome#BC_ERROR}.
+     */
     public EvaluationResult(String output, String error) {
+        this(output, error, output == null ? 0 : output.length(), null, null, null, answered(error));
+    }
+
+    private EvaluationResult(String output, String error, long outputLength, OutputSink outputSink,
+                             EvaluationMetrics metrics, ResourceLimit limitExceeded, EvaluationOutcome outcome) {
         this.output = output;
         this.error = error;
         this.success = (error == null || error.isEmpty());
+        this.outputLength = outputLength;
+        this.outputSink = outputSink;
+        this.metrics = metrics;
+        this.limitExceeded = limitExceeded;
+        this.outcome = outcome;
+    }
+
+    /**
+     * A result bc answered into {@code outputSink}, see {@link #EvaluationResult(String, String)}.
+     */
+    public static EvaluationResult fromSink(OutputSink outputSink, String error) {
+        return new EvaluationResult(outputSink.output(), error, outputSink.length(), outputSink, null, null,
+                answered(error));
+    }
+
+    /**
+     * @param message why the deadline expired
+     */
+    public static EvaluationResult timeout(String message) {
+        return new EvaluationResult(null, message, 0, null, null, null, EvaluationOutcome.TIMEOUT);
+    }
+
+    /**
+     * @param error why the framework got no answer from bc
+     */
+    public static EvaluationResult toolFailure(String error) {
+        return new EvaluationResult(null, error, 0, null, null, null, EvaluationOutcome.TOOL_FAILURE);
+    }
+
+    private static EvaluationOutcome answered(String error) {
+        return error == null || error.isEmpty() ? EvaluationOutcome.OK : EvaluationOutcome.BC_ERROR;
+    }
+
+    public EvaluationResult withMetrics(EvaluationMetrics metrics) {
+        return new EvaluationResult(output, error, outputLength, outputSink, metrics, limitExceeded, outcome);
     }
 
+    /**
+     * @param error replaces this result's error, naming the limit
+     */
+    public EvaluationResult withLimitExceeded(ResourceLimit limit, String error) {
+        return new EvaluationResult(output, error, outputLength, outputSink, metrics, limit, EvaluationOutcome.LIMIT);
+    }
+
+    /**
+     * @return the output as kept by the case's {@link OutputSink}; may be abbreviated or
+     * {@code null} when the sink does not keep the full text
+     */
     public String getOutput() {
         return output;
     }
@@ -23,10 +87,47 @@ public class EvaluationResult {
         return success;
     }
 
+    /**
+     * @return how the evaluation ended; decides whether the result may be cached and how load runs
+     * count it, where the error text is only meant for people
+     */
+    public EvaluationOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return length of the normalized output, also when the text itself was not kept
+     */
+    public long getOutputLength() {
+        return outputLength;
+    }
+
+    /**
+     * @return the sink the output was written to, or {@code null} if the evaluation never produced one
+     */
+    public OutputSink getOutputSink() {
+        return outputSink;
+    }
+
+    /**
+     * @return timings and resources of the bc process that produced this result, or {@code null}
+     * if it was not measured, e.g. for pooled workers, the Java engine, cache hits and timeouts
+     */
+    public EvaluationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the resource limit that stopped bc, or {@code null} if it ran without hitting one
+     */
+    public ResourceLimit getLimitExceeded() {
+        return limitExceeded;
+    }
+
     @Override
     public String toString() {
         return success
                 ? "✅ Result: " + output
                 : "❌ Error: " + error;
     }
-}
\ No newline at end of file
+}
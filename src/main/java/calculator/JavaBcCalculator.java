@@ -0,0 +1,84 @@
+package calculator;
+
+import calculator.engine.BcEngine;
+import calculator.journal.EventJournal;
+import calculator.output.OutputSink;
+import calculator.timeouts.AdaptiveTimeouts;
+import model.TestCaseData;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * {@link CalculatorTool} that runs cases on the in-process {@link BcEngine} instead of forking bc.
+ * <p>
+ * Covers the expression subset of bc only; anything else is reported as a syntax error. Inputs
+ * larger than {@link BcEngine#MAX_INPUT_CHARS} fail fast instead of being read to the end.
+ */
+public class JavaBcCalculator implements CalculatorTool {
+
+    public EvaluationResult evaluate(TestCaseData testCase) {
+        return evaluate(testCase, EventJournal.shared().begin());
+    }
+
+    public EvaluationResult evaluateWithTimeout(TestCaseData testCase) {
+        return EvaluationDeadline.run("java bc evaluation", AdaptiveTimeouts.javaTool(), testCase,
+                deadline -> evaluate(testCase, deadline.evaluation()));
+    }
+
+    private EvaluationResult evaluate(TestCaseData testCase, long evaluation) {
+        long start = System.nanoTime();
+        OutputSink sink = testCase.createOutputSink();
+        EvaluationResult result;
+        try {
+            result = EvaluationResult.fromSink(sink, evaluateOn(new BcEngine(sink), testCase));
+        } catch (IOException e) {
+            result = EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+        getLogger().debug("☕ [java-bc] Case {} produced {} chars", testCase.id(), sink.length());
+        EventJournal.shared().result(evaluation, testCase.id(), System.nanoTime() - start, result);
+        return result;
+    }
+
+    /**
+     * Cases of a batch share nothing: unlike a bc session, every case starts on a fresh engine,
+     * which is what the pooled workers' reset prelude emulates anyway.
+     */
+    public Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(testCases, Spliterator.ORDERED), false)
+                .map(this::evaluate);
+    }
+
+    public BcSession openSession() {
+        return new JavaBcSession(EvaluationDeadline.DEFAULT_TIMEOUT);
+    }
+
+    private static String evaluateOn(BcEngine engine, TestCaseData testCase) throws IOException {
+        if (!testCase.isStreamed()) {
+            String input = testCase.input();
+            return engine.run(input == null ? "" : input);
+        }
+        try (Reader reader = testCase.getStreamReader()) {
+            StringBuilder input = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("interrupted while reading input");
+                }
+                if (input.length() + read > BcEngine.MAX_INPUT_CHARS) {
+                    return "input exceeds the Java bc engine limit of " + BcEngine.MAX_INPUT_CHARS + " characters";
+                }
+                input.append(buffer, 0, read);
+            }
+            return engine.run(input.toString());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package calculator;
+
+import calculator.engine.BcEngine;
+import calculator.output.FullCaptureSink;
+import calculator.output.OutputSink;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link BcSession} on one {@link BcEngine}. The engine writes to a sink that is pointed at a
+ * fresh capture for every submission, so each result holds that submission's output only. Like
+ * {@link BcWorkerSession} it is guarded by a lock, not a monitor.
+ */
+class JavaBcSession implements BcSession {
+
+    private final RetargetableSink sink = new RetargetableSink();
+    private final BcEngine engine = new BcEngine(sink);
+    private final Duration statementTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean open = true;
+
+    JavaBcSession(Duration statementTimeout) {
+        this.statementTimeout = statementTimeout;
+    }
+
+    @Override
+    public EvaluationResult submit(String statements) {
+        lock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("bc session is closed");
+            }
+            FullCaptureSink capture = new FullCaptureSink();
+            sink.target = capture;
+            EvaluationResult result = EvaluationDeadline.run("java bc session statement", statementTimeout, deadline -> {
+                // an interrupted engine may still be mid-statement, so it is not used again
+                deadline.onExpire(this::close);
+                return EvaluationResult.fromSink(capture, engine.run(statements));
+            });
+            if (engine.hasQuit()) {
+                close();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private static class RetargetableSink implements OutputSink {
+        private volatile OutputSink target = new FullCaptureSink();
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            target.write(chars, offset, length);
+        }
+
+        @Override
+        public long length() {
+            return target.length();
+        }
+
+        @Override
+        public String output() {
+            return target.output();
+        }
+
+        @Override
+        public boolean wantsMore() {
+            return target.wantsMore();
+        }
+    }
+}
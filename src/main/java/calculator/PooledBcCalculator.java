@@ -0,0 +1,178 @@
+package calculator;
+
+import calculator.journal.EventJournal;
+import calculator.limits.ResourceLimits;
+import calculator.timeouts.AdaptiveTimeouts;
+import model.TestCaseData;
+
+import java.io.IOException;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * {@link CalculatorTool} backed by a {@link BcProcessPool} of warm bc processes.
+ * <p>
+ * Every case borrows a worker for its duration; batches keep one worker for the whole batch.
+ * A case that would leave a worker's lexer inside a string, comment or braces cannot be framed by
+ * the worker's sentinel, so it runs on a one-shot bc, without resource limits like the workers.
+ */
+public class PooledBcCalculator implements CalculatorTool, AutoCloseable {
+
+    private final BcProcessPool pool;
+    private final long resultTimeoutMs;
+    private final BcCalculator oneShot = new BcCalculator(ResourceLimits.NONE);
+
+    public PooledBcCalculator() {
+        this(new BcProcessPool(), BcWorker.DEFAULT_RESULT_TIMEOUT_MS);
+    }
+
+    public PooledBcCalculator(int poolSize) {
+        this(new BcProcessPool(poolSize), BcWorker.DEFAULT_RESULT_TIMEOUT_MS);
+    }
+
+    public PooledBcCalculator(BcProcessPool pool, long resultTimeoutMs) {
+        this.pool = pool;
+        this.resultTimeoutMs = resultTimeoutMs;
+    }
+
+    public BcProcessPool getPool() {
+        return pool;
+    }
+
+    public EvaluationResult evaluate(TestCaseData testCase) {
+        if (!BcWorker.canFrame(testCase)) {
+            return oneShot.evaluate(testCase);
+        }
+        BcWorker worker;
+        try {
+            worker = pool.borrow();
+        } catch (IOException | TimeoutException e) {
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+        try {
+            return evaluateOn(worker, testCase, EventJournal.shared().begin());
+        } finally {
+            pool.release(worker);
+        }
+    }
+
+    /**
+     * Waiting for a free worker counts against the case's timeout. The worker goes back to the pool
+     * only once the deadline has produced its result, so an expiry can never hit a worker that
+     * another case has borrowed in the meantime.
+     */
+    public EvaluationResult evaluateWithTimeout(TestCaseData testCase) {
+        if (!BcWorker.canFrame(testCase)) {
+            return oneShot.evaluateWithTimeout(testCase);
+        }
+        Lease lease = new Lease();
+        try {
+            return EvaluationDeadline.run("pooled bc evaluation", latencyTool(), testCase, deadline -> {
+                BcWorker worker;
+                try {
+                    worker = pool.borrow();
+                } catch (IOException | TimeoutException e) {
+                    return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+                }
+                if (!lease.hold(worker)) {
+                    return EvaluationResult.toolFailure("Exception: timed out waiting for a bc worker");
+                }
+                // Killing the process unblocks the evaluating thread.
+                deadline.onExpire(() -> lease.kill(deadline));
+                return evaluateOn(worker, testCase, deadline.evaluation());
+            });
+        } finally {
+            lease.end();
+        }
+    }
+
+    /**
+     * @return the identity under which pooled evaluations keep their latency history; warm workers
+     * answer faster than a fresh process, so they do not share the history of plain bc
+     */
+    static String latencyTool() {
+        return "pooled " + AdaptiveTimeouts.bcTool();
+    }
+
+    public Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases) {
+        return BcBatch.stream(pool.asWorkerSource(), oneShot, latencyTool(), testCases, resultTimeoutMs);
+    }
+
+    /**
+     * The session keeps its worker until it is closed; the pool then replaces the worker, since
+     * the session's state is never reset.
+     */
+    public BcSession openSession() {
+        try {
+            return new BcWorkerSession(pool.asWorkerSource(), pool.borrow(), EvaluationDeadline.DEFAULT_TIMEOUT);
+        } catch (IOException | TimeoutException e) {
+            throw new IllegalStateException("Failed to get a bc worker for the session: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a bc worker", e);
+        }
+    }
+
+    private EvaluationResult evaluateOn(BcWorker worker, TestCaseData testCase, long evaluation) {
+        long start = System.nanoTime();
+        EvaluationResult result = worker.evaluate(testCase, resultTimeoutMs);
+        EventJournal.shared().result(evaluation, testCase.id(), System.nanoTime() - start, result);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * A worker borrowed under a deadline. The deadline may only kill it while the lease holds it,
+     * and the caller hands it back to the pool exactly once, after the deadline has returned.
+     */
+    private final class Lease {
+        private BcWorker worker;
+        private boolean ended;
+
+        /**
+         * @return whether the lease took {@code borrowed}; if the caller has already given up, the
+         * worker goes straight back to the pool and must not be used
+         */
+        boolean hold(BcWorker borrowed) {
+            synchronized (this) {
+                if (!ended) {
+                    worker = borrowed;
+                    return true;
+                }
+            }
+            pool.release(borrowed);
+            return false;
+        }
+
+        synchronized void kill(EvaluationDeadline deadline) {
+            if (worker != null) {
+                worker.poison();
+                deadline.guard(worker.process());
+            }
+        }
+
+        void end() {
+            BcWorker held;
+            synchronized (this) {
+                ended = true;
+                held = worker;
+                worker = null;
+            }
+            if (held != null) {
+                pool.release(held);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package calculator;
+
+import model.TestCaseData;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Evaluates a case statement by statement and publishes one {@link StatementResult} per statement
+ * as soon as bc has answered it, so every output value and error message is tied to the input
+ * line that caused it.
+ * <p>
+ * Every subscriber gets a {@link BcSession} of its own, opened on its first request. Statements
+ * are split by {@link StatementReader} and submitted one at a time, and only while the subscriber
+ * has outstanding demand, so a slow subscriber holds bc back instead of buffering results. The
+ * stream completes after the last statement, or early when the session ends on a {@code quit} or
+ * a timeout; that last statement's result carries the timeout.
+ */
+public class StatementPublisher implements Flow.Publisher<StatementResult> {
+
+    private final Supplier<BcSession> sessions;
+    private final TestCaseData testCase;
+
+    public StatementPublisher(Supplier<BcSession> sessions, TestCaseData testCase) {
+        this.sessions = sessions;
+        this.testCase = testCase;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super StatementResult> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new StatementSubscription(subscriber));
+    }
+
+    /**
+     * Subscribes with unbounded demand and waits for the stream to complete.
+     *
+     * @return all results in input order
+     */
+    public static List<StatementResult> collect(Flow.Publisher<StatementResult> publisher) {
+        CompletableFuture<List<StatementResult>> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<StatementResult>() {
+            private final List<StatementResult> results = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(StatementResult item) {
+                results.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(results);
+            }
+        });
+        return done.join();
+    }
+
+    private Reader openInput() {
+        if (testCase.isStreamed()) {
+            return testCase.getStreamReader();
+        }
+        return new StringReader(testCase.input() == null ? "" : testCase.input());
+    }
+
+    private class StatementSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super StatementResult> subscriber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demanded = lock.newCondition();
+        private long demand;
+        private boolean started;
+        private boolean cancelled;
+        private Throwable failure;
+
+        StatementSubscription(Flow.Subscriber<? super StatementResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * The first positive request opens the session. A non-positive one before that fails the
+         * subscription right away, without a session ever being opened for it.
+         */
+        @Override
+        public void request(long n) {
+            Throwable rejected;
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    failure = new IllegalArgumentException("Requested " + n + " results, must be positive");
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                demanded.signal();
+                if (started || cancelled) {
+                    return;
+                }
+                started = true;
+                rejected = failure;
+            } finally {
+                lock.unlock();
+            }
+            if (rejected != null) {
+                subscriber.onError(rejected);
+                return;
+            }
+            VirtualThreads.EXECUTOR.execute(this::publish);
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                demanded.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Runs on one virtual thread, so the subscriber is signalled serially.
+         */
+        private void publish() {
+            long start = System.nanoTime();
+            long firstResult = -1;
+            int published = 0;
+            try (BcSession session = sessions.get(); StatementReader statements = new StatementReader(openInput())) {
+                String statement;
+                while (awaitDemand() && (statement = statements.next()) != null) {
+                    EvaluationResult result = session.submit(statement);
+                    long elapsed = System.nanoTime() - start;
+                    firstResult = firstResult < 0 ? elapsed : firstResult;
+                    subscriber.onNext(new StatementResult(published++, statements.statementLine(), statement,
+                            result, elapsed));
+                    if (!session.isOpen()) {
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!isCancelled()) {
+                    subscriber.onError(e);
+                }
+                return;
+            }
+            getLogger().debug("🧾 [statements] Case {}: {} statements, first result after {}ms, last after {}ms",
+                    testCase.id(), published, TimeUnit.NANOSECONDS.toMillis(Math.max(0, firstResult)),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            Throwable error = failure();
+            if (error != null) {
+                subscriber.onError(error);
+            } else if (!isCancelled()) {
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * @return whether a result may be published; takes one unit of demand if so
+         */
+        private boolean awaitDemand() {
+            lock.lock();
+            try {
+                while (demand == 0 && !cancelled && failure == null) {
+                    demanded.awaitUninterruptibly();
+                }
+                if (cancelled || failure != null) {
+                    return false;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isCancelled() {
+            lock.lock();
+            try {
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Throwable failure() {
+            lock.lock();
+            try {
+                return cancelled ? null : failure;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
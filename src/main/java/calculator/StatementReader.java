@@ -0,0 +1,116 @@
+package calculator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits bc input into statements the way bc executes them: one line at a time, except that a
+ * line ending inside braces, a string, a block comment or after a backslash continues on the next
+ * one. Blank lines are skipped. Input is read lazily, one statement ahead at most.
+ */
+class StatementReader implements Closeable {
+
+    private final BufferedReader reader;
+    private int lineNumber;
+    private int statementLine;
+
+    StatementReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * @return the next statement without its final newline, or {@code null} at the end of input
+     */
+    String next() throws IOException {
+        StringBuilder statement = new StringBuilder();
+        LexerState state = new LexerState();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (statement.isEmpty()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                statementLine = lineNumber;
+            } else {
+                statement.append('\n');
+            }
+            statement.append(line);
+            state.scan(line);
+            if (state.isDefault()) {
+                return statement.toString();
+            }
+        }
+        // unterminated at the end of input: still sent, a session bc then waits for the rest until
+        // the statement times out
+        return statement.isEmpty() ? null : statement.toString();
+    }
+
+    /**
+     * @return whether bc's lexer is back in its default state after all of {@code input}: outside
+     * any string, block comment or braces, and not continued by a trailing backslash. Whatever is
+     * written after an incomplete input is read as part of it.
+     */
+    static boolean isComplete(String input) {
+        if (input == null) {
+            return true;
+        }
+        LexerState state = new LexerState();
+        input.lines().forEach(state::scan);
+        return state.isDefault();
+    }
+
+    /**
+     * @return the 1-based input line the last statement returned by {@link #next()} starts on
+     */
+    int statementLine() {
+        return statementLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * What bc's lexer still has open after the lines scanned so far.
+     */
+    private static final class LexerState {
+        private int braces;
+        private boolean inString;
+        private boolean inComment;
+        private boolean continued;
+
+        void scan(String line) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (inComment) {
+                    if (c == '*' && i + 1 < line.length() && line.charAt(i + 1) == '/') {
+                        inComment = false;
+                        i++;
+                    }
+                } else if (inString) {
+                    inString = c != '"';
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '/' && i + 1 < line.length() && line.charAt(i + 1) == '*') {
+                    inComment = true;
+                    i++;
+                } else if (c == '#') {
+                    break;
+                } else if (c == '{') {
+                    braces++;
+                } else if (c == '}') {
+                    braces = Math.max(0, braces - 1);
+                }
+            }
+            continued = line.endsWith("\\") && !inString && !inComment;
+        }
+
+        boolean isDefault() {
+            return braces == 0 && !inString && !inComment && !continued;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package calculator;
+
+/**
+ * What one statement of a multi-line input printed, as published by {@link StatementPublisher}.
+ */
+public class StatementResult {
+
+    private final int index;
+    private final int line;
+    private final String statement;
+    private final EvaluationResult result;
+    private final long elapsedNanos;
+
+    public StatementResult(int index, int line, String statement, EvaluationResult result, long elapsedNanos) {
+        this.index = index;
+        this.line = line;
+        this.statement = statement;
+        this.result = result;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return position of the statement in the input, starting at 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the 1-based input line the statement starts on
+     */
+    public int getLine() {
+        return line;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * @return normalized stdout of this statement only; {@code null} after a timeout
+     */
+    public String getOutput() {
+        return result.getOutput();
+    }
+
+    /**
+     * @return stderr of this statement only, or the timeout or failure that ended the evaluation
+     */
+    public String getError() {
+        return result.getError();
+    }
+
+    public boolean isSuccess() {
+        return result.isSuccess();
+    }
+
+    public EvaluationResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return time from the subscription until this result was published
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "line " + line + ": " + statement.replace("\n", "\\n") + " -> "
+                + (isSuccess() ? "'" + getOutput() + "'" : "error '" + getError() + "'");
+    }
+}
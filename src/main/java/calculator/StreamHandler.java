@@ -1,35 +1,103 @@
 package calculator;
 
-import java.io.BufferedReader;
+import calculator.output.BcOutputNormalizer;
+import calculator.output.FullCaptureSink;
+import calculator.output.OutputSink;
+
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static utils.LoggingService.getLogger;
 
-public class StreamHandler extends Thread {
+/**
+ * Drains a process stream on a virtual thread into an {@link OutputSink}, chunk by chunk, with
+ * newlines and bc line continuations removed on the way.
+ */
+public class StreamHandler implements Runnable {
     private final InputStream inputStream;
-    private final StringBuilder output = new StringBuilder();
+    private final OutputSink sink;
+    private Thread thread;
+    private long bytesRead;
+    private long firstByteNanoTime = -1;
 
     public StreamHandler(InputStream inputStream) {
+        this(inputStream, new FullCaptureSink());
+    }
+
+    public StreamHandler(InputStream inputStream, OutputSink sink) {
         this.inputStream = inputStream;
+        this.sink = sink;
     }
 
     @Override
     public void run() {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line);
+        BcOutputNormalizer normalizer = new BcOutputNormalizer(sink);
+        InputStream counted = new FilterInputStream(inputStream) {
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = super.read(bytes, offset, length);
+                if (read > 0) {
+                    if (bytesRead == 0) {
+                        firstByteNanoTime = System.nanoTime();
+                    }
+                    bytesRead += read;
+                }
+                return read;
+            }
+        };
+        try (Reader reader = new InputStreamReader(counted, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                normalizer.write(buffer, 0, read);
+                if (!sink.wantsMore()) {
+                    // keep draining so bc never blocks on a full pipe, but skip all processing
+                    counted.transferTo(OutputStream.nullOutputStream());
+                    break;
+                }
             }
         } catch (IOException e) {
             getLogger().warn("⚠️ StreamHandler encountered an IOException: {}", e.getMessage());
+        } finally {
+            normalizer.finish();
         }
     }
 
+    public void start() {
+        thread = Thread.ofVirtual().name("bc-stream").start(this);
+    }
+
+    public void join() throws InterruptedException {
+        thread.join();
+    }
+
+    /**
+     * @return raw bytes drained from the stream, including line continuations and anything
+     * skipped after the sink stopped wanting more; final once {@link #join()} returned
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the first byte arrived, or -1 if the stream stayed empty
+     */
+    public long getFirstByteNanoTime() {
+        return firstByteNanoTime;
+    }
+
+    public OutputSink getSink() {
+        return sink;
+    }
+
     public String getOutput() {
-        return output.toString();
+        return sink.output();
     }
 
     public List<String> getLines() {
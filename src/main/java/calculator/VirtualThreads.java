@@ -0,0 +1,19 @@
+package calculator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The executor behind asynchronous evaluations, deadlines and statement publishers.
+ */
+final class VirtualThreads {
+
+    /**
+     * One virtual thread per task: in-flight evaluations only block virtual threads, so there is no
+     * pool to size no matter how many are running.
+     */
+    static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+}
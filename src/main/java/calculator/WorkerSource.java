@@ -0,0 +1,18 @@
+package calculator;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hands out {@link BcWorker}s for a batch and takes them back once the batch is done with them.
+ */
+interface WorkerSource {
+
+    BcWorker borrow() throws IOException, InterruptedException, TimeoutException;
+
+    /**
+     * Takes a worker back. Workers that are no longer {@link BcWorker#isReusable() reusable} must
+     * not be handed out again.
+     */
+    void release(BcWorker worker);
+}
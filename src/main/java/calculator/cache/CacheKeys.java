@@ -0,0 +1,144 @@
+package calculator.cache;
+
+import model.TestCaseData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Derives cache keys: SHA-256 over the identity of the tool that produced a result and the exact
+ * input it was given.
+ */
+public final class CacheKeys {
+
+    private CacheKeys() {
+    }
+
+    /**
+     * Identifies the {@code bc} found on {@code PATH} by real path, size and content hash, so that
+     * upgrading or swapping the binary invalidates every entry it produced.
+     *
+     * @throws IllegalStateException if there is no executable {@code bc} on {@code PATH}
+     */
+    public static String bcBinaryIdentity() {
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                Path candidate = Path.of(directory.isEmpty() ? "." : directory, "bc");
+                if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                    try {
+                        Path binary = candidate.toRealPath();
+                        byte[] content = Files.readAllBytes(binary);
+                        return "bc:" + binary + ":" + content.length + ":" + hex(sha256().digest(content));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read bc binary " + candidate, e);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No executable bc on PATH to identify cached results by");
+    }
+
+    /**
+     * Identifies an in-process implementation by the class files of {@code anchor}'s package, read
+     * from the directory or jar it was loaded from.
+     */
+    public static String codeIdentity(Class<?> anchor) {
+        String packagePath = anchor.getPackageName().replace('.', '/') + "/";
+        MessageDigest digest = sha256();
+        try {
+            Path location = Path.of(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                try (Stream<Path> files = Files.list(location.resolve(packagePath))) {
+                    for (Path file : files.filter(f -> f.toString().endsWith(".class")).sorted().toList()) {
+                        digest.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                }
+            } else {
+                try (JarFile jar = new JarFile(location.toFile())) {
+                    List<JarEntry> classes = jar.stream()
+                            .filter(entry -> entry.getName().startsWith(packagePath)
+                                    && entry.getName().endsWith(".class")
+                                    && entry.getName().indexOf('/', packagePath.length()) < 0)
+                            .sorted(Comparator.comparing(JarEntry::getName))
+                            .toList();
+                    for (JarEntry entry : classes) {
+                        digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            digest.update(in.readAllBytes());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the classes of " + anchor.getPackageName(), e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Cannot locate the classes of " + anchor.getPackageName(), e);
+        }
+        return "code:" + anchor.getPackageName() + ":" + hex(digest.digest());
+    }
+
+    /**
+     * Hashes the case input; streamed input is read through a fresh reader from the case.
+     *
+     * @return the key, or {@code null} if the input is longer than {@code maxInputChars}, in which
+     * case hashing it would cost about as much as evaluating it
+     */
+    public static String keyFor(String toolIdentity, TestCaseData testCase, long maxInputChars) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(toolIdentity.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (!testCase.isStreamed()) {
+            String input = testCase.input();
+            if (input == null) {
+                input = "";
+            }
+            if (input.length() > maxInputChars) {
+                return null;
+            }
+            digest.update(input.getBytes(StandardCharsets.UTF_8));
+            return hex(digest.digest());
+        }
+        try (Reader reader = testCase.getStreamReader()) {
+            char[] buffer = new char[8192];
+            long total = 0;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                total += read;
+                if (total > maxInputChars) {
+                    return null;
+                }
+                digest.update(new String(buffer, 0, read).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
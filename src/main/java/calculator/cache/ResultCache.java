@@ -0,0 +1,244 @@
+package calculator.cache;
+
+import calculator.EvaluationResult;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Size-bounded on-disk store of evaluation results, one gzip-compressed file per key.
+ * <p>
+ * Files are written to a temporary name and moved into place, so readers never see partial
+ * entries, also across processes sharing the directory. Recency is kept in memory and persisted
+ * as file modification times, which order the entries when the cache is opened again. Once the
+ * total size exceeds the bound, least recently used entries are deleted.
+ */
+public class ResultCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".bcr";
+
+    private final Path directory;
+    private final long maxBytes;
+    /**
+     * Key to file size, in access order: the first entry is the least recently used.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size bound must be positive, got " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    private void load() throws IOException {
+        record Entry(String key, long size, FileTime lastUsed) {
+        }
+        List<Entry> found;
+        try (Stream<Path> files = Files.list(directory)) {
+            found = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .map(file -> {
+                        try {
+                            String name = file.getFileName().toString();
+                            return new Entry(name.substring(0, name.length() - SUFFIX.length()),
+                                    Files.size(file), Files.getLastModifiedTime(file));
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(entry -> entry != null)
+                    .sorted(Comparator.comparing(Entry::lastUsed))
+                    .toList();
+        }
+        synchronized (this) {
+            for (Entry entry : found) {
+                entries.put(entry.key(), entry.size());
+                totalBytes += entry.size();
+            }
+            evictIfNeeded();
+        }
+        getLogger().info("🗃️ [cache] Opened {} with {} entries, {} bytes (bound {} bytes)",
+                directory, entries.size(), totalBytes, maxBytes);
+    }
+
+    public Optional<EvaluationResult> get(String key) {
+        Path file = fileFor(key);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                remove(key);
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            String output = readNullable(in);
+            String error = readNullable(in);
+            touch(key, file);
+            hits.incrementAndGet();
+            return Optional.of(new EvaluationResult(output, error));
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        } catch (IOException e) {
+            getLogger().warn("⚠️ [cache] Dropping unreadable entry {}: {}", key, e.getMessage());
+            remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, EvaluationResult result) {
+        Path file = fileFor(key);
+        Path temporary = directory.resolve(key + "." + Thread.currentThread().threadId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT_VERSION);
+                writeNullable(out, result.getOutput());
+                writeNullable(out, result.getError());
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long size = Files.size(file);
+            synchronized (this) {
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+                evictIfNeeded();
+            }
+            stores.incrementAndGet();
+        } catch (IOException e) {
+            getLogger().warn("⚠️ [cache] Could not store entry {}: {}", key, e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // nothing else to clean up
+            }
+        }
+    }
+
+    private void touch(String key, Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // recency across runs is best effort
+        }
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                // written by another process sharing the directory
+                try {
+                    long size = Files.size(file);
+                    entries.put(key, size);
+                    totalBytes += size;
+                } catch (IOException ignored) {
+                    // evicted meanwhile
+                }
+            }
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException ignored) {
+            // it is gone from the index either way
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions.incrementAndGet();
+            try {
+                Files.deleteIfExists(fileFor(entry.getKey()));
+            } catch (IOException e) {
+                getLogger().warn("⚠️ [cache] Could not evict entry {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getStores() {
+        return stores.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+}
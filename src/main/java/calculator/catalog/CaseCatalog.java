@@ -0,0 +1,282 @@
+package calculator.catalog;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cases kept outside the code, in a JSONL file (one entry per line) or a JSON array of entries:
+ * <pre>
+ * {"id": "C001", "group": "arithmetic", "input": "6*7", "expected": "42"}
+ * {"id": "C002", "generator": {"pattern": "1", "repeat": 1000, "separator": "+"}, "expected": "1000"}
+ * {"id": "C003", "input": "1/0", "expectError": true, "timeoutMs": 2000}
+ * </pre>
+ * The file is read with a streaming parser, one entry at a time, so catalogs of any size take
+ * constant memory. Entries filtered out by ID or group are skipped as soon as their {@code id}
+ * or {@code group} is read, without building the rest, so filters are cheapest when those two
+ * fields come first.
+ * <p>
+ * The catalog is {@code -Dcatalog.file}, or {@code catalog/cases.jsonl} on the classpath.
+ */
+public class CaseCatalog {
+
+    public static final String DEFAULT_RESOURCE = "catalog/cases.jsonl";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String name;
+    private final Source source;
+
+    private CaseCatalog(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public static CaseCatalog fromFile(Path file) {
+        return new CaseCatalog(file.toString(), () -> Files.newInputStream(file));
+    }
+
+    public static CaseCatalog fromResource(String resource) {
+        return new CaseCatalog(resource, () -> {
+            InputStream stream = CaseCatalog.class.getClassLoader().getResourceAsStream(resource);
+            if (stream == null) {
+                throw new FileNotFoundException("No catalog " + resource + " on the classpath");
+            }
+            return stream;
+        });
+    }
+
+    public static CaseCatalog fromSystemProperty() {
+        String file = System.getProperty("catalog.file");
+        return file == null || file.isBlank() ? fromResource(DEFAULT_RESOURCE) : fromFile(Path.of(file));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stream<CatalogEntry> entries() {
+        return entries(null, null);
+    }
+
+    /**
+     * The stream reads the file as it is consumed; close it if it may be abandoned early.
+     *
+     * @param group only entries of this group, or {@code null} for all
+     * @param ids   only entries with these IDs, or {@code null} for all
+     */
+    public Stream<CatalogEntry> entries(String group, Set<String> ids) {
+        EntryIterator iterator = new EntryIterator(open(), group, ids);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Reads only up to the entry with {@code id}.
+     */
+    public Optional<CatalogEntry> find(String id) {
+        try (Stream<CatalogEntry> entries = entries(null, Set.of(id))) {
+            return entries.findFirst();
+        }
+    }
+
+    private JsonParser open() {
+        try {
+            return JSON.createParser(source.open());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open catalog " + name, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Closes the parser once the last entry was read.
+     */
+    private class EntryIterator implements Iterator<CatalogEntry> {
+        private final JsonParser parser;
+        private final String group;
+        private final Set<String> ids;
+        private CatalogEntry next;
+        private boolean done;
+
+        EntryIterator(JsonParser parser, String group, Set<String> ids) {
+            this.parser = parser;
+            this.group = group;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException("Cannot read catalog " + name, e);
+                } catch (RuntimeException e) {
+                    close();
+                    throw e;
+                }
+                if (next == null) {
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public CatalogEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CatalogEntry entry = next;
+            next = null;
+            return entry;
+        }
+
+        void close() {
+            done = true;
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close catalog " + name, e);
+            }
+        }
+
+        private CatalogEntry readNext() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY || token == JsonToken.END_ARRAY) {
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw invalid("expected an entry object, found " + token);
+                }
+                CatalogEntry entry = readEntry();
+                if (entry != null) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the entry, or {@code null} if it is filtered out
+         */
+        private CatalogEntry readEntry() throws IOException {
+            int line = parser.currentLocation().getLineNr();
+            String id = null;
+            String entryGroup = null;
+            String description = null;
+            String input = null;
+            GeneratorSpec generator = null;
+            String expected = null;
+            boolean expectError = false;
+            Duration timeout = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> {
+                        id = parser.getValueAsString();
+                        if (id == null || id.isBlank()) {
+                            throw invalid("Catalog entry without an id");
+                        }
+                        if (ids != null && !ids.contains(id)) {
+                            return skipRest();
+                        }
+                    }
+                    case "group" -> {
+                        entryGroup = parser.getValueAsString();
+                        if (group != null && !group.equals(entryGroup)) {
+                            return skipRest();
+                        }
+                    }
+                    case "description" -> description = parser.getValueAsString();
+                    case "input" -> input = parser.getValueAsString();
+                    case "generator" -> generator = readGenerator();
+                    case "expected" -> expected = parser.getValueAsString();
+                    case "expectError" -> expectError = parser.getValueAsBoolean();
+                    case "timeoutMs" -> timeout = Duration.ofMillis(parser.getValueAsLong());
+                    default -> throw invalid("unknown field '" + field + "'");
+                }
+            }
+            if (id == null) {
+                // checked before the filter, which cannot look up a missing id
+                throw new IllegalArgumentException("Catalog " + name + ", line " + line
+                        + ": Catalog entry without an id");
+            }
+            if ((ids != null && !ids.contains(id)) || (group != null && !group.equals(entryGroup))) {
+                return null;
+            }
+            try {
+                return new CatalogEntry(id, entryGroup, description, input, generator, expected, expectError, timeout);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Catalog " + name + ", line " + line + ": " + e.getMessage(), e);
+            }
+        }
+
+        private CatalogEntry skipRest() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return null;
+        }
+
+        private GeneratorSpec readGenerator() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw invalid("generator must be an object");
+            }
+            String prefix = null;
+            String pattern = null;
+            long repeat = 1;
+            String separator = null;
+            int depth = 0;
+            String suffix = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "prefix" -> prefix = parser.getValueAsString();
+                    case "pattern" -> pattern = parser.getValueAsString();
+                    case "repeat" -> repeat = parser.getValueAsLong();
+                    case "separator" -> separator = parser.getValueAsString();
+                    case "depth" -> depth = parser.getValueAsInt();
+                    case "suffix" -> suffix = parser.getValueAsString();
+                    default -> throw invalid("unknown generator field '" + field + "'");
+                }
+            }
+            try {
+                return new GeneratorSpec(prefix, pattern, repeat, separator, depth, suffix);
+            } catch (IllegalArgumentException e) {
+                throw invalid(e.getMessage());
+            }
+        }
+
+        private IllegalArgumentException invalid(String message) {
+            return new IllegalArgumentException("Catalog " + name + ", line " + parser.currentLocation().getLineNr()
+                    + ": " + message);
+        }
+    }
+}
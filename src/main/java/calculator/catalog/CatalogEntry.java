@@ -0,0 +1,93 @@
+package calculator.catalog;
+
+import model.TestCaseData;
+
+import java.time.Duration;
+
+/**
+ * One case of a {@link CaseCatalog}. Its input is either a literal {@code input} or a
+ * {@link GeneratorSpec}, expanded only when the case is evaluated.
+ */
+public class CatalogEntry {
+    private final String id;
+    private final String group;
+    private final String description;
+    private final String input;
+    private final GeneratorSpec generator;
+    private final String expected;
+    private final boolean expectError;
+    private final Duration timeout;
+
+    public CatalogEntry(String id, String group, String description, String input, GeneratorSpec generator,
+                        String expected, boolean expectError, Duration timeout) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Catalog entry without an id");
+        }
+        if ((input == null) == (generator == null)) {
+            throw new IllegalArgumentException("Catalog entry " + id + " needs exactly one of input and generator");
+        }
+        this.id = id;
+        this.group = group;
+        this.description = description;
+        this.input = input;
+        this.generator = generator;
+        this.expected = expected;
+        this.expectError = expectError;
+        this.timeout = timeout;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the group, or {@code null} if the entry has none
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public GeneratorSpec getGenerator() {
+        return generator;
+    }
+
+    /**
+     * @return the exact expected output, or {@code null} if only success or failure is checked
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    public boolean isExpectError() {
+        return expectError;
+    }
+
+    /**
+     * @return the per-case timeout, or {@code null} to use the calculator default
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public TestCaseData toTestCaseData() {
+        String caseDescription = description != null ? description : id;
+        TestCaseData testCase = input != null
+                ? new TestCaseData(id, input, expected, caseDescription)
+                : TestCaseData.fromByteInput(id, () -> generator.toInput().openChannel(), expected, caseDescription);
+        return timeout != null ? testCase.withTimeout(timeout) : testCase;
+    }
+
+    @Override
+    public String toString() {
+        return id + (group != null ? " [" + group + "]" : "") + ": "
+                + (input != null ? (input.length() > 40 ? input.substring(0, 40) + "..." : input) : generator);
+    }
+}
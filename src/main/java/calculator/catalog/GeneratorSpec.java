@@ -0,0 +1,77 @@
+package calculator.catalog;
+
+import calculator.input.SyntheticInput;
+
+/**
+ * A generated input: {@code prefix}, then {@code depth} opening parentheses, {@code pattern}
+ * repeated {@code repeat} times with {@code separator} in between, {@code depth} closing
+ * parentheses and {@code suffix}.
+ * <p>
+ * E.g. {@code {"prefix": "scale=0; ", "pattern": "9", "repeat": 2000, "suffix": " + 1"}} or
+ * {@code {"pattern": "1", "repeat": 1000, "separator": "+"}}.
+ */
+public class GeneratorSpec {
+    private final String prefix;
+    private final String pattern;
+    private final long repeat;
+    private final String separator;
+    private final int depth;
+    private final String suffix;
+    private final long length;
+
+    public GeneratorSpec(String prefix, String pattern, long repeat, String separator, int depth, String suffix) {
+        if (repeat < 0 || depth < 0) {
+            throw new IllegalArgumentException("repeat and depth must not be negative, got " + repeat + " and " + depth);
+        }
+        this.prefix = prefix == null ? "" : prefix;
+        this.pattern = pattern == null ? "" : pattern;
+        this.repeat = repeat;
+        this.separator = separator == null ? "" : separator;
+        this.depth = depth;
+        this.suffix = suffix == null ? "" : suffix;
+        this.length = toInput().length();
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public long getRepeat() {
+        return repeat;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return the generated input, streamed rather than built in memory
+     */
+    public SyntheticInput toInput() {
+        return SyntheticInput.literal(prefix)
+                .then(SyntheticInput.nested(depth, SyntheticInput.chain(pattern, separator, repeat)))
+                .then(suffix);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "generator(" + length() + " chars: '" + prefix + "' + " + depth + " x '(' + " + repeat + " x '"
+                + pattern + "' sep '" + separator + "' + " + depth + " x ')' + '" + suffix + "')";
+    }
+}
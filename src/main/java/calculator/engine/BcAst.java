@@ -0,0 +1,60 @@
+package calculator.engine;
+
+import java.util.List;
+
+/**
+ * Syntax tree of the bc subset the engine runs.
+ */
+final class BcAst {
+
+    private BcAst() {
+    }
+
+    sealed interface Statement permits ExpressionStatement, StringStatement, Block {
+    }
+
+    /**
+     * @param print whether the value is printed; bare assignments are not
+     */
+    record ExpressionStatement(Expression expression, boolean print) implements Statement {
+    }
+
+    record StringStatement(String text) implements Statement {
+    }
+
+    record Block(List<Statement> statements) implements Statement {
+    }
+
+    sealed interface Expression permits Literal, Variable, Unary, Binary, Assign, IncDec, Call {
+    }
+
+    /**
+     * Number literal kept as source text, because its value depends on {@code ibase} at run time.
+     */
+    record Literal(String digits) implements Expression {
+    }
+
+    record Variable(String name) implements Expression {
+    }
+
+    record Unary(String operator, Expression operand) implements Expression {
+    }
+
+    record Binary(String operator, Expression left, Expression right) implements Expression {
+    }
+
+    /**
+     * @param operator {@code =} or a compound operator such as {@code +=}
+     */
+    record Assign(String operator, Variable target, Expression value) implements Expression {
+    }
+
+    record IncDec(String operator, boolean prefix, Variable target) implements Expression {
+    }
+
+    /**
+     * Call of one of the built-ins {@code sqrt}, {@code length} and {@code scale}.
+     */
+    record Call(String function, Expression argument) implements Expression {
+    }
+}
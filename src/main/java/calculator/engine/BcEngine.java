@@ -0,0 +1,438 @@
+package calculator.engine;
+
+import calculator.engine.BcAst.Assign;
+import calculator.engine.BcAst.Binary;
+import calculator.engine.BcAst.Block;
+import calculator.engine.BcAst.Call;
+import calculator.engine.BcAst.Expression;
+import calculator.engine.BcAst.ExpressionStatement;
+import calculator.engine.BcAst.IncDec;
+import calculator.engine.BcAst.Literal;
+import calculator.engine.BcAst.Statement;
+import calculator.engine.BcAst.StringStatement;
+import calculator.engine.BcAst.Unary;
+import calculator.engine.BcAst.Variable;
+import calculator.output.BcOutputNormalizer;
+import calculator.output.OutputSink;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process interpreter for the expression subset of the bc language: numbers, simple variables,
+ * {@code scale}/{@code ibase}/{@code obase}/{@code last}, the arithmetic, relational and boolean
+ * operators, assignments, increments, blocks, strings, {@code quit} and the built-ins
+ * {@code sqrt}, {@code length} and {@code scale}. Functions, arrays and control flow are rejected
+ * with a syntax error.
+ * <p>
+ * Arithmetic follows bc: values are {@link BigDecimal}s, results are truncated rather than rounded,
+ * and result scales are derived from the operand scales and {@code scale} the same way bc does.
+ * Output goes through {@link BcOutputNormalizer}, so sinks see the same text a bc process produces.
+ * <p>
+ * One engine is one bc session: variables survive between {@link #run(String)} calls.
+ * Not thread-safe.
+ */
+public final class BcEngine {
+
+    public static final int MAX_INPUT_CHARS = Integer.getInteger("bc.engine.maxInputChars", 16 * 1024 * 1024);
+    public static final int MAX_DIGITS = Integer.getInteger("bc.engine.maxDigits", 1_000_000);
+
+    /**
+     * Upper bound for the bit length of any intermediate result, derived from {@link #MAX_DIGITS}.
+     */
+    private static final long MAX_BITS = (long) Math.ceil(MAX_DIGITS * 3.3219280948873626);
+
+    private final Map<String, BigDecimal> variables = new HashMap<>();
+    private final BcOutputNormalizer output;
+    private final StringBuilder errors = new StringBuilder();
+    private int scale;
+    private int ibase = 10;
+    private int obase = 10;
+    private BigDecimal last = BigDecimal.ZERO;
+    private boolean quit;
+    private int address;
+
+    public BcEngine(OutputSink sink) {
+        this.output = new BcOutputNormalizer(sink);
+    }
+
+    /**
+     * Runs {@code source} line by line until it ends or quits. Errors are collected the way bc
+     * writes them to stderr: a syntax error skips its line, a runtime error aborts the rest of it.
+     * The calling thread being interrupted also stops the run.
+     *
+     * @return everything that bc would have written to stderr, empty if nothing
+     */
+    public String run(String source) {
+        errors.setLength(0);
+        if (source.length() > MAX_INPUT_CHARS) {
+            error("input of " + source.length() + " characters exceeds the Java bc engine limit of "
+                    + MAX_INPUT_CHARS);
+            return errors();
+        }
+        BcParser parser = new BcParser(source);
+        while (!quit) {
+            if (Thread.currentThread().isInterrupted()) {
+                error("interrupted");
+                break;
+            }
+            List<Statement> line;
+            try {
+                line = parser.nextLine();
+            } catch (BcSyntaxException e) {
+                error(e.getMessage());
+                quit = parser.isQuitRequested();
+                continue;
+            }
+            if (line == null || parser.isQuitRequested()) {
+                quit = parser.isQuitRequested();
+                break;
+            }
+            address = 0;
+            try {
+                execute(line);
+            } catch (BcRuntimeException e) {
+                error("Runtime error (func=(main), adr=" + address + "): " + e.getMessage());
+            }
+        }
+        output.finish();
+        return errors();
+    }
+
+    /**
+     * @return whether the session executed {@code quit}; further input is ignored
+     */
+    public boolean hasQuit() {
+        return quit;
+    }
+
+    private String errors() {
+        return errors.toString().trim();
+    }
+
+    private void error(String message) {
+        errors.append(message).append('\n');
+    }
+
+    private void warning(String message) {
+        error("Runtime warning (func=(main), adr=" + address + "): " + message);
+    }
+
+    private void execute(List<Statement> statements) {
+        for (Statement statement : statements) {
+            address++;
+            switch (statement) {
+                case ExpressionStatement s -> {
+                    BigDecimal value = evaluate(s.expression());
+                    if (s.print()) {
+                        print(value);
+                        last = value;
+                    }
+                }
+                case StringStatement s -> write(s.text());
+                case Block b -> execute(b.statements());
+            }
+        }
+    }
+
+    private BigDecimal evaluate(Expression expression) {
+        return switch (expression) {
+            case Literal l -> parseNumber(l.digits());
+            case Variable v -> get(v.name());
+            case Unary u -> u.operator().equals("-")
+                    ? evaluate(u.operand()).negate()
+                    : truth(evaluate(u.operand()).signum() == 0);
+            case Binary b -> binary(b);
+            case Assign a -> assign(a);
+            case IncDec i -> incDec(i);
+            case Call c -> call(c);
+        };
+    }
+
+    private BigDecimal binary(Binary binary) {
+        String operator = binary.operator();
+        if (operator.equals("&&")) {
+            return truth(evaluate(binary.left()).signum() != 0 && evaluate(binary.right()).signum() != 0);
+        }
+        if (operator.equals("||")) {
+            return truth(evaluate(binary.left()).signum() != 0 || evaluate(binary.right()).signum() != 0);
+        }
+        BigDecimal left = evaluate(binary.left());
+        BigDecimal right = evaluate(binary.right());
+        return switch (operator) {
+            case "==" -> truth(left.compareTo(right) == 0);
+            case "!=" -> truth(left.compareTo(right) != 0);
+            case "<" -> truth(left.compareTo(right) < 0);
+            case "<=" -> truth(left.compareTo(right) <= 0);
+            case ">" -> truth(left.compareTo(right) > 0);
+            case ">=" -> truth(left.compareTo(right) >= 0);
+            default -> arithmetic(operator, left, right);
+        };
+    }
+
+    private BigDecimal arithmetic(String operator, BigDecimal left, BigDecimal right) {
+        BigDecimal result = switch (operator) {
+            case "+" -> left.add(right);
+            case "-" -> left.subtract(right);
+            case "*" -> multiply(left, right);
+            case "/" -> divide(left, right);
+            case "%" -> remainder(left, right);
+            case "^" -> power(left, right);
+            default -> throw new IllegalStateException("Unknown operator " + operator);
+        };
+        return checkSize(result);
+    }
+
+    /**
+     * bc keeps {@code min(a + b, max(scale, a, b))} fraction digits of a product.
+     */
+    private BigDecimal multiply(BigDecimal left, BigDecimal right) {
+        checkBits((long) left.unscaledValue().bitLength() + right.unscaledValue().bitLength());
+        int resultScale = Math.min(left.scale() + right.scale(),
+                Math.max(scale, Math.max(left.scale(), right.scale())));
+        return left.multiply(right).setScale(resultScale, RoundingMode.DOWN);
+    }
+
+    private BigDecimal divide(BigDecimal left, BigDecimal right) {
+        if (right.signum() == 0) {
+            throw new BcRuntimeException("Divide by zero");
+        }
+        return left.divide(right, scale, RoundingMode.DOWN);
+    }
+
+    /**
+     * {@code a - (a / b) * b}, with the quotient truncated to {@code scale} digits.
+     */
+    private BigDecimal remainder(BigDecimal left, BigDecimal right) {
+        if (right.signum() == 0) {
+            throw new BcRuntimeException("Modulo by zero");
+        }
+        BigDecimal quotient = left.divide(right, scale, RoundingMode.DOWN);
+        return left.subtract(quotient.multiply(right));
+    }
+
+    private BigDecimal power(BigDecimal base, BigDecimal exponent) {
+        if (exponent.stripTrailingZeros().scale() > 0) {
+            warning("non-zero scale in exponent");
+        }
+        BigInteger whole = exponent.toBigInteger();
+        if (whole.bitLength() > 31) {
+            throw new BcRuntimeException("exponent too large in raise");
+        }
+        int n = whole.intValue();
+        if (n == 0) {
+            return BigDecimal.ONE;
+        }
+        int magnitude = Math.abs(n);
+        checkBits((long) base.unscaledValue().bitLength() * magnitude);
+        BigDecimal raised = base.pow(magnitude);
+        if (n < 0) {
+            if (base.signum() == 0) {
+                throw new BcRuntimeException("Divide by zero");
+            }
+            return BigDecimal.ONE.divide(raised, scale, RoundingMode.DOWN);
+        }
+        int resultScale = (int) Math.min((long) base.scale() * magnitude, Math.max(scale, base.scale()));
+        return raised.setScale(resultScale, RoundingMode.DOWN);
+    }
+
+    private BigDecimal assign(Assign assign) {
+        BigDecimal value = evaluate(assign.value());
+        String name = assign.target().name();
+        if (!assign.operator().equals("=")) {
+            value = arithmetic(assign.operator().substring(0, 1), get(name), value);
+        }
+        set(name, value);
+        return get(name);
+    }
+
+    private BigDecimal incDec(IncDec incDec) {
+        String name = incDec.target().name();
+        BigDecimal before = get(name);
+        BigDecimal after = incDec.operator().equals("++") ? before.add(BigDecimal.ONE) : before.subtract(BigDecimal.ONE);
+        set(name, after);
+        return incDec.prefix() ? get(name) : before;
+    }
+
+    private BigDecimal call(Call call) {
+        BigDecimal argument = evaluate(call.argument());
+        return switch (call.function()) {
+            case "sqrt" -> sqrt(argument);
+            case "scale" -> BigDecimal.valueOf(argument.scale());
+            case "length" -> BigDecimal.valueOf(argument.signum() == 0
+                    ? argument.scale()
+                    : Math.max(argument.precision(), argument.scale()));
+            default -> throw new IllegalStateException("Unknown function " + call.function());
+        };
+    }
+
+    private BigDecimal sqrt(BigDecimal value) {
+        if (value.signum() < 0) {
+            throw new BcRuntimeException("Square root of a negative number");
+        }
+        int resultScale = Math.max(scale, value.scale());
+        if (value.signum() == 0) {
+            return BigDecimal.ZERO.setScale(resultScale);
+        }
+        int integerDigits = Math.max(1, value.precision() - value.scale());
+        MathContext context = new MathContext(integerDigits / 2 + resultScale + 2, RoundingMode.DOWN);
+        return value.sqrt(context).setScale(resultScale, RoundingMode.DOWN);
+    }
+
+    private BigDecimal get(String name) {
+        return switch (name) {
+            case "scale" -> BigDecimal.valueOf(scale);
+            case "ibase" -> BigDecimal.valueOf(ibase);
+            case "obase" -> BigDecimal.valueOf(obase);
+            case "last" -> last;
+            default -> variables.getOrDefault(name, BigDecimal.ZERO);
+        };
+    }
+
+    private void set(String name, BigDecimal value) {
+        switch (name) {
+            case "scale" -> {
+                if (value.signum() < 0) {
+                    throw new BcRuntimeException("negative scale");
+                }
+                if (value.compareTo(BigDecimal.valueOf(MAX_DIGITS)) > 0) {
+                    throw new BcRuntimeException("scale exceeds the Java bc engine limit of " + MAX_DIGITS);
+                }
+                scale = value.intValue();
+            }
+            case "ibase" -> ibase = base(value, "ibase");
+            case "obase" -> {
+                if (value.compareTo(BigDecimal.valueOf(16)) > 0) {
+                    throw new BcRuntimeException("obase above 16 is not supported by the Java bc engine");
+                }
+                obase = base(value, "obase");
+            }
+            case "last" -> last = value;
+            default -> variables.put(name, value);
+        }
+    }
+
+    /**
+     * Out-of-range bases are clamped to 2..16 with a warning, like GNU bc does for {@code ibase}.
+     * Output bases above 16 are rejected before this, as they need bc's multi-character digits.
+     */
+    private int base(BigDecimal value, String name) {
+        BigInteger requested = value.toBigInteger();
+        if (requested.compareTo(BigInteger.TWO) < 0) {
+            warning(name + " too small, set to 2");
+            return 2;
+        }
+        if (requested.compareTo(BigInteger.valueOf(16)) > 0) {
+            warning(name + " too large, set to 16");
+            return 16;
+        }
+        return requested.intValue();
+    }
+
+    private static BigDecimal truth(boolean condition) {
+        return condition ? BigDecimal.ONE : BigDecimal.ZERO;
+    }
+
+    private BigDecimal checkSize(BigDecimal value) {
+        checkBits(value.unscaledValue().bitLength());
+        return value;
+    }
+
+    private static void checkBits(long bits) {
+        if (bits > MAX_BITS) {
+            throw new BcRuntimeException("result exceeds the Java bc engine limit of " + MAX_DIGITS + " digits");
+        }
+    }
+
+    /**
+     * Reads a literal in the current {@code ibase}. As in bc, a single digit keeps its face value,
+     * so {@code A} is ten whatever the base, and the fraction keeps as many digits as were written.
+     */
+    private BigDecimal parseNumber(String digits) {
+        if (digits.length() > MAX_DIGITS) {
+            throw new BcRuntimeException("number exceeds the Java bc engine limit of " + MAX_DIGITS + " digits");
+        }
+        int point = digits.indexOf('.');
+        String integerPart = point == -1 ? digits : digits.substring(0, point);
+        String fractionPart = point == -1 ? "" : digits.substring(point + 1);
+        if (digits.length() == 1) {
+            return BigDecimal.valueOf(Character.digit(digits.charAt(0), 16));
+        }
+        if (ibase == 10 && digits.chars().noneMatch(Character::isUpperCase)) {
+            return new BigDecimal((integerPart.isEmpty() ? "0" : integerPart) + (fractionPart.isEmpty() ? "" : "." + fractionPart));
+        }
+        BigInteger base = BigInteger.valueOf(ibase);
+        BigInteger integer = BigInteger.ZERO;
+        for (int i = 0; i < integerPart.length(); i++) {
+            integer = integer.multiply(base).add(BigInteger.valueOf(Character.digit(integerPart.charAt(i), 16)));
+        }
+        BigDecimal value = new BigDecimal(integer);
+        if (!fractionPart.isEmpty()) {
+            BigInteger numerator = BigInteger.ZERO;
+            for (int i = 0; i < fractionPart.length(); i++) {
+                numerator = numerator.multiply(base).add(BigInteger.valueOf(Character.digit(fractionPart.charAt(i), 16)));
+            }
+            BigDecimal fraction = new BigDecimal(numerator)
+                    .divide(new BigDecimal(base.pow(fractionPart.length())), fractionPart.length(), RoundingMode.DOWN);
+            value = value.add(fraction);
+        }
+        return value;
+    }
+
+    private void print(BigDecimal value) {
+        write(format(value));
+        write("\n");
+    }
+
+    private void write(String text) {
+        char[] chars = text.toCharArray();
+        output.write(chars, 0, chars.length);
+    }
+
+    /**
+     * Formats like bc: zero is {@code 0}, otherwise there is no leading zero before the point
+     * ({@code .5}) and trailing fraction zeros are kept up to the value's scale.
+     */
+    private String format(BigDecimal value) {
+        if (value.signum() == 0) {
+            return "0";
+        }
+        String sign = value.signum() < 0 ? "-" : "";
+        BigDecimal magnitude = value.abs();
+        BigInteger integer = magnitude.toBigInteger();
+        String integerText = integer.signum() == 0 ? "" : integer.toString(obase).toUpperCase();
+        if (magnitude.scale() <= 0) {
+            return sign + integerText;
+        }
+        if (obase == 10) {
+            String plain = magnitude.toPlainString();
+            return sign + integerText + plain.substring(plain.indexOf('.'));
+        }
+        return sign + integerText + "." + fractionDigits(magnitude.subtract(new BigDecimal(integer)), magnitude.scale());
+    }
+
+    /**
+     * bc emits fraction digits in {@code obase} until they carry at least as much precision as
+     * {@code scale} decimal digits.
+     */
+    private String fractionDigits(BigDecimal fraction, int scale) {
+        StringBuilder digits = new StringBuilder();
+        BigInteger base = BigInteger.valueOf(obase);
+        BigDecimal decimalBase = BigDecimal.valueOf(obase);
+        BigInteger place = BigInteger.ONE;
+        BigInteger limit = BigInteger.TEN.pow(scale);
+        while (place.compareTo(limit) < 0) {
+            fraction = fraction.multiply(decimalBase);
+            int digit = fraction.intValue();
+            digits.append(Character.toUpperCase(Character.forDigit(digit, obase)));
+            fraction = fraction.subtract(BigDecimal.valueOf(digit));
+            place = place.multiply(base);
+        }
+        return digits.toString();
+    }
+}
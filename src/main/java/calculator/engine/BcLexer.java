@@ -0,0 +1,181 @@
+package calculator.engine;
+
+/**
+ * Splits bc source into tokens. Newlines are tokens because they end top-level statements;
+ * backslash-newline continuations, comments and blanks are skipped.
+ */
+final class BcLexer {
+
+    enum Kind {NUMBER, NAME, STRING, OPERATOR, NEWLINE, SEMICOLON, LPAREN, RPAREN, LBRACE, RBRACE, LBRACKET, RBRACKET, COMMA, EOF}
+
+    record Token(Kind kind, String text, int line) {
+
+        boolean is(Kind kind, String text) {
+            return this.kind == kind && this.text.equals(text);
+        }
+
+        boolean isOperator(String text) {
+            return is(Kind.OPERATOR, text);
+        }
+    }
+
+    private static final String[] OPERATORS = {
+            "++", "--", "+=", "-=", "*=", "/=", "%=", "^=", "==", "!=", "<=", ">=", "&&", "||",
+            "+", "-", "*", "/", "%", "^", "=", "<", ">", "!"
+    };
+
+    private final String source;
+    private int position;
+    private int line = 1;
+
+    BcLexer(String source) {
+        this.source = source;
+    }
+
+    Token next() {
+        skipBlanks();
+        if (position >= source.length()) {
+            return new Token(Kind.EOF, "", line);
+        }
+        char c = source.charAt(position);
+        int startLine = line;
+        switch (c) {
+            case '\n':
+                position++;
+                line++;
+                return new Token(Kind.NEWLINE, "\n", startLine);
+            case ';':
+                position++;
+                return new Token(Kind.SEMICOLON, ";", startLine);
+            case '(':
+                position++;
+                return new Token(Kind.LPAREN, "(", startLine);
+            case ')':
+                position++;
+                return new Token(Kind.RPAREN, ")", startLine);
+            case '{':
+                position++;
+                return new Token(Kind.LBRACE, "{", startLine);
+            case '}':
+                position++;
+                return new Token(Kind.RBRACE, "}", startLine);
+            case '[':
+                position++;
+                return new Token(Kind.LBRACKET, "[", startLine);
+            case ']':
+                position++;
+                return new Token(Kind.RBRACKET, "]", startLine);
+            case ',':
+                position++;
+                return new Token(Kind.COMMA, ",", startLine);
+            case '"':
+                return string();
+            default:
+                break;
+        }
+        if (isDigit(c) || (c == '.' && position + 1 < source.length() && isDigit(source.charAt(position + 1)))) {
+            return number();
+        }
+        if (c == '.') {
+            // GNU bc: a lone "." is shorthand for "last"
+            position++;
+            return new Token(Kind.NAME, "last", startLine);
+        }
+        if (c >= 'a' && c <= 'z') {
+            int start = position;
+            while (position < source.length() && isNameChar(source.charAt(position))) {
+                position++;
+            }
+            return new Token(Kind.NAME, source.substring(start, position), startLine);
+        }
+        for (String operator : OPERATORS) {
+            if (source.startsWith(operator, position)) {
+                position += operator.length();
+                return new Token(Kind.OPERATOR, operator, startLine);
+            }
+        }
+        position++;
+        throw new BcSyntaxException(startLine, "illegal character: " + c);
+    }
+
+    private void skipBlanks() {
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\r') {
+                position++;
+            } else if (c == '\\' && position + 1 < source.length() && source.charAt(position + 1) == '\n') {
+                position += 2;
+                line++;
+            } else if (c == '#') {
+                while (position < source.length() && source.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (source.startsWith("/*", position)) {
+                int end = source.indexOf("*/", position + 2);
+                int stop = end == -1 ? source.length() : end + 2;
+                for (int i = position; i < stop; i++) {
+                    if (source.charAt(i) == '\n') {
+                        line++;
+                    }
+                }
+                position = stop;
+                if (end == -1) {
+                    throw new BcSyntaxException(line, "end of file in comment");
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private Token number() {
+        int start = position;
+        while (position < source.length() && isDigit(source.charAt(position))) {
+            position++;
+        }
+        if (position < source.length() && source.charAt(position) == '.') {
+            position++;
+            while (position < source.length() && isDigit(source.charAt(position))) {
+                position++;
+            }
+        }
+        return new Token(Kind.NUMBER, source.substring(start, position), line);
+    }
+
+    private Token string() {
+        int startLine = line;
+        int end = source.indexOf('"', position + 1);
+        if (end == -1) {
+            position = source.length();
+            throw new BcSyntaxException(startLine, "end of file in string");
+        }
+        String text = source.substring(position + 1, end);
+        line += (int) text.chars().filter(ch -> ch == '\n').count();
+        position = end + 1;
+        return new Token(Kind.STRING, text, startLine);
+    }
+
+    /**
+     * Skips input up to and including the next newline, the way bc recovers from a syntax error.
+     */
+    void skipLine() {
+        int end = source.indexOf('\n', position);
+        if (end == -1) {
+            position = source.length();
+        } else {
+            position = end + 1;
+            line++;
+        }
+    }
+
+    /**
+     * Upper-case letters are digits: bc reads them as 10..15 in any {@code ibase}.
+     */
+    private static boolean isDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,302 @@
+package calculator.engine;
+
+import calculator.engine.BcAst.Assign;
+import calculator.engine.BcAst.Binary;
+import calculator.engine.BcAst.Block;
+import calculator.engine.BcAst.Call;
+import calculator.engine.BcAst.Expression;
+import calculator.engine.BcAst.ExpressionStatement;
+import calculator.engine.BcAst.IncDec;
+import calculator.engine.BcAst.Literal;
+import calculator.engine.BcAst.Statement;
+import calculator.engine.BcAst.StringStatement;
+import calculator.engine.BcAst.Unary;
+import calculator.engine.BcAst.Variable;
+import calculator.engine.BcLexer.Kind;
+import calculator.engine.BcLexer.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recursive-descent parser for bc, one top-level line at a time: like GNU bc, a line is only run
+ * once it parsed completely, and a syntax error discards the whole line.
+ * <p>
+ * Precedence follows GNU bc, lowest first: {@code ||}, {@code &&}, {@code !}, relational,
+ * assignment, {@code + -}, {@code * / %}, {@code ^}, unary minus, {@code ++ --}.
+ */
+final class BcParser {
+
+    private static final Set<String> RELATIONAL = Set.of("==", "!=", "<", "<=", ">", ">=");
+    private static final Set<String> ASSIGNMENT = Set.of("=", "+=", "-=", "*=", "/=", "%=", "^=");
+    private static final Set<String> BUILTINS = Set.of("sqrt", "length", "scale");
+    private static final Set<String> UNSUPPORTED = Set.of(
+            "define", "auto", "return", "if", "else", "while", "for", "break", "continue",
+            "read", "print", "halt", "limits", "warranty");
+
+    private final BcLexer lexer;
+    private Token current;
+    private boolean quitRequested;
+
+    BcParser(String source) {
+        this.lexer = new BcLexer(source);
+    }
+
+    boolean isQuitRequested() {
+        return quitRequested;
+    }
+
+    /**
+     * @return the statements of the next line, or {@code null} at end of input
+     * @throws BcSyntaxException after skipping the rest of the offending line
+     */
+    List<Statement> nextLine() {
+        try {
+            advance();
+            if (current.kind() == Kind.EOF) {
+                return null;
+            }
+            List<Statement> statements = new ArrayList<>();
+            statementList(statements, false);
+            if (current.kind() != Kind.NEWLINE && current.kind() != Kind.EOF) {
+                throw syntaxError();
+            }
+            return statements;
+        } catch (BcSyntaxException e) {
+            if (current == null || (current.kind() != Kind.NEWLINE && current.kind() != Kind.EOF)) {
+                lexer.skipLine();
+            }
+            throw e;
+        }
+    }
+
+    private void statementList(List<Statement> statements, boolean inBlock) {
+        while (true) {
+            if (inBlock) {
+                while (current.kind() == Kind.NEWLINE) {
+                    advance();
+                }
+                if (current.kind() == Kind.RBRACE) {
+                    return;
+                }
+            }
+            Statement statement = statement();
+            if (statement != null) {
+                statements.add(statement);
+            }
+            if (current.kind() == Kind.SEMICOLON || (inBlock && current.kind() == Kind.NEWLINE)) {
+                advance();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private Statement statement() {
+        switch (current.kind()) {
+            case NEWLINE, EOF, SEMICOLON, RBRACE:
+                return null;
+            case STRING: {
+                String text = current.text();
+                advance();
+                return new StringStatement(text);
+            }
+            case LBRACE: {
+                advance();
+                List<Statement> statements = new ArrayList<>();
+                statementList(statements, true);
+                expect(Kind.RBRACE);
+                return new Block(statements);
+            }
+            case NAME:
+                if (current.text().equals("quit")) {
+                    // bc acts on quit while parsing, before anything else on the line runs
+                    quitRequested = true;
+                    advance();
+                    return null;
+                }
+                if (UNSUPPORTED.contains(current.text())) {
+                    throw new BcSyntaxException(current.line(),
+                            "'" + current.text() + "' is not supported by the Java bc engine");
+                }
+                break;
+            default:
+                break;
+        }
+        // a bare assignment is silent, a parenthesized one prints its value
+        boolean parenthesized = current.kind() == Kind.LPAREN;
+        Expression expression = expression();
+        boolean print = parenthesized || !(expression instanceof Assign);
+        return new ExpressionStatement(expression, print);
+    }
+
+    private Expression expression() {
+        Expression left = and();
+        while (current.isOperator("||")) {
+            advance();
+            left = new Binary("||", left, and());
+        }
+        return left;
+    }
+
+    private Expression and() {
+        Expression left = not();
+        while (current.isOperator("&&")) {
+            advance();
+            left = new Binary("&&", left, not());
+        }
+        return left;
+    }
+
+    private Expression not() {
+        if (current.isOperator("!")) {
+            advance();
+            return new Unary("!", not());
+        }
+        return relational();
+    }
+
+    private Expression relational() {
+        Expression left = assignment();
+        while (current.kind() == Kind.OPERATOR && RELATIONAL.contains(current.text())) {
+            String operator = current.text();
+            advance();
+            left = new Binary(operator, left, assignment());
+        }
+        return left;
+    }
+
+    private Expression assignment() {
+        Expression left = additive();
+        if (current.kind() == Kind.OPERATOR && ASSIGNMENT.contains(current.text())) {
+            if (!(left instanceof Variable target)) {
+                throw syntaxError();
+            }
+            String operator = current.text();
+            advance();
+            return new Assign(operator, target, assignment());
+        }
+        return left;
+    }
+
+    private Expression additive() {
+        Expression left = multiplicative();
+        while (current.isOperator("+") || current.isOperator("-")) {
+            String operator = current.text();
+            advance();
+            left = new Binary(operator, left, multiplicative());
+        }
+        return left;
+    }
+
+    private Expression multiplicative() {
+        Expression left = power();
+        while (current.isOperator("*") || current.isOperator("/") || current.isOperator("%")) {
+            String operator = current.text();
+            advance();
+            left = new Binary(operator, left, power());
+        }
+        return left;
+    }
+
+    private Expression power() {
+        Expression base = unary();
+        if (current.isOperator("^")) {
+            advance();
+            return new Binary("^", base, power());
+        }
+        return base;
+    }
+
+    /**
+     * Unary minus binds tighter than {@code ^} in bc, so {@code -2^2} is 4.
+     */
+    private Expression unary() {
+        if (current.isOperator("-")) {
+            advance();
+            return new Unary("-", unary());
+        }
+        if (current.isOperator("++") || current.isOperator("--")) {
+            String operator = current.text();
+            advance();
+            return new IncDec(operator, true, variable());
+        }
+        Expression primary = primary();
+        if (primary instanceof Variable variable && (current.isOperator("++") || current.isOperator("--"))) {
+            String operator = current.text();
+            advance();
+            return new IncDec(operator, false, variable);
+        }
+        return primary;
+    }
+
+    private Variable variable() {
+        if (current.kind() != Kind.NAME || BUILTINS.contains(current.text()) && !current.text().equals("scale")) {
+            throw syntaxError();
+        }
+        String name = current.text();
+        advance();
+        if (current.kind() == Kind.LBRACKET) {
+            throw new BcSyntaxException(current.line(), "arrays are not supported by the Java bc engine");
+        }
+        return new Variable(name);
+    }
+
+    private Expression primary() {
+        switch (current.kind()) {
+            case NUMBER: {
+                String digits = current.text();
+                advance();
+                return new Literal(digits);
+            }
+            case LPAREN: {
+                advance();
+                Expression inner = expression();
+                expect(Kind.RPAREN);
+                return inner;
+            }
+            case NAME: {
+                String name = current.text();
+                if (UNSUPPORTED.contains(name) || name.equals("quit")) {
+                    throw syntaxError();
+                }
+                advance();
+                if (current.kind() == Kind.LPAREN) {
+                    if (!BUILTINS.contains(name)) {
+                        throw new BcSyntaxException(current.line(),
+                                "function calls are not supported by the Java bc engine");
+                    }
+                    advance();
+                    Expression argument = expression();
+                    expect(Kind.RPAREN);
+                    return new Call(name, argument);
+                }
+                if (current.kind() == Kind.LBRACKET) {
+                    throw new BcSyntaxException(current.line(), "arrays are not supported by the Java bc engine");
+                }
+                if (BUILTINS.contains(name) && !name.equals("scale")) {
+                    throw syntaxError();
+                }
+                return new Variable(name);
+            }
+            default:
+                throw syntaxError();
+        }
+    }
+
+    private void expect(Kind kind) {
+        if (current.kind() != kind) {
+            throw syntaxError();
+        }
+        advance();
+    }
+
+    private void advance() {
+        current = lexer.next();
+    }
+
+    private BcSyntaxException syntaxError() {
+        return new BcSyntaxException(current.line(), "syntax error");
+    }
+}
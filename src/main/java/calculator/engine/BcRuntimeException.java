@@ -0,0 +1,11 @@
+package calculator.engine;
+
+/**
+ * Runtime error that aborts the rest of the current input line, as in bc.
+ */
+class BcRuntimeException extends RuntimeException {
+
+    BcRuntimeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package calculator.engine;
+
+/**
+ * Parse error; reported the way GNU bc does, as {@code (standard_in) LINE: message}.
+ */
+class BcSyntaxException extends RuntimeException {
+
+    BcSyntaxException(int line, String message) {
+        super("(standard_in) " + line + ": " + message);
+    }
+}
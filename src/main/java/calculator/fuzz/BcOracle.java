@@ -0,0 +1,74 @@
+package calculator.fuzz;
+
+import calculator.fuzz.FuzzExpression.Binary;
+import calculator.fuzz.FuzzExpression.Group;
+import calculator.fuzz.FuzzExpression.Negate;
+import calculator.fuzz.FuzzExpression.Number;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact expected values for {@link FuzzExpression}s, following the scale and truncation rules of
+ * the bc manual page. Kept separate from {@link calculator.engine.BcEngine} on purpose, so the two
+ * can be checked against each other.
+ */
+public final class BcOracle {
+
+    private BcOracle() {
+    }
+
+    /**
+     * @throws ArithmeticException if bc would report a runtime error, e.g. on division by zero
+     */
+    public static BigDecimal evaluate(FuzzExpression expression, int scale) {
+        return switch (expression) {
+            case Number n -> new BigDecimal(n.text());
+            case Group g -> evaluate(g.inner(), scale);
+            case Negate n -> evaluate(n.operand(), scale).negate();
+            case Binary b -> apply(b.operator(), evaluate(b.left(), scale), evaluate(b.right(), scale), scale);
+        };
+    }
+
+    private static BigDecimal apply(char operator, BigDecimal a, BigDecimal b, int scale) {
+        return switch (operator) {
+            case '+' -> a.add(b);
+            case '-' -> a.subtract(b);
+            // scale(a*b) = min(scale(a) + scale(b), max(scale, scale(a), scale(b)))
+            case '*' -> a.multiply(b).setScale(
+                    Math.min(a.scale() + b.scale(), Math.max(scale, Math.max(a.scale(), b.scale()))),
+                    RoundingMode.DOWN);
+            case '/' -> divide(a, b, scale);
+            // a % b = a - (a / b) * b, with a / b computed to scale digits
+            case '%' -> a.subtract(divide(a, b, scale).multiply(b));
+            // scale(a^n) = min(scale(a) * n, max(scale, scale(a)))
+            case '^' -> {
+                int n = b.intValueExact();
+                yield a.pow(n).setScale(Math.min(a.scale() * n, Math.max(scale, a.scale())), RoundingMode.DOWN);
+            }
+            default -> throw new IllegalArgumentException("Unsupported operator " + operator);
+        };
+    }
+
+    private static BigDecimal divide(BigDecimal a, BigDecimal b, int scale) {
+        if (b.signum() == 0) {
+            throw new ArithmeticException("Divide by zero");
+        }
+        return a.divide(b, scale, RoundingMode.DOWN);
+    }
+
+    /**
+     * Formats {@code value} as bc prints it in base 10, without line continuations: zero is
+     * {@code 0}, there is no leading zero before the point, and trailing zeros are kept.
+     */
+    public static String format(BigDecimal value) {
+        if (value.signum() == 0) {
+            return "0";
+        }
+        String plain = value.abs().toPlainString();
+        if (plain.startsWith("0.")) {
+            plain = plain.substring(1);
+        }
+        return (value.signum() < 0 ? "-" : "") + plain;
+    }
+}
@@ -0,0 +1,269 @@
+package calculator.fuzz;
+
+import calculator.EvaluationDeadline;
+import calculator.EvaluationResult;
+import calculator.fuzz.FuzzExpression.Binary;
+import calculator.fuzz.FuzzExpression.Group;
+import calculator.fuzz.FuzzExpression.Negate;
+import calculator.fuzz.FuzzExpression.Number;
+import model.TestCaseData;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+/**
+ * One generated case: an expression, the {@code scale} it runs under, and optionally a fault that
+ * makes the input malformed. Case {@code index} of a seed is always the same case, so any case can
+ * be replayed from its id alone.
+ */
+public final class FuzzCase {
+
+    /**
+     * Ways to break a well-formed expression. Each one makes bc report an error and print nothing.
+     */
+    public enum Fault {
+        NONE(input -> input),
+        TRAILING_OPERATOR(input -> input + " *"),
+        LEADING_OPERATOR(input -> "* " + input),
+        UNCLOSED_PARENTHESIS(input -> "(" + input),
+        UNOPENED_PARENTHESIS(input -> input + ")"),
+        EMPTY_PARENTHESES(input -> input + " ()"),
+        DIVISION_BY_ZERO(input -> "(" + input + ") / 0");
+
+        private final UnaryOperator<String> breaker;
+
+        Fault(UnaryOperator<String> breaker) {
+            this.breaker = breaker;
+        }
+
+        String apply(String input) {
+            return breaker.apply(input);
+        }
+    }
+
+    private static final int MAX_DEPTH = 4;
+    private static final int MAX_INTEGER_DIGITS = 6;
+    private static final int MAX_FRACTION_DIGITS = 4;
+    private static final int MAX_SCALE = 20;
+    private static final int MAX_EXPONENT = 4;
+    private static final double MALFORMED_RATIO = 0.2;
+
+    private final long seed;
+    private final int index;
+    private final int scale;
+    private final FuzzExpression expression;
+    private final Fault fault;
+
+    private FuzzCase(long seed, int index, int scale, FuzzExpression expression, Fault fault) {
+        this.seed = seed;
+        this.index = index;
+        this.scale = scale;
+        this.expression = expression;
+        this.fault = fault;
+    }
+
+    /**
+     * Generates case {@code index} of {@code seed}. Expressions bc would reject at run time, such
+     * as divisions by zero, are redrawn, so only {@link Fault#DIVISION_BY_ZERO} cases divide by zero.
+     */
+    public static FuzzCase generate(long seed, int index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        int scale = random.nextInt(4) == 0 ? 0 : random.nextInt(MAX_SCALE + 1);
+        Fault fault = Fault.NONE;
+        if (random.nextDouble() < MALFORMED_RATIO) {
+            Fault[] faults = Fault.values();
+            fault = faults[1 + random.nextInt(faults.length - 1)];
+        }
+        while (true) {
+            FuzzExpression expression = expression(random, random.nextInt(1, MAX_DEPTH + 1));
+            FuzzCase candidate = new FuzzCase(seed, index, scale, expression, fault);
+            if (candidate.isEvaluable()) {
+                return candidate;
+            }
+        }
+    }
+
+    private static FuzzExpression expression(SplittableRandom random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return number(random);
+        }
+        return switch (random.nextInt(10)) {
+            case 0 -> new Group(expression(random, depth - 1));
+            case 1 -> new Negate(expression(random, depth - 1));
+            case 2 -> new Binary('^', expression(random, depth - 1),
+                    new Number(Integer.toString(random.nextInt(MAX_EXPONENT + 1))));
+            default -> new Binary("+-*/%".charAt(random.nextInt(5)),
+                    expression(random, depth - 1), expression(random, depth - 1));
+        };
+    }
+
+    private static Number number(SplittableRandom random) {
+        StringBuilder text = new StringBuilder();
+        int integerDigits = random.nextInt(MAX_INTEGER_DIGITS + 1);
+        if (integerDigits == 0) {
+            text.append(random.nextBoolean() ? "0" : "");
+        } else {
+            text.append(1 + random.nextInt(9));
+            for (int i = 1; i < integerDigits; i++) {
+                text.append(random.nextInt(10));
+            }
+        }
+        int fractionDigits = random.nextInt(3) == 0 ? 1 + random.nextInt(MAX_FRACTION_DIGITS) : 0;
+        if (fractionDigits > 0 || text.isEmpty()) {
+            text.append('.');
+            for (int i = 0; i < Math.max(1, fractionDigits); i++) {
+                text.append(random.nextInt(10));
+            }
+        }
+        return new Number(text.toString());
+    }
+
+    public String id() {
+        return "fuzz-" + seed + "-" + index;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public FuzzExpression getExpression() {
+        return expression;
+    }
+
+    public Fault getFault() {
+        return fault;
+    }
+
+    public boolean isMalformed() {
+        return fault != Fault.NONE;
+    }
+
+    public String input() {
+        String body = fault.apply(expression.render());
+        return scale == 0 ? body : "scale=" + scale + "; " + body;
+    }
+
+    /**
+     * @return the exact output bc must print, or an empty string for malformed cases
+     */
+    public String expectedOutput() {
+        return isMalformed() ? "" : BcOracle.format(BcOracle.evaluate(expression, scale));
+    }
+
+    /**
+     * @return why {@code result} is wrong for this case, or {@code null} if it is right
+     */
+    public String mismatch(EvaluationResult result) {
+        String output = result.getOutput() == null ? "" : result.getOutput().trim();
+        String error = result.getError() == null ? "" : result.getError().trim();
+        if (isMalformed()) {
+            if (error.isEmpty() || !output.isEmpty()) {
+                return "expected an error and no output for " + fault + ", got output [" + output
+                        + "] and error [" + error + "]";
+            }
+            return null;
+        }
+        String expected = expectedOutput();
+        if (!error.isEmpty() || !output.equals(expected)) {
+            return "expected [" + expected + "], got output [" + output + "] and error [" + error + "]";
+        }
+        return null;
+    }
+
+    public TestCaseData toTestCaseData() {
+        String description = (isMalformed() ? "Malformed (" + fault + ")" : "Well-formed")
+                + " generated expression, seed " + seed + ", case " + index;
+        // the ID is new with every seed, so a latency history would never apply to it
+        return TestCaseData.fromStringInput(id(), this::input, expectedOutput(), description)
+                .withTimeout(EvaluationDeadline.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @return smaller variants of this case, simplest first, that are still valid cases
+     */
+    List<FuzzCase> shrinkCandidates() {
+        List<FuzzCase> candidates = new ArrayList<>();
+        if (scale != 0) {
+            candidates.add(new FuzzCase(seed, index, 0, expression, fault));
+        }
+        for (FuzzExpression smaller : simplifications(expression)) {
+            candidates.add(new FuzzCase(seed, index, scale, smaller, fault));
+        }
+        candidates.removeIf(candidate -> !candidate.isEvaluable());
+        return candidates;
+    }
+
+    private static List<FuzzExpression> simplifications(FuzzExpression expression) {
+        List<FuzzExpression> result = new ArrayList<>(expression.children());
+        switch (expression) {
+            case Number n -> result.addAll(simplerNumbers(n.text()));
+            case Group g -> simplifications(g.inner()).forEach(inner -> result.add(new Group(inner)));
+            case Negate n -> simplifications(n.operand()).forEach(operand -> result.add(new Negate(operand)));
+            case Binary b -> {
+                simplifications(b.left()).forEach(left -> result.add(new Binary(b.operator(), left, b.right())));
+                simplifications(b.right()).forEach(right -> result.add(new Binary(b.operator(), b.left(), right)));
+            }
+        }
+        return result;
+    }
+
+    private static List<FuzzExpression> simplerNumbers(String text) {
+        List<FuzzExpression> result = new ArrayList<>();
+        int point = text.indexOf('.');
+        if (point >= 0) {
+            String integer = text.substring(0, point);
+            result.add(new Number(integer.isEmpty() ? "0" : integer));
+            if (text.length() - point > 2) {
+                result.add(new Number(text.substring(0, text.length() - 1)));
+            }
+        } else {
+            if (text.length() > 1) {
+                result.add(new Number(text.substring(0, text.length() - 1)));
+            }
+            if (!text.equals("0") && !text.equals("1")) {
+                result.add(new Number("1"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A shrunk {@code ^} may lose its integer exponent and a shrunk divisor may become zero; such
+     * candidates are not valid cases.
+     */
+    private boolean isEvaluable() {
+        if (!exponentsAreIntegers(expression)) {
+            return false;
+        }
+        try {
+            BigDecimal ignored = BcOracle.evaluate(expression, scale);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static boolean exponentsAreIntegers(FuzzExpression expression) {
+        if (expression instanceof Binary b && b.operator() == '^'
+                && !(b.right() instanceof Number n && n.text().indexOf('.') < 0)) {
+            return false;
+        }
+        return expression.children().stream().allMatch(FuzzCase::exponentsAreIntegers);
+    }
+
+    @Override
+    public String toString() {
+        return id() + ": " + input();
+    }
+}
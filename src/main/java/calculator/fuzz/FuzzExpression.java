@@ -0,0 +1,105 @@
+package calculator.fuzz;
+
+import java.util.List;
+
+/**
+ * Generated bc expression. The tree fixes the evaluation order; {@link #render()} adds only the
+ * parentheses bc's precedence rules require, so generated inputs exercise those rules too.
+ */
+public sealed interface FuzzExpression {
+
+    String render();
+
+    /**
+     * @return binding strength in bc: 1 for {@code + -}, 2 for {@code * / %}, 3 for {@code ^},
+     * 4 for unary minus (which binds tighter than {@code ^} in bc), 5 for atoms
+     */
+    int precedence();
+
+    /**
+     * @return direct subexpressions; the shrinker tries each of them in place of this node
+     */
+    List<FuzzExpression> children();
+
+    /**
+     * Decimal literal such as {@code 42} or {@code 3.125}.
+     */
+    record Number(String text) implements FuzzExpression {
+        public String render() {
+            return text;
+        }
+
+        public int precedence() {
+            return 5;
+        }
+
+        public List<FuzzExpression> children() {
+            return List.of();
+        }
+    }
+
+    /**
+     * Explicit, possibly redundant, parentheses.
+     */
+    record Group(FuzzExpression inner) implements FuzzExpression {
+        public String render() {
+            return "(" + inner.render() + ")";
+        }
+
+        public int precedence() {
+            return 5;
+        }
+
+        public List<FuzzExpression> children() {
+            return List.of(inner);
+        }
+    }
+
+    record Negate(FuzzExpression operand) implements FuzzExpression {
+        public String render() {
+            // "--x" would lex as a decrement
+            boolean bare = operand.precedence() >= precedence() && !(operand instanceof Negate);
+            return "-" + (bare ? operand.render() : "(" + operand.render() + ")");
+        }
+
+        public int precedence() {
+            return 4;
+        }
+
+        public List<FuzzExpression> children() {
+            return List.of(operand);
+        }
+    }
+
+    /**
+     * @param operator one of {@code + - * / % ^}; the right operand of {@code ^} is a non-negative
+     *                 integer {@link Number}
+     */
+    record Binary(char operator, FuzzExpression left, FuzzExpression right) implements FuzzExpression {
+        public String render() {
+            boolean rightAssociative = operator == '^';
+            int precedence = precedence();
+            boolean wrapLeft = left.precedence() < precedence
+                    || (left.precedence() == precedence && rightAssociative);
+            boolean wrapRight = right.precedence() < precedence
+                    || (right.precedence() == precedence && !rightAssociative);
+            return wrap(left, wrapLeft) + " " + operator + " " + wrap(right, wrapRight);
+        }
+
+        public int precedence() {
+            return switch (operator) {
+                case '+', '-' -> 1;
+                case '*', '/', '%' -> 2;
+                default -> 3;
+            };
+        }
+
+        public List<FuzzExpression> children() {
+            return List.of(left, right);
+        }
+
+        private static String wrap(FuzzExpression expression, boolean parenthesize) {
+            return parenthesize ? "(" + expression.render() + ")" : expression.render();
+        }
+    }
+}
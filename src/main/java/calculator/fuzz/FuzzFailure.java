@@ -0,0 +1,45 @@
+package calculator.fuzz;
+
+import model.TestCaseData;
+
+/**
+ * A generated case the calculator got wrong, together with the smallest variant that still fails.
+ */
+public class FuzzFailure {
+    private final FuzzCase original;
+    private final FuzzCase minimal;
+    private final String mismatch;
+
+    public FuzzFailure(FuzzCase original, FuzzCase minimal, String mismatch) {
+        this.original = original;
+        this.minimal = minimal;
+        this.mismatch = mismatch;
+    }
+
+    public FuzzCase getOriginal() {
+        return original;
+    }
+
+    public FuzzCase getMinimal() {
+        return minimal;
+    }
+
+    /**
+     * @return how the calculator got {@link #getMinimal()} wrong
+     */
+    public String getMismatch() {
+        return mismatch;
+    }
+
+    public TestCaseData getMinimalTestCase() {
+        return minimal.toTestCaseData();
+    }
+
+    @Override
+    public String toString() {
+        if (minimal == original) {
+            return "❌ " + original.id() + " `" + original.input() + "`: " + mismatch;
+        }
+        return "❌ " + original.id() + " shrunk to `" + minimal.input() + "`: " + mismatch;
+    }
+}
@@ -0,0 +1,62 @@
+package calculator.fuzz;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of one {@link FuzzRunner} campaign.
+ */
+public class FuzzReport {
+    private final long seed;
+    private final int executedCases;
+    private final int malformedCases;
+    private final Duration elapsed;
+    private final List<FuzzFailure> failures;
+
+    public FuzzReport(long seed, int executedCases, int malformedCases, Duration elapsed, List<FuzzFailure> failures) {
+        this.seed = seed;
+        this.executedCases = executedCases;
+        this.malformedCases = malformedCases;
+        this.elapsed = elapsed;
+        this.failures = List.copyOf(failures);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getExecutedCases() {
+        return executedCases;
+    }
+
+    public int getMalformedCases() {
+        return malformedCases;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public List<FuzzFailure> getFailures() {
+        return failures;
+    }
+
+    public double getCasesPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return executedCases * 1000.0 / millis;
+    }
+
+    public String summary() {
+        return String.format("seed %d: %d cases (%d malformed) in %dms, %.1f cases/s, %d failures",
+                seed, executedCases, malformedCases, elapsed.toMillis(), getCasesPerSecond(), failures.size());
+    }
+
+    @Override
+    public String toString() {
+        if (failures.isEmpty()) {
+            return summary();
+        }
+        return summary() + "\n" + failures.stream().map(FuzzFailure::toString).collect(Collectors.joining("\n"));
+    }
+}
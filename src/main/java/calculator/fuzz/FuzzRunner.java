@@ -0,0 +1,162 @@
+package calculator.fuzz;
+
+import calculator.CalculatorTool;
+import calculator.EvaluationResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Runs generated {@link FuzzCase}s against a {@link CalculatorTool} until a case limit, and
+ * optionally a time budget, is reached, keeping one case in flight per core, and shrinks whatever
+ * fails.
+ * <p>
+ * The suite runs a fixed number of cases from {@link #DEFAULT_SEED}, so every run checks the same
+ * cases. {@code -Dfuzz.campaign=true} turns it into a time-boxed campaign on a fresh seed.
+ */
+public class FuzzRunner {
+
+    public static final long DEFAULT_SEED = 20_250_101L;
+    public static final int DEFAULT_SUITE_CASES = Integer.getInteger("fuzz.suiteCases", 1_000);
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(Long.getLong("fuzz.budgetMs", 3_000));
+    public static final int DEFAULT_MAX_CASES = Integer.getInteger("fuzz.maxCases", 100_000);
+
+    /**
+     * Failures beyond this many are reported as generated; shrinking costs many evaluations each.
+     */
+    private static final int MAX_SHRUNK_FAILURES = 5;
+    private static final int MAX_SHRINK_EVALUATIONS = 500;
+
+    private final CalculatorTool calculator;
+    private final int parallelism;
+
+    public FuzzRunner(CalculatorTool calculator) {
+        this(calculator, Runtime.getRuntime().availableProcessors());
+    }
+
+    public FuzzRunner(CalculatorTool calculator, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+        }
+        this.calculator = calculator;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return whether {@code -Dfuzz.campaign=true} asked for a time-boxed campaign on a fresh seed
+     */
+    public static boolean isCampaign() {
+        return Boolean.getBoolean("fuzz.campaign");
+    }
+
+    /**
+     * @return the seed given as {@code -Dfuzz.seed}, else a fresh one for a {@link #isCampaign()
+     * campaign} and {@link #DEFAULT_SEED} otherwise; either way it is logged so the run can be
+     * reproduced
+     */
+    public static long seedFromSystemProperty() {
+        Long configured = Long.getLong("fuzz.seed");
+        long seed = configured != null ? configured : isCampaign() ? System.nanoTime() : DEFAULT_SEED;
+        getLogger().info("🎲 [fuzz] Using seed {} (replay with -Dfuzz.seed={})", seed, seed);
+        return seed;
+    }
+
+    /**
+     * Runs exactly the first {@code cases} cases of {@code seed}, however long they take, so the
+     * outcome depends on the seed alone.
+     */
+    public FuzzReport run(long seed, int cases) {
+        return run(seed, null, cases);
+    }
+
+    /**
+     * @param budget stops the campaign early; {@code null} runs all {@code maxCases}
+     */
+    public FuzzReport run(long seed, Duration budget, int maxCases) {
+        getLogger().info("🎲 [fuzz] Campaign with seed {}: budget {}, up to {} cases, {} in flight",
+                seed, budget == null ? "none" : budget.toMillis() + "ms", maxCases, parallelism);
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicInteger malformed = new AtomicInteger();
+        List<FuzzCase> failing = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        int submitted = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (submitted < maxCases && (budget == null || System.nanoTime() - start < budget.toNanos())) {
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                FuzzCase fuzzCase = FuzzCase.generate(seed, submitted++);
+                executor.execute(() -> {
+                    try {
+                        if (fuzzCase.isMalformed()) {
+                            malformed.incrementAndGet();
+                        }
+                        if (mismatch(fuzzCase) != null) {
+                            failing.add(fuzzCase);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<FuzzFailure> failures = new ArrayList<>();
+        failing.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        for (int i = 0; i < failing.size(); i++) {
+            FuzzCase original = failing.get(i);
+            FuzzCase minimal = i < MAX_SHRUNK_FAILURES ? shrink(original) : original;
+            String mismatch = mismatch(minimal);
+            failures.add(new FuzzFailure(original, minimal, mismatch != null ? mismatch : mismatch(original)));
+        }
+
+        FuzzReport report = new FuzzReport(seed, submitted, malformed.get(), elapsed, failures);
+        getLogger().info("📊 [fuzz] {}", report.summary());
+        failures.stream().limit(MAX_SHRUNK_FAILURES).forEach(failure -> getLogger().error("{}", failure));
+        return report;
+    }
+
+    /**
+     * Greedily replaces {@code failing} by the first smaller variant that still fails, until no
+     * variant does or the evaluation budget for shrinking is spent.
+     */
+    public FuzzCase shrink(FuzzCase failing) {
+        FuzzCase current = failing;
+        int evaluations = 0;
+        boolean progressed = true;
+        while (progressed && evaluations < MAX_SHRINK_EVALUATIONS) {
+            progressed = false;
+            for (FuzzCase candidate : current.shrinkCandidates()) {
+                if (++evaluations > MAX_SHRINK_EVALUATIONS) {
+                    break;
+                }
+                if (mismatch(candidate) != null) {
+                    current = candidate;
+                    progressed = true;
+                    break;
+                }
+            }
+        }
+        getLogger().info("🔬 [fuzz] Shrunk {} from `{}` to `{}` in {} evaluations",
+                failing.id(), failing.input(), current.input(), evaluations);
+        return current;
+    }
+
+    private String mismatch(FuzzCase fuzzCase) {
+        EvaluationResult result = calculator.evaluateWithTimeout(fuzzCase.toTestCaseData());
+        return fuzzCase.mismatch(result);
+    }
+}
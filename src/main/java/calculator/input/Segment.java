@@ -0,0 +1,78 @@
+package calculator.input;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A unit of text repeated a number of times. Only one block of whole units, at most about
+ * {@link #BLOCK_CHARS} long, is kept, in both char and byte form; the segment is read by copying
+ * from that block over and over.
+ */
+final class Segment {
+
+    static final int BLOCK_CHARS = 16 * 1024;
+
+    private final String unit;
+    private final long repeat;
+    private final long length;
+    private final char[] chars;
+    private final byte[] bytes;
+
+    Segment(String unit, long repeat) {
+        if (repeat < 0) {
+            throw new IllegalArgumentException("repeat must not be negative, got " + repeat);
+        }
+        for (int i = 0; i < unit.length(); i++) {
+            if (unit.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Synthetic input must be ASCII, got '" + unit + "'");
+            }
+        }
+        this.unit = unit;
+        this.repeat = repeat;
+        this.length = Math.multiplyExact((long) unit.length(), repeat);
+        int copies = unit.isEmpty() ? 0 : (int) Math.max(1, Math.min(repeat, BLOCK_CHARS / unit.length()));
+        String block = unit.repeat(copies);
+        this.chars = block.toCharArray();
+        this.bytes = block.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Copies up to {@code length} chars or bytes of this segment, starting at {@code offset} within
+     * it, to {@code target}.
+     *
+     * @param target a {@code char[]} or {@code byte[]}
+     * @return the number copied
+     */
+    int copy(long offset, Object target, int targetOffset, int length) {
+        int blockOffset = (int) (offset % chars.length);
+        int count = (int) Math.min(Math.min(length, chars.length - blockOffset), this.length - offset);
+        System.arraycopy(target instanceof char[] ? chars : bytes, blockOffset, target, targetOffset, count);
+        return count;
+    }
+
+    /**
+     * Puts as much of this segment, starting at {@code offset} within it, as fits into {@code target}.
+     *
+     * @return the number of bytes put
+     */
+    int copy(long offset, ByteBuffer target) {
+        int blockOffset = (int) (offset % bytes.length);
+        int count = (int) Math.min(Math.min(target.remaining(), bytes.length - blockOffset), length - offset);
+        target.put(bytes, blockOffset, count);
+        return count;
+    }
+
+    char charAt(long offset) {
+        return chars[(int) (offset % chars.length)];
+    }
+
+    @Override
+    public String toString() {
+        String shown = unit.length() > 20 ? unit.substring(0, 20) + "..." : unit;
+        return repeat == 1 ? "'" + shown + "'" : repeat + " x '" + shown + "'";
+    }
+}
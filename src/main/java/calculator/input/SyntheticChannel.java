@@ -0,0 +1,52 @@
+package calculator.input;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a {@link SyntheticInput} as ASCII bytes; every read fills the buffer completely unless
+ * the input ends. Heap and direct buffers are both filled with bulk puts.
+ */
+public final class SyntheticChannel implements ReadableByteChannel {
+
+    private final SyntheticInput.Cursor cursor;
+    private boolean open = true;
+
+    SyntheticChannel(SyntheticInput.Cursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return the length of the whole input
+     */
+    public long length() {
+        return cursor.length();
+    }
+
+    public long remaining() {
+        return cursor.remaining();
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (!target.hasRemaining()) {
+            return 0;
+        }
+        int filled = cursor.fill(target);
+        return filled == 0 ? -1 : filled;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+}
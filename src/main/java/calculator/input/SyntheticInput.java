@@ -0,0 +1,209 @@
+package calculator.input;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A generated bc input of known length, e.g. a billion-digit operand, read without ever being
+ * held in memory. Inputs are composed from repeated units:
+ * <pre>
+ * SyntheticInput.scale(0, SyntheticInput.digits('9', 1_000_000_000).then(" * ").then(SyntheticInput.digits('9', 12_000)))
+ * </pre>
+ * Each {@link #openReader()}, {@link #openStream()} and {@link #openChannel()} starts a fresh
+ * pass over the input; an input can be opened any number of times, also concurrently. Memory is
+ * bounded by the number of parts, a few kilobytes each, whatever the length.
+ * <p>
+ * Inputs are ASCII, so chars and bytes correspond one to one.
+ */
+public final class SyntheticInput {
+
+    private final List<Segment> segments;
+    private final long length;
+
+    private SyntheticInput(List<Segment> segments) {
+        this.segments = List.copyOf(segments);
+        long total = 0;
+        for (Segment segment : this.segments) {
+            total = Math.addExact(total, segment.length());
+        }
+        this.length = total;
+    }
+
+    public static SyntheticInput literal(String text) {
+        return repeat(text, 1);
+    }
+
+    /**
+     * @return {@code unit} {@code times} times in a row
+     */
+    public static SyntheticInput repeat(String unit, long times) {
+        return new SyntheticInput(List.of(new Segment(unit, times)));
+    }
+
+    /**
+     * @return a number of {@code count} {@code digit}s, e.g. {@code 9999}
+     */
+    public static SyntheticInput digits(char digit, long count) {
+        return repeat(String.valueOf(digit), count);
+    }
+
+    /**
+     * @return {@code count} {@code operand}s joined by {@code operator}, e.g. {@code 1+1+1}
+     */
+    public static SyntheticInput chain(String operand, String operator, long count) {
+        if (count <= 0) {
+            return literal("");
+        }
+        return literal(operand).then(repeat(operator + operand, count - 1));
+    }
+
+    /**
+     * @return {@code body} inside {@code depth} pairs of parentheses
+     */
+    public static SyntheticInput nested(int depth, SyntheticInput body) {
+        return repeat("(", depth).then(body).then(repeat(")", depth));
+    }
+
+    /**
+     * @return {@code body} after a {@code scale=<scale>; } assignment
+     */
+    public static SyntheticInput scale(long scale, SyntheticInput body) {
+        return literal("scale=" + scale + "; ").then(body);
+    }
+
+    public static SyntheticInput concat(SyntheticInput... parts) {
+        List<Segment> segments = new ArrayList<>();
+        for (SyntheticInput part : parts) {
+            segments.addAll(part.segments);
+        }
+        return new SyntheticInput(segments);
+    }
+
+    public SyntheticInput then(SyntheticInput next) {
+        return concat(this, next);
+    }
+
+    public SyntheticInput then(String text) {
+        return then(literal(text));
+    }
+
+    /**
+     * @return the number of chars, which is also the number of bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    public Reader openReader() {
+        return new SyntheticReader(new Cursor());
+    }
+
+    public InputStream openStream() {
+        return new SyntheticInputStream(new Cursor());
+    }
+
+    public ReadableByteChannel openChannel() {
+        return new SyntheticChannel(new Cursor());
+    }
+
+    @Override
+    public String toString() {
+        return segments.stream().map(Segment::toString).collect(Collectors.joining(" + "))
+                + " (" + length + " chars)";
+    }
+
+    /**
+     * A read position in the input, shared by the reader, the stream and the channel.
+     */
+    final class Cursor {
+        private int segment;
+        private long offset;
+        private long position;
+
+        long length() {
+            return length;
+        }
+
+        long remaining() {
+            return length - position;
+        }
+
+        /**
+         * @param target a {@code char[]} or {@code byte[]}
+         * @return the number of chars or bytes filled, 0 at the end of the input
+         */
+        int fill(Object target, int targetOffset, int count) {
+            int filled = 0;
+            while (filled < count && segment < segments.size()) {
+                Segment current = segments.get(segment);
+                if (offset == current.length()) {
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+                int copied = current.copy(offset, target, targetOffset + filled, count - filled);
+                offset += copied;
+                filled += copied;
+            }
+            position += filled;
+            return filled;
+        }
+
+        /**
+         * @return the number of bytes put into {@code target}, 0 at the end of the input
+         */
+        int fill(ByteBuffer target) {
+            int filled = 0;
+            while (target.hasRemaining() && segment < segments.size()) {
+                Segment current = segments.get(segment);
+                if (offset == current.length()) {
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+                int copied = current.copy(offset, target);
+                offset += copied;
+                filled += copied;
+            }
+            position += filled;
+            return filled;
+        }
+
+        /**
+         * @return the next char, or -1 at the end of the input
+         */
+        int next() {
+            while (segment < segments.size()) {
+                Segment current = segments.get(segment);
+                if (offset < current.length()) {
+                    position++;
+                    return current.charAt(offset++);
+                }
+                segment++;
+                offset = 0;
+            }
+            return -1;
+        }
+
+        long skip(long count) {
+            long skipped = 0;
+            while (skipped < count && segment < segments.size()) {
+                Segment current = segments.get(segment);
+                long step = Math.min(count - skipped, current.length() - offset);
+                offset += step;
+                skipped += step;
+                if (offset == current.length()) {
+                    segment++;
+                    offset = 0;
+                }
+            }
+            position += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package calculator.input;
+
+import java.io.Reader;
+
+/**
+ * Reads a {@link SyntheticInput}; every bulk read is filled completely unless the input ends.
+ */
+public final class SyntheticReader extends Reader {
+
+    private final SyntheticInput.Cursor cursor;
+
+    SyntheticReader(SyntheticInput.Cursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return the length of the whole input
+     */
+    public long length() {
+        return cursor.length();
+    }
+
+    public long remaining() {
+        return cursor.remaining();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int filled = cursor.fill(buffer, offset, length);
+        return filled == 0 ? -1 : filled;
+    }
+
+    @Override
+    public int read() {
+        return cursor.next();
+    }
+
+    @Override
+    public long skip(long count) {
+        return cursor.skip(Math.max(0, count));
+    }
+
+    @Override
+    public boolean ready() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,167 @@
+package calculator.journal;
+
+/**
+ * One entry of the {@link EventJournal}: a phase of one evaluation with its duration and sizes.
+ * Values that do not apply to the phase are {@link #UNSET} and left out of the journal line.
+ */
+public class EvaluationEvent {
+
+    public static final long UNSET = -1;
+
+    /**
+     * What happened, and the journal level from which it is kept.
+     */
+    public enum Phase {
+        /** the evaluation started; duration is its timeout when it has one */
+        START("start", EventJournal.Level.PHASES),
+        /** the bc process is running; duration is the spawn latency */
+        SPAWNED("spawned", EventJournal.Level.PHASES),
+        /** all input reached bc's stdin; duration since spawn, stdin size */
+        STDIN_DONE("stdin-done", EventJournal.Level.PHASES),
+        /** the evaluation finished; wall time and all sizes */
+        RESULT("result", EventJournal.Level.RESULTS),
+        /** answered from the result cache */
+        CACHE_HIT("cache-hit", EventJournal.Level.RESULTS),
+        /** bc wrote to stderr; detail is the message */
+        STDERR("stderr", EventJournal.Level.ERRORS),
+        /** bc was stopped by a resource limit; detail names it */
+        LIMIT("limit", EventJournal.Level.ERRORS),
+        /** the evaluation exceeded its deadline; duration is the timeout */
+        TIMEOUT("timeout", EventJournal.Level.ERRORS);
+
+        private final String jsonName;
+        private final EventJournal.Level level;
+
+        Phase(String jsonName, EventJournal.Level level) {
+            this.jsonName = jsonName;
+            this.level = level;
+        }
+
+        public String jsonName() {
+            return jsonName;
+        }
+
+        public EventJournal.Level level() {
+            return level;
+        }
+    }
+
+    private final long timestampMillis;
+    private final long evaluation;
+    private final String caseId;
+    private final Phase phase;
+    private final long nanos;
+    private final long stdinBytes;
+    private final long stdoutBytes;
+    private final long stderrBytes;
+    private final String detail;
+
+    public EvaluationEvent(long timestampMillis, long evaluation, String caseId, Phase phase, long nanos,
+                           long stdinBytes, long stdoutBytes, long stderrBytes, String detail) {
+        this.timestampMillis = timestampMillis;
+        this.evaluation = evaluation;
+        this.caseId = caseId;
+        this.phase = phase;
+        this.nanos = nanos;
+        this.stdinBytes = stdinBytes;
+        this.stdoutBytes = stdoutBytes;
+        this.stderrBytes = stderrBytes;
+        this.detail = detail;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return number of the evaluation within this JVM, shared by all of its phases
+     */
+    public long getEvaluation() {
+        return evaluation;
+    }
+
+    public String getCaseId() {
+        return caseId;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getStdinBytes() {
+        return stdinBytes;
+    }
+
+    public long getStdoutBytes() {
+        return stdoutBytes;
+    }
+
+    public long getStderrBytes() {
+        return stderrBytes;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @param maxDetailChars longer details are cut to this length
+     * @return the event as one line of JSON, without the line break
+     */
+    public String toJson(int maxDetailChars) {
+        StringBuilder json = new StringBuilder(160)
+                .append("{\"ts\":").append(timestampMillis)
+                .append(",\"eval\":").append(evaluation)
+                .append(",\"case\":");
+        appendString(json, caseId == null ? "" : caseId, Integer.MAX_VALUE);
+        json.append(",\"phase\":\"").append(phase.jsonName()).append('"');
+        appendLong(json, "nanos", nanos);
+        appendLong(json, "stdinBytes", stdinBytes);
+        appendLong(json, "stdoutBytes", stdoutBytes);
+        appendLong(json, "stderrBytes", stderrBytes);
+        if (detail != null && !detail.isEmpty()) {
+            json.append(",\"detail\":");
+            appendString(json, detail, maxDetailChars);
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendLong(StringBuilder json, String name, long value) {
+        if (value != UNSET) {
+            json.append(",\"").append(name).append("\":").append(value);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value, int maxChars) {
+        json.append('"');
+        int length = Math.min(value.length(), maxChars);
+        if (length < value.length() && length > 0 && Character.isHighSurrogate(value.charAt(length - 1))) {
+            length--;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        if (value.length() > maxChars) {
+            json.append("...");
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,285 @@
+package calculator.journal;
+
+import calculator.EvaluationResult;
+import calculator.journal.EvaluationEvent.Phase;
+import calculator.metrics.EvaluationMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Journal of {@link EvaluationEvent}s, written as JSON lines by a background thread so that the
+ * evaluation path never waits for I/O.
+ * <p>
+ * Recording an event only builds it and offers it to a bounded ring buffer. When the writer falls
+ * behind and the buffer is full, the event is dropped and counted rather than blocking the
+ * evaluation. The {@link Level} decides which phases are kept; results and phases of an evaluation
+ * can be sampled, errors never are. Whether an evaluation is sampled depends on its number alone,
+ * so its phases are kept or skipped together.
+ * <p>
+ * The shared journal is configured by system properties: {@code bc.journal.level} (off, errors,
+ * results, phases; default results), {@code bc.journal.sample} (fraction of evaluations, default
+ * 1), {@code bc.journal.capacity} (buffered events, default 65536) and {@code bc.journal.file}
+ * (default {@code build/bc-journal.jsonl}, replaced on every run). It is flushed when the JVM exits.
+ */
+public final class EventJournal implements AutoCloseable {
+
+    public static final String FILE_NAME = "bc-journal.jsonl";
+
+    private static final int MAX_DETAIL_CHARS = 500;
+    private static final int WRITE_BATCH = 1024;
+    private static final long CLOSE_WAIT_MS = 5_000;
+
+    /**
+     * Phases are kept from their own level up: {@code RESULTS} also keeps errors.
+     */
+    public enum Level {
+        OFF, ERRORS, RESULTS, PHASES
+    }
+
+    private final Level level;
+    private final double sampleRate;
+    private final Path file;
+    private final ArrayBlockingQueue<EvaluationEvent> buffer;
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final Thread writer;
+    private volatile long written;
+    private volatile boolean closed;
+
+    /**
+     * @param file where to write the journal; {@code null} discards events, e.g. for {@link Level#OFF}
+     */
+    public EventJournal(Level level, double sampleRate, Path file, int capacity) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1, got " + sampleRate);
+        }
+        this.level = file == null ? Level.OFF : level;
+        this.sampleRate = sampleRate;
+        this.file = file;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writer = this.level == Level.OFF ? null : startWriter();
+    }
+
+    public static EventJournal shared() {
+        return Holder.JOURNAL;
+    }
+
+    /**
+     * @return a new evaluation number, to pass to every event of that evaluation
+     */
+    public long begin() {
+        return evaluations.incrementAndGet();
+    }
+
+    /**
+     * Records a phase that has a duration only.
+     */
+    public void phase(long evaluation, String caseId, Phase phase, long nanos) {
+        if (wants(evaluation, phase)) {
+            offer(new EvaluationEvent(System.currentTimeMillis(), evaluation, caseId, phase, nanos,
+                    EvaluationEvent.UNSET, EvaluationEvent.UNSET, EvaluationEvent.UNSET, null));
+        }
+    }
+
+    /**
+     * Records a phase with a duration and a size, e.g. {@link Phase#STDIN_DONE}.
+     */
+    public void phase(long evaluation, String caseId, Phase phase, long nanos, long stdinBytes) {
+        if (wants(evaluation, phase)) {
+            offer(new EvaluationEvent(System.currentTimeMillis(), evaluation, caseId, phase, nanos,
+                    stdinBytes, EvaluationEvent.UNSET, EvaluationEvent.UNSET, null));
+        }
+    }
+
+    /**
+     * Records the {@link Phase#RESULT} of an evaluation measured by {@code metrics}.
+     */
+    public void result(long evaluation, EvaluationMetrics metrics, String detail) {
+        if (wants(evaluation, Phase.RESULT)) {
+            offer(new EvaluationEvent(System.currentTimeMillis(), evaluation, metrics.getCaseId(), Phase.RESULT,
+                    metrics.getWallNanos(), metrics.getStdinBytes(), metrics.getStdoutBytes(),
+                    metrics.getStderrBytes(), detail));
+        }
+    }
+
+    /**
+     * Records the {@link Phase#RESULT} of an evaluation that was not measured, e.g. on a warm worker
+     * or the Java engine, and its error as {@link Phase#STDERR} if it has one. Output sizes are in
+     * normalized characters.
+     */
+    public void result(long evaluation, String caseId, long nanos, EvaluationResult result) {
+        if (wants(evaluation, Phase.RESULT)) {
+            offer(new EvaluationEvent(System.currentTimeMillis(), evaluation, caseId, Phase.RESULT, nanos,
+                    EvaluationEvent.UNSET, result.getOutputLength(), EvaluationEvent.UNSET, null));
+        }
+        if (!result.isSuccess()) {
+            error(evaluation, caseId, Phase.STDERR, EvaluationEvent.UNSET, result.getError());
+        }
+    }
+
+    /**
+     * Records an error phase; {@code detail} is cut to a few hundred characters by the writer.
+     */
+    public void error(long evaluation, String caseId, Phase phase, long nanos, String detail) {
+        if (wants(evaluation, phase)) {
+            offer(new EvaluationEvent(System.currentTimeMillis(), evaluation, caseId, phase, nanos,
+                    EvaluationEvent.UNSET, EvaluationEvent.UNSET, EvaluationEvent.UNSET, detail));
+        }
+    }
+
+    /**
+     * @return whether an event of {@code phase} in {@code evaluation} would be kept; callers may
+     * skip building costly details otherwise
+     */
+    public boolean wants(long evaluation, Phase phase) {
+        if (closed || phase.level().compareTo(level) > 0) {
+            return false;
+        }
+        if (phase.level() == Level.ERRORS || sampled(evaluation)) {
+            return true;
+        }
+        sampledOut.incrementAndGet();
+        return false;
+    }
+
+    private boolean sampled(long evaluation) {
+        if (sampleRate >= 1) {
+            return true;
+        }
+        // Fibonacci hashing spreads consecutive evaluation numbers evenly over [0, 1)
+        double draw = ((evaluation * 0x9E3779B97F4A7C15L) >>> 11) * 0x1.0p-53;
+        return draw < sampleRate;
+    }
+
+    private void offer(EvaluationEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.get();
+    }
+
+    private Thread startWriter() {
+        BufferedWriter out;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open event journal " + file + ": " + e.getMessage(), e);
+        }
+        Thread thread = new Thread(() -> drain(out), "bc-journal");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Writes events in batches and flushes after each, so the file is never far behind the buffer.
+     */
+    private void drain(BufferedWriter out) {
+        List<EvaluationEvent> batch = new ArrayList<>(WRITE_BATCH);
+        try (out) {
+            while (!closed || !buffer.isEmpty()) {
+                EvaluationEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, WRITE_BATCH - 1);
+                for (EvaluationEvent event : batch) {
+                    out.write(event.toJson(MAX_DETAIL_CHARS));
+                    out.newLine();
+                }
+                out.flush();
+                written += batch.size();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            getLogger().warn("⚠️ [journal] Stopped writing {}: {}", file, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes what is still buffered, then stops the writer. Events recorded afterwards are ignored.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.join(CLOSE_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return one human-readable line on what the journal kept and lost
+     */
+    public String summary() {
+        if (level == Level.OFF) {
+            return "off";
+        }
+        return String.format(Locale.ROOT, "%d events of %d evaluations written to %s (level %s, sample %.2f),"
+                        + " %d sampled out, %d dropped on a full buffer", written, evaluations.get(), file,
+                level.name().toLowerCase(Locale.ROOT), sampleRate, sampledOut.get(), dropped.get());
+    }
+
+    private static final class Holder {
+        private static final EventJournal JOURNAL = fromSystemProperties();
+
+        private static EventJournal fromSystemProperties() {
+            Level level = Level.valueOf(System.getProperty("bc.journal.level", "results").toUpperCase(Locale.ROOT));
+            double sampleRate = Double.parseDouble(System.getProperty("bc.journal.sample", "1"));
+            int capacity = Integer.getInteger("bc.journal.capacity", 65_536);
+            Path file = Path.of(System.getProperty("bc.journal.file", "build/" + FILE_NAME));
+            EventJournal journal = new EventJournal(level, sampleRate, level == Level.OFF ? null : file, capacity);
+            if (journal.getLevel() != Level.OFF) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    journal.close();
+                    getLogger().info("📒 [journal] {}", journal.summary());
+                }, "bc-journal-shutdown"));
+            }
+            return journal;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package calculator.limits;
+
+/**
+ * A per-process limit that stopped bc.
+ */
+public enum ResourceLimit {
+    MEMORY("address space"),
+    CPU_TIME("CPU time"),
+    FILE_SIZE("file size"),
+    OUTPUT_SIZE("output size");
+
+    private final String description;
+
+    ResourceLimit(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
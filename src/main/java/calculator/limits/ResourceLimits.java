@@ -0,0 +1,232 @@
+package calculator.limits;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-process limits for bc: address space, CPU seconds, file size and stdout size.
+ * <p>
+ * The first three are kernel rlimits, applied by starting bc through {@code prlimit}, or through
+ * {@code sh -c 'ulimit ...; exec bc'} where prlimit is missing. Both exec bc in place, so the limits
+ * bind bc itself and killing the process kills bc. The kernel does not apply the file size limit
+ * to pipes, so stdout is capped separately by {@link #capOutput(InputStream, Runnable)}.
+ * <p>
+ * Profiles are chosen with {@code -Dbc.limits=none|standard|strict} (default {@code none}); single
+ * limits can be overridden with {@code bc.limits.memoryMb}, {@code bc.limits.cpuSeconds},
+ * {@code bc.limits.fileSizeMb} and {@code bc.limits.outputMb}. A value of 0 means unlimited.
+ */
+public class ResourceLimits {
+
+    public static final ResourceLimits NONE = new ResourceLimits("none", 0, 0, 0, 0);
+    public static final ResourceLimits STANDARD = new ResourceLimits("standard", 1024L << 20, 10, 64L << 20, 64L << 20);
+    public static final ResourceLimits STRICT = new ResourceLimits("strict", 256L << 20, 2, 8L << 20, 8L << 20);
+
+    private static final int SIGXCPU_EXIT = 128 + 24;
+    private static final int SIGXFSZ_EXIT = 128 + 25;
+    private static final List<String> OUT_OF_MEMORY_MESSAGES = List.of(
+            "out of memory", "memory exhausted", "memory allocation", "cannot allocate");
+    private static final String PRLIMIT = findOnPath("prlimit");
+
+    private final String name;
+    private final long addressSpaceBytes;
+    private final long cpuSeconds;
+    private final long fileSizeBytes;
+    private final long outputBytes;
+
+    public ResourceLimits(String name, long addressSpaceBytes, long cpuSeconds, long fileSizeBytes, long outputBytes) {
+        this.name = name;
+        this.addressSpaceBytes = addressSpaceBytes;
+        this.cpuSeconds = cpuSeconds;
+        this.fileSizeBytes = fileSizeBytes;
+        this.outputBytes = outputBytes;
+    }
+
+    public static ResourceLimits fromSystemProperties() {
+        String profile = System.getProperty("bc.limits", "none").trim().toLowerCase(Locale.ROOT);
+        ResourceLimits base = switch (profile) {
+            case "none" -> NONE;
+            case "standard" -> STANDARD;
+            case "strict" -> STRICT;
+            default -> throw new IllegalArgumentException(
+                    "Unknown bc.limits profile '" + profile + "', expected none, standard or strict");
+        };
+        return new ResourceLimits(profile,
+                Long.getLong("bc.limits.memoryMb", base.addressSpaceBytes >> 20) << 20,
+                Long.getLong("bc.limits.cpuSeconds", base.cpuSeconds),
+                Long.getLong("bc.limits.fileSizeMb", base.fileSizeBytes >> 20) << 20,
+                Long.getLong("bc.limits.outputMb", base.outputBytes >> 20) << 20);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAddressSpaceBytes() {
+        return addressSpaceBytes;
+    }
+
+    public long getCpuSeconds() {
+        return cpuSeconds;
+    }
+
+    public long getFileSizeBytes() {
+        return fileSizeBytes;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public boolean isUnlimited() {
+        return addressSpaceBytes == 0 && cpuSeconds == 0 && fileSizeBytes == 0 && outputBytes == 0;
+    }
+
+    /**
+     * @return {@code command} prefixed so that it starts with this profile's rlimits applied
+     */
+    public List<String> wrap(List<String> command) {
+        if (addressSpaceBytes == 0 && cpuSeconds == 0 && fileSizeBytes == 0) {
+            return command;
+        }
+        List<String> wrapped = new ArrayList<>();
+        if (PRLIMIT != null) {
+            wrapped.add(PRLIMIT);
+            if (addressSpaceBytes > 0) {
+                wrapped.add("--as=" + addressSpaceBytes);
+            }
+            if (cpuSeconds > 0) {
+                // SIGXCPU at the soft limit; the hard limit one second later is SIGKILL
+                wrapped.add("--cpu=" + cpuSeconds + ":" + (cpuSeconds + 1));
+            }
+            if (fileSizeBytes > 0) {
+                wrapped.add("--fsize=" + fileSizeBytes);
+            }
+            wrapped.addAll(command);
+            return wrapped;
+        }
+        StringBuilder script = new StringBuilder();
+        if (addressSpaceBytes > 0) {
+            script.append("ulimit -v ").append(addressSpaceBytes / 1024).append(" && ");
+        }
+        if (cpuSeconds > 0) {
+            script.append("ulimit -S -t ").append(cpuSeconds)
+                    .append(" && ulimit -H -t ").append(cpuSeconds + 1).append(" && ");
+        }
+        if (fileSizeBytes > 0) {
+            script.append("ulimit -f ").append(fileSizeBytes / 512).append(" && ");
+        }
+        script.append("exec \"$@\"");
+        wrapped.addAll(List.of("sh", "-c", script.toString(), "sh"));
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * Passes the first {@link #getOutputBytes()} bytes of {@code stdout} through. Once bc has
+     * written more, the read after the one that reached the cap runs {@code onExceeded} once and
+     * reports end of stream.
+     */
+    public InputStream capOutput(InputStream stdout, Runnable onExceeded) {
+        if (outputBytes == 0) {
+            return stdout;
+        }
+        return new FilterInputStream(stdout) {
+            private long remaining = outputBytes;
+            private boolean exceeded;
+            private boolean reported;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (exceeded) {
+                    if (!reported) {
+                        reported = true;
+                        onExceeded.run();
+                    }
+                    return -1;
+                }
+                int read = super.read(bytes, offset, length);
+                if (read > remaining) {
+                    // the part of this read still under the cap is output like any other
+                    int kept = (int) remaining;
+                    remaining = 0;
+                    exceeded = true;
+                    return kept > 0 ? kept : read(bytes, offset, length);
+                }
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Tells from how bc ended whether one of the rlimits stopped it.
+     *
+     * @return the limit that was hit, or {@code null} if bc ended on its own
+     */
+    public ResourceLimit classify(int exitCode, String stderr) {
+        if (cpuSeconds > 0 && exitCode == SIGXCPU_EXIT) {
+            return ResourceLimit.CPU_TIME;
+        }
+        if (fileSizeBytes > 0 && exitCode == SIGXFSZ_EXIT) {
+            return ResourceLimit.FILE_SIZE;
+        }
+        if (addressSpaceBytes > 0 && stderr != null) {
+            String lower = stderr.toLowerCase(Locale.ROOT);
+            if (OUT_OF_MEMORY_MESSAGES.stream().anyMatch(lower::contains)) {
+                return ResourceLimit.MEMORY;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return e.g. "CPU time limit of 2s"
+     */
+    public String describe(ResourceLimit limit) {
+        return limit.getDescription() + " limit of " + switch (limit) {
+            case MEMORY -> (addressSpaceBytes >> 20) + "MB";
+            case CPU_TIME -> cpuSeconds + "s";
+            case FILE_SIZE -> (fileSizeBytes >> 20) + "MB";
+            case OUTPUT_SIZE -> (outputBytes >> 20) + "MB";
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name + " (address space " + mb(addressSpaceBytes) + ", CPU " + (cpuSeconds == 0 ? "unlimited" : cpuSeconds + "s")
+                + ", file size " + mb(fileSizeBytes) + ", output " + mb(outputBytes) + ")";
+    }
+
+    private static String mb(long bytes) {
+        return bytes == 0 ? "unlimited" : (bytes >> 20) + "MB";
+    }
+
+    private static String findOnPath(String executable) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            Path candidate = Path.of(directory.isEmpty() ? "." : directory, executable);
+            if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                return candidate.toString();
+            }
+        }
+        return null;
+    }
+}
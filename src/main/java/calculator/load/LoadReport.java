@@ -0,0 +1,231 @@
+package calculator.load;
+
+import calculator.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a load sweep: throughput and latency percentiles per level and case type.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+    /**
+     * A level whose throughput is within this fraction of the best one counts as saturated: adding
+     * load there no longer buys throughput, only latency.
+     */
+    private static final double SATURATION = 0.95;
+
+    private final String mode;
+    private final String mix;
+    private final List<Level> levels;
+
+    public LoadReport(String mode, String mix, List<Level> levels) {
+        this.mode = mode;
+        this.mix = mix;
+        this.levels = List.copyOf(levels);
+    }
+
+    /**
+     * @return {@code closed} (levels are concurrent clients) or {@code open} (levels are target QPS)
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public List<Level> getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return the lowest level reaching 95% of the best throughput, or {@code null} without levels
+     */
+    public Level saturationPoint() {
+        double best = levels.stream().mapToDouble(Level::throughput).max().orElse(0);
+        return levels.stream().filter(level -> level.throughput() >= best * SATURATION).findFirst().orElse(null);
+    }
+
+    /**
+     * @return one line per level and case type, latencies in milliseconds
+     */
+    public String table() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%8s  %-28s %9s %8s %8s %8s %8s %8s %8s %6s %6s%n", mode.equals("open") ? "qps" : "clients",
+                "case type", "req/s", PERCENTILE_NAMES[0], PERCENTILE_NAMES[1], PERCENTILE_NAMES[2],
+                PERCENTILE_NAMES[3], "max", "count", "t/o", "fail"));
+        for (Level level : levels) {
+            for (Map.Entry<String, TypeStats> type : level.getTypes().entrySet()) {
+                table.append(row(level, type.getKey(), type.getValue()));
+            }
+            table.append(row(level, "all" + (level.getMissed() > 0 ? " (" + level.getMissed() + " missed)" : ""),
+                    level.total()));
+        }
+        return table.toString();
+    }
+
+    private static String row(Level level, String type, TypeStats stats) {
+        LatencyHistogram latencies = stats.getLatencyMicros();
+        return String.format(Locale.ROOT, "%8d  %-28s %9.1f %8s %8s %8s %8s %8s %8d %6d %6d%n",
+                level.getLevel(), type, stats.getCompleted() / seconds(level.getMeasured()),
+                millis(latencies.percentile(PERCENTILES[0])), millis(latencies.percentile(PERCENTILES[1])),
+                millis(latencies.percentile(PERCENTILES[2])), millis(latencies.percentile(PERCENTILES[3])),
+                millis(latencies.getMax()), stats.getCompleted(), stats.getTimeouts(), stats.getFailures());
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.2f", micros / 1000.0);
+    }
+
+    private static double seconds(Duration duration) {
+        return Math.max(1, duration.toNanos()) / 1e9;
+    }
+
+    /**
+     * @return the report as nested maps and lists, for writing as JSON
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("mix", mix);
+        List<Object> levelList = new ArrayList<>();
+        for (Level level : levels) {
+            Map<String, Object> levelMap = new LinkedHashMap<>();
+            levelMap.put("level", level.getLevel());
+            levelMap.put("measuredMs", level.getMeasured().toMillis());
+            levelMap.put("throughput", level.throughput());
+            levelMap.put("missed", level.getMissed());
+            Map<String, Object> types = new LinkedHashMap<>();
+            level.getTypes().forEach((type, stats) -> types.put(type, statsMap(level, stats)));
+            types.put("all", statsMap(level, level.total()));
+            levelMap.put("types", types);
+            levelList.add(levelMap);
+        }
+        report.put("levels", levelList);
+        Level saturation = saturationPoint();
+        report.put("saturationLevel", saturation == null ? null : saturation.getLevel());
+        return report;
+    }
+
+    private static Map<String, Object> statsMap(Level level, TypeStats stats) {
+        LatencyHistogram latencies = stats.getLatencyMicros();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("completed", stats.getCompleted());
+        map.put("throughput", stats.getCompleted() / seconds(level.getMeasured()));
+        map.put("timeouts", stats.getTimeouts());
+        map.put("failures", stats.getFailures());
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(PERCENTILE_NAMES[i], latencies.percentile(PERCENTILES[i]));
+        }
+        percentiles.put("max", latencies.getMax());
+        map.put("latencyMicros", percentiles);
+        return map;
+    }
+
+    /**
+     * One step of the sweep: {@code level} clients or QPS, measured after the warm-up.
+     */
+    public static class Level {
+        private final int level;
+        private final Duration measured;
+        private final Map<String, TypeStats> types;
+        private final long missed;
+
+        public Level(int level, Duration measured, Map<String, TypeStats> types, long missed) {
+            this.level = level;
+            this.measured = measured;
+            this.types = types;
+            this.missed = missed;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public Duration getMeasured() {
+            return measured;
+        }
+
+        public Map<String, TypeStats> getTypes() {
+            return types;
+        }
+
+        /**
+         * @return open-loop requests that were due while the in-flight limit was reached and so
+         * never sent; always 0 for closed loops
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        public TypeStats total() {
+            TypeStats total = new TypeStats();
+            types.values().forEach(total::add);
+            return total;
+        }
+
+        /**
+         * @return completed requests per second
+         */
+        public double throughput() {
+            return total().getCompleted() / seconds(measured);
+        }
+    }
+
+    /**
+     * Latencies in microseconds and outcome counts of one case type at one level. Timeouts and
+     * failures of the tool (resource limits, exceptions) are counted apart, their latencies are
+     * recorded like any other; bc's own error messages are ordinary responses.
+     */
+    public static class TypeStats {
+        private final LatencyHistogram latencyMicros = new LatencyHistogram();
+        private long timeouts;
+        private long failures;
+
+        void record(long micros, boolean timedOut, boolean failed) {
+            latencyMicros.record(micros);
+            synchronized (this) {
+                if (timedOut) {
+                    timeouts++;
+                } else if (failed) {
+                    failures++;
+                }
+            }
+        }
+
+        void add(TypeStats other) {
+            latencyMicros.add(other.latencyMicros);
+            synchronized (this) {
+                timeouts += other.getTimeouts();
+                failures += other.getFailures();
+            }
+        }
+
+        public LatencyHistogram getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public long getCompleted() {
+            return latencyMicros.getCount();
+        }
+
+        public synchronized long getTimeouts() {
+            return timeouts;
+        }
+
+        public synchronized long getFailures() {
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package calculator.load;
+
+import calculator.CalculatorTool;
+import calculator.EvaluationOutcome;
+import calculator.EvaluationResult;
+import calculator.load.LoadReport.Level;
+import calculator.load.LoadReport.TypeStats;
+import model.TestCaseData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Replays a {@link WorkloadMix} against a {@link CalculatorTool} at increasing load levels, each
+ * warmed up before it is measured:
+ * <ul>
+ *     <li>closed loop — a level is a number of clients, each sending its next request as soon as
+ *     the previous one is answered; latency is measured from send to answer</li>
+ *     <li>open loop — a level is a target rate; requests are due on a fixed schedule whatever the
+ *     answers, and latency is measured from when a request was due, so queueing behind slow
+ *     answers is counted rather than hidden. Requests due while {@code maxInFlight} are
+ *     outstanding are not sent and reported as missed</li>
+ * </ul>
+ */
+public class LoadRunner {
+
+    public static final Duration DEFAULT_WARMUP = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_DURATION = Duration.ofSeconds(20);
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    private final CalculatorTool calculator;
+    private final WorkloadMix mix;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadRunner(CalculatorTool calculator, WorkloadMix mix, Duration warmup, Duration duration) {
+        if (warmup.isNegative() || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Warm-up must not be negative and duration must be positive, got "
+                    + warmup + " and " + duration);
+        }
+        this.calculator = calculator;
+        this.mix = mix;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    /**
+     * @return the default closed-loop sweep: powers of two up to twice the number of cores
+     */
+    public static List<Integer> defaultClientCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (int clients = 1; clients <= 2 * Runtime.getRuntime().availableProcessors(); clients *= 2) {
+            counts.add(clients);
+        }
+        return counts;
+    }
+
+    public LoadReport closedLoop(List<Integer> clientCounts) {
+        List<Level> levels = new ArrayList<>();
+        for (int clients : clientCounts) {
+            getLogger().info("🏋️ [load] {} clients: {}s warm-up, {}s measured, mix {}", clients,
+                    warmup.toSeconds(), duration.toSeconds(), mix);
+            levels.add(logged(closedLevel(clients)));
+        }
+        return new LoadReport("closed", mix.toString(), levels);
+    }
+
+    public LoadReport openLoop(List<Integer> targetQps, int maxInFlight) {
+        List<Level> levels = new ArrayList<>();
+        for (int qps : targetQps) {
+            getLogger().info("🏋️ [load] {} requests/s: {}s warm-up, {}s measured, at most {} in flight, mix {}",
+                    qps, warmup.toSeconds(), duration.toSeconds(), maxInFlight, mix);
+            levels.add(logged(openLevel(qps, maxInFlight)));
+        }
+        return new LoadReport("open", mix.toString(), levels);
+    }
+
+    private Level closedLevel(int clients) {
+        if (clients < 1) {
+            throw new IllegalArgumentException("Clients must be positive, got " + clients);
+        }
+        TypeStats[] stats = newStats();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < measureUntil) {
+                        int type = mix.nextType();
+                        TestCaseData testCase = mix.newCase(type);
+                        long sent = System.nanoTime();
+                        EvaluationResult result = evaluate(testCase);
+                        long answered = System.nanoTime();
+                        if (sent >= measureFrom && answered <= measureUntil) {
+                            record(stats[type], answered - sent, result);
+                        }
+                    }
+                });
+            }
+        }
+        return new Level(clients, duration, byType(stats), 0);
+    }
+
+    private Level openLevel(int qps, int maxInFlight) {
+        if (qps < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Target QPS and in-flight limit must be positive, got "
+                    + qps + " and " + maxInFlight);
+        }
+        TypeStats[] stats = newStats();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / qps;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        long missed = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long request = 0; ; request++) {
+                long due = start + request * interval;
+                if (due >= measureUntil) {
+                    break;
+                }
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = due >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    missed += measured ? 1 : 0;
+                    continue;
+                }
+                int type = mix.nextType();
+                executor.execute(() -> {
+                    try {
+                        EvaluationResult result = evaluate(mix.newCase(type));
+                        if (measured) {
+                            record(stats[type], System.nanoTime() - due, result);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return new Level(qps, duration, byType(stats), missed);
+    }
+
+    private EvaluationResult evaluate(TestCaseData testCase) {
+        try {
+            return calculator.evaluateWithTimeout(testCase);
+        } catch (RuntimeException e) {
+            return EvaluationResult.toolFailure("Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A resource limit hit counts as a tool failure, like a case the framework got no answer for.
+     */
+    private static void record(TypeStats stats, long nanos, EvaluationResult result) {
+        EvaluationOutcome outcome = result.getOutcome();
+        boolean timedOut = outcome == EvaluationOutcome.TIMEOUT;
+        boolean failed = outcome == EvaluationOutcome.LIMIT || outcome == EvaluationOutcome.TOOL_FAILURE;
+        stats.record(TimeUnit.NANOSECONDS.toMicros(nanos), timedOut, failed);
+    }
+
+    private TypeStats[] newStats() {
+        TypeStats[] stats = new TypeStats[mix.getTypes().size()];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new TypeStats();
+        }
+        return stats;
+    }
+
+    private Map<String, TypeStats> byType(TypeStats[] stats) {
+        Map<String, TypeStats> types = new LinkedHashMap<>();
+        for (int i = 0; i < stats.length; i++) {
+            types.put(mix.getTypes().get(i), stats[i]);
+        }
+        return types;
+    }
+
+    private static Level logged(Level level) {
+        TypeStats total = level.total();
+        getLogger().info("🏋️ [load] Level {}: {} req/s, p50 {}ms, p99 {}ms, {} timeouts, {} failures, {} missed",
+                level.getLevel(), String.format(Locale.ROOT, "%.1f", level.throughput()),
+                String.format(Locale.ROOT, "%.2f", total.getLatencyMicros().percentile(0.5) / 1000.0),
+                String.format(Locale.ROOT, "%.2f", total.getLatencyMicros().percentile(0.99) / 1000.0),
+                total.getTimeouts(), total.getFailures(), level.getMissed());
+        return level;
+    }
+}
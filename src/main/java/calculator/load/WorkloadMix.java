@@ -0,0 +1,114 @@
+package calculator.load;
+
+import model.TestCaseData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Weighted mix of case types. Each request picks a type by weight, then one of its cases uniformly.
+ */
+public class WorkloadMix {
+
+    private final List<String> types;
+    private final double[] cumulativeWeights;
+    private final List<List<Supplier<TestCaseData>>> cases;
+
+    /**
+     * @param weights relative weight per type; types missing from it are left out
+     */
+    public WorkloadMix(Map<String, List<Supplier<TestCaseData>>> caseTypes, Map<String, Double> weights) {
+        this.types = new ArrayList<>();
+        this.cases = new ArrayList<>();
+        List<Double> cumulative = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            List<Supplier<TestCaseData>> typeCases = caseTypes.get(weight.getKey());
+            if (typeCases == null || typeCases.isEmpty()) {
+                throw new IllegalArgumentException("Unknown case type '" + weight.getKey() + "', expected one of "
+                        + caseTypes.keySet());
+            }
+            if (weight.getValue() <= 0) {
+                continue;
+            }
+            total += weight.getValue();
+            types.add(weight.getKey());
+            cases.add(List.copyOf(typeCases));
+            cumulative.add(total);
+        }
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix has no case type with a positive weight");
+        }
+        this.cumulativeWeights = new double[cumulative.size()];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            cumulativeWeights[i] = cumulative.get(i) / total;
+        }
+    }
+
+    /**
+     * Builds the mix from the first {@link WorkloadSource} on the class path.
+     *
+     * @param spec {@code type=weight} pairs separated by commas, e.g.
+     *             {@code arithmeticLimitsData=3,decimalArithmeticData=1}; {@code null} or empty to
+     *             weigh all types of the source equally
+     */
+    public static WorkloadMix fromServiceLoader(String spec) {
+        WorkloadSource source = ServiceLoader.load(WorkloadSource.class).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No " + WorkloadSource.class.getName()
+                        + " on the class path; is the test jar included?"));
+        Map<String, List<Supplier<TestCaseData>>> caseTypes = source.caseTypes();
+        Map<String, Double> weights = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            caseTypes.keySet().forEach(type -> weights.put(type, 1.0));
+        } else {
+            for (String pair : spec.split(",")) {
+                String[] parts = pair.trim().split("=", 2);
+                weights.put(parts[0].trim(), parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0);
+            }
+        }
+        return new WorkloadMix(caseTypes, weights);
+    }
+
+    public List<String> getTypes() {
+        return types;
+    }
+
+    /**
+     * @return the index of a type drawn by weight, for {@link #getTypes()} and {@link #newCase(int)}
+     */
+    public int nextType() {
+        double draw = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    /**
+     * @return a fresh case of type {@code type}, drawn uniformly
+     */
+    public TestCaseData newCase(int type) {
+        List<Supplier<TestCaseData>> typeCases = cases.get(type);
+        return typeCases.get(ThreadLocalRandom.current().nextInt(typeCases.size())).get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        double previous = 0;
+        for (int i = 0; i < types.size(); i++) {
+            text.append(i == 0 ? "" : ", ").append(types.get(i))
+                    .append(String.format(Locale.ROOT, " %.0f%%", (cumulativeWeights[i] - previous) * 100));
+            previous = cumulativeWeights[i];
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package calculator.load;
+
+import model.TestCaseData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Supplies the case types a load run draws its requests from. Implementations are found through
+ * {@link java.util.ServiceLoader}; the test sources register one serving the cases of the data
+ * providers.
+ */
+public interface WorkloadSource {
+
+    /**
+     * @return factories per case type, each creating a fresh case whenever it is called
+     */
+    Map<String, List<Supplier<TestCaseData>>> caseTypes();
+}
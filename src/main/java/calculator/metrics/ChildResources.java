@@ -0,0 +1,128 @@
+package calculator.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static calculator.metrics.EvaluationMetrics.UNKNOWN;
+
+/**
+ * Samples the CPU time and peak resident set size of a child process while it runs.
+ * <p>
+ * On Linux, user and system time come from {@code /proc/<pid>/stat} and the peak RSS from
+ * {@code VmHWM} in {@code /proc/<pid>/status}; elsewhere only the total CPU time reported by
+ * {@link ProcessHandle.Info} is available. Both vanish once the JVM has reaped the process, so a
+ * virtual thread polls every {@code bc.metrics.sampleMs} milliseconds and {@link #finish()} takes a
+ * last sample when the process closes its stdout. A sample only counts if the process was still
+ * unreaped afterwards, so a recycled pid can never be measured by mistake.
+ */
+public class ChildResources {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(Long.getLong("bc.metrics.sampleMs", 10));
+    private static final long NANOS_PER_TICK = TimeUnit.SECONDS.toNanos(1) / Long.getLong("bc.metrics.clockTicks", 100);
+    private static final boolean PROCFS = Files.isDirectory(Path.of("/proc/self"));
+
+    private final Process process;
+    private final Path stat;
+    private final Path status;
+    private Thread sampler;
+    private long cpuUserNanos = UNKNOWN;
+    private long cpuSystemNanos = UNKNOWN;
+    private long cpuTotalNanos = UNKNOWN;
+    private long peakRssBytes = UNKNOWN;
+
+    private ChildResources(Process process) {
+        this.process = process;
+        this.stat = Path.of("/proc", Long.toString(process.pid()), "stat");
+        this.status = Path.of("/proc", Long.toString(process.pid()), "status");
+    }
+
+    /**
+     * Takes a first sample right away and keeps sampling until {@link #finish()}.
+     */
+    public static ChildResources watch(Process process) {
+        ChildResources resources = new ChildResources(process);
+        resources.sample();
+        resources.sampler = Thread.ofVirtual().name("bc-metrics-" + process.pid()).start(resources::poll);
+        return resources;
+    }
+
+    /**
+     * Stops polling and takes a final sample; call once the process has closed its stdout.
+     */
+    public ChildResources finish() {
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sample();
+        return this;
+    }
+
+    private void poll() {
+        try {
+            while (process.isAlive()) {
+                Thread.sleep(SAMPLE_INTERVAL);
+                sample();
+            }
+        } catch (InterruptedException ignored) {
+            // finish() takes the last sample itself
+        }
+    }
+
+    private synchronized void sample() {
+        if (!PROCFS) {
+            process.info().totalCpuDuration()
+                    .filter(cpu -> process.isAlive())
+                    .ifPresent(cpu -> cpuTotalNanos = Math.max(cpuTotalNanos, cpu.toNanos()));
+            return;
+        }
+        try {
+            String statLine = Files.readString(stat, StandardCharsets.US_ASCII);
+            long peakKib = UNKNOWN;
+            try {
+                for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                    if (line.startsWith("VmHWM:")) {
+                        peakKib = Long.parseLong(line.substring(6).replace("kB", "").trim());
+                    }
+                }
+            } catch (IOException ignored) {
+                // a zombie still has its stat but no memory details
+            }
+            if (!process.isAlive()) {
+                return;
+            }
+            // fields after the parenthesized command name start at field 3, utime and stime are 14 and 15
+            String[] fields = statLine.substring(statLine.lastIndexOf(')') + 2).split(" ");
+            cpuUserNanos = Math.max(cpuUserNanos, Long.parseLong(fields[11]) * NANOS_PER_TICK);
+            cpuSystemNanos = Math.max(cpuSystemNanos, Long.parseLong(fields[12]) * NANOS_PER_TICK);
+            cpuTotalNanos = Math.max(cpuTotalNanos, cpuUserNanos + cpuSystemNanos);
+            if (peakKib != UNKNOWN) {
+                peakRssBytes = Math.max(peakRssBytes, peakKib * 1024);
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // the process is gone already, keep what the earlier samples saw
+        }
+    }
+
+    public synchronized long getCpuUserNanos() {
+        return cpuUserNanos;
+    }
+
+    public synchronized long getCpuSystemNanos() {
+        return cpuSystemNanos;
+    }
+
+    public synchronized long getCpuTotalNanos() {
+        return cpuTotalNanos;
+    }
+
+    public synchronized long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+}
@@ -0,0 +1,122 @@
+package calculator.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings, byte counts and child-process resources of one bc evaluation. Durations are in
+ * nanoseconds; any value that could not be measured is {@link #UNKNOWN}.
+ */
+public class EvaluationMetrics {
+
+    public static final long UNKNOWN = -1;
+
+    private final String caseId;
+    private final long spawnNanos;
+    private final long stdinNanos;
+    private final long stdinBytes;
+    private final long firstStdoutByteNanos;
+    private final long wallNanos;
+    private final long stdoutBytes;
+    private final long stderrBytes;
+    private final ChildResources resources;
+
+    /**
+     * @param firstStdoutByteNanos time from starting the process until bc wrote its first byte to stdout
+     */
+    public EvaluationMetrics(String caseId, long spawnNanos, long stdinNanos, long stdinBytes,
+                             long firstStdoutByteNanos, long wallNanos, long stdoutBytes, long stderrBytes,
+                             ChildResources resources) {
+        this.caseId = caseId;
+        this.spawnNanos = spawnNanos;
+        this.stdinNanos = stdinNanos;
+        this.stdinBytes = stdinBytes;
+        this.firstStdoutByteNanos = firstStdoutByteNanos;
+        this.wallNanos = wallNanos;
+        this.stdoutBytes = stdoutBytes;
+        this.stderrBytes = stderrBytes;
+        this.resources = resources;
+    }
+
+    public String getCaseId() {
+        return caseId;
+    }
+
+    public long getSpawnNanos() {
+        return spawnNanos;
+    }
+
+    public long getStdinNanos() {
+        return stdinNanos;
+    }
+
+    public long getStdinBytes() {
+        return stdinBytes;
+    }
+
+    /**
+     * @return the rate at which bc's stdin was fed in MB/s (10^6 bytes), or {@link #UNKNOWN}
+     */
+    public double getStdinMegabytesPerSecond() {
+        if (stdinNanos <= 0 || stdinBytes < 0) {
+            return UNKNOWN;
+        }
+        return stdinBytes * 1000.0 / stdinNanos;
+    }
+
+    public long getFirstStdoutByteNanos() {
+        return firstStdoutByteNanos;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getStdoutBytes() {
+        return stdoutBytes;
+    }
+
+    public long getStderrBytes() {
+        return stderrBytes;
+    }
+
+    public long getCpuUserNanos() {
+        return resources.getCpuUserNanos();
+    }
+
+    public long getCpuSystemNanos() {
+        return resources.getCpuSystemNanos();
+    }
+
+    public long getCpuTotalNanos() {
+        return resources.getCpuTotalNanos();
+    }
+
+    public long getPeakRssBytes() {
+        return resources.getPeakRssBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "case " + caseId
+                + ": wall " + millis(wallNanos)
+                + ", spawn " + millis(spawnNanos)
+                + ", stdin " + stdinBytes + " B in " + millis(stdinNanos) + " (" + megabytesPerSecond() + ")"
+                + ", first stdout byte after " + millis(firstStdoutByteNanos)
+                + ", stdout " + stdoutBytes + " B, stderr " + stderrBytes + " B"
+                + ", cpu " + millis(getCpuUserNanos()) + " user / " + millis(getCpuSystemNanos()) + " sys"
+                + ", peak RSS " + (getPeakRssBytes() == UNKNOWN ? "n/a" : getPeakRssBytes() / 1024 + " KiB");
+    }
+
+    private String megabytesPerSecond() {
+        double rate = getStdinMegabytesPerSecond();
+        return rate == UNKNOWN ? "n/a" : String.format(Locale.ROOT, "%.1f MB/s", rate);
+    }
+
+    static String millis(long nanos) {
+        if (nanos == UNKNOWN) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%.2fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
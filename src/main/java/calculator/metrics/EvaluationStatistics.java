@@ -0,0 +1,199 @@
+package calculator.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Aggregates {@link EvaluationMetrics} per test group into {@link Histogram}s.
+ * <p>
+ * The groups are those of the test that is currently running, set by the test base class. They are
+ * inherited by the threads a test starts, so evaluations running on virtual threads are attributed
+ * to the test that started them. A case of a test in several groups is counted in each of them;
+ * evaluations outside any test go to {@value #UNGROUPED}. The summary is logged when the JVM exits.
+ */
+public final class EvaluationStatistics {
+
+    public static final String UNGROUPED = "ungrouped";
+
+    private static final InheritableThreadLocal<List<String>> CURRENT_GROUPS = new InheritableThreadLocal<>();
+    private static final Map<String, GroupStatistics> GROUPS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean SUMMARY_HOOK = new AtomicBoolean();
+
+    private EvaluationStatistics() {
+    }
+
+    public static void setCurrentGroups(String... groups) {
+        CURRENT_GROUPS.set(groups.length == 0 ? null : List.of(groups));
+    }
+
+    public static void clearCurrentGroups() {
+        CURRENT_GROUPS.remove();
+    }
+
+    public static void record(EvaluationMetrics metrics) {
+        List<String> groups = CURRENT_GROUPS.get();
+        for (String group : groups == null ? List.of(UNGROUPED) : groups) {
+            GROUPS.computeIfAbsent(group, GroupStatistics::new).record(metrics);
+        }
+        if (SUMMARY_HOOK.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> getLogger().info("📊 [metrics] Evaluation costs per group:\n{}", summary()),
+                    "bc-metrics-summary"));
+        }
+    }
+
+    public static GroupStatistics forGroup(String group) {
+        return GROUPS.get(group);
+    }
+
+    public static List<GroupStatistics> groups() {
+        List<GroupStatistics> groups = new ArrayList<>(GROUPS.values());
+        groups.sort((a, b) -> a.getGroup().compareTo(b.getGroup()));
+        return groups;
+    }
+
+    /**
+     * @return one block per group with count, mean, p50, p90, p99 and max of every metric
+     */
+    public static String summary() {
+        StringBuilder text = new StringBuilder();
+        for (GroupStatistics group : groups()) {
+            text.append(group).append('\n');
+        }
+        return text.toString();
+    }
+
+    public static void reset() {
+        GROUPS.clear();
+    }
+
+    /**
+     * Histograms of one group; times are recorded in microseconds, sizes in bytes.
+     */
+    public static class GroupStatistics {
+        /**
+         * Feeding throughput is only meaningful, and only recorded, for inputs of at least this size.
+         */
+        static final long BULK_INPUT_BYTES = 1 << 20;
+
+        private final String group;
+        private final Histogram wallMicros = new Histogram();
+        private final Histogram spawnMicros = new Histogram();
+        private final Histogram stdinMicros = new Histogram();
+        private final Histogram firstStdoutByteMicros = new Histogram();
+        private final Histogram cpuUserMicros = new Histogram();
+        private final Histogram cpuSystemMicros = new Histogram();
+        private final Histogram peakRssBytes = new Histogram();
+        private final Histogram stdinBytes = new Histogram();
+        private final Histogram stdinMegabytesPerSecond = new Histogram();
+        private final Histogram stdoutBytes = new Histogram();
+        private final Histogram stderrBytes = new Histogram();
+
+        GroupStatistics(String group) {
+            this.group = group;
+        }
+
+        void record(EvaluationMetrics metrics) {
+            wallMicros.record(micros(metrics.getWallNanos()));
+            spawnMicros.record(micros(metrics.getSpawnNanos()));
+            stdinMicros.record(micros(metrics.getStdinNanos()));
+            firstStdoutByteMicros.record(micros(metrics.getFirstStdoutByteNanos()));
+            cpuUserMicros.record(micros(metrics.getCpuUserNanos()));
+            cpuSystemMicros.record(micros(metrics.getCpuSystemNanos()));
+            peakRssBytes.record(metrics.getPeakRssBytes());
+            stdinBytes.record(metrics.getStdinBytes());
+            if (metrics.getStdinBytes() >= BULK_INPUT_BYTES) {
+                stdinMegabytesPerSecond.record(Math.round(metrics.getStdinMegabytesPerSecond()));
+            }
+            stdoutBytes.record(metrics.getStdoutBytes());
+            stderrBytes.record(metrics.getStderrBytes());
+        }
+
+        private static long micros(long nanos) {
+            return nanos == EvaluationMetrics.UNKNOWN ? nanos : TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public Histogram getWallMicros() {
+            return wallMicros;
+        }
+
+        public Histogram getSpawnMicros() {
+            return spawnMicros;
+        }
+
+        public Histogram getStdinMicros() {
+            return stdinMicros;
+        }
+
+        public Histogram getFirstStdoutByteMicros() {
+            return firstStdoutByteMicros;
+        }
+
+        public Histogram getCpuUserMicros() {
+            return cpuUserMicros;
+        }
+
+        public Histogram getCpuSystemMicros() {
+            return cpuSystemMicros;
+        }
+
+        public Histogram getPeakRssBytes() {
+            return peakRssBytes;
+        }
+
+        public Histogram getStdinBytes() {
+            return stdinBytes;
+        }
+
+        /**
+         * @return stdin throughput of the evaluations with at least 1 MiB of input
+         */
+        public Histogram getStdinMegabytesPerSecond() {
+            return stdinMegabytesPerSecond;
+        }
+
+        public Histogram getStdoutBytes() {
+            return stdoutBytes;
+        }
+
+        public Histogram getStderrBytes() {
+            return stderrBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + group + "] " + wallMicros.getCount() + " evaluations\n"
+                    + row("wall (µs)", wallMicros)
+                    + row("spawn (µs)", spawnMicros)
+                    + row("stdin (µs)", stdinMicros)
+                    + row("first byte (µs)", firstStdoutByteMicros)
+                    + row("cpu user (µs)", cpuUserMicros)
+                    + row("cpu sys (µs)", cpuSystemMicros)
+                    + row("peak RSS (B)", peakRssBytes)
+                    + row("stdin (B)", stdinBytes)
+                    + row("stdin (MB/s)", stdinMegabytesPerSecond)
+                    + row("stdout (B)", stdoutBytes)
+                    + row("stderr (B)", stderrBytes);
+        }
+
+        private static String row(String name, Histogram histogram) {
+            if (histogram.getCount() == 0) {
+                return String.format(Locale.ROOT, "  %-16s n/a%n", name);
+            }
+            return String.format(Locale.ROOT, "  %-16s n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d%n",
+                    name, histogram.getCount(), histogram.getMean(), histogram.percentile(0.5),
+                    histogram.percentile(0.9), histogram.percentile(0.99), histogram.getMax());
+        }
+    }
+}
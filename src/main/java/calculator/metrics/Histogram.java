@@ -0,0 +1,74 @@
+package calculator.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values in power-of-two buckets: bucket {@code i} counts values whose
+ * highest set bit is {@code i - 1}. Percentiles are reported as the upper bound of their bucket,
+ * capped at the largest value seen, so they are accurate to within a factor of two.
+ */
+public class Histogram {
+
+    private final long[] buckets = new long[65];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public synchronized void record(long value) {
+        if (value < 0) {
+            return;
+        }
+        buckets[64 - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public synchronized double getMean() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.99
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long upperBound = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.max(min, Math.min(upperBound, max));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return counts per bucket, from the bucket of 0 up to the highest non-empty one
+     */
+    public synchronized long[] getBuckets() {
+        int last = buckets.length - 1;
+        while (last > 0 && buckets[last] == 0) {
+            last--;
+        }
+        return Arrays.copyOf(buckets, last + 1);
+    }
+}
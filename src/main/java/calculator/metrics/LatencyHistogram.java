@@ -0,0 +1,116 @@
+package calculator.metrics;
+
+/**
+ * Histogram of non-negative values with a bounded relative error, laid out like HdrHistogram:
+ * values below {@code 2^7} have a bucket each, and every higher power-of-two range is split into
+ * 64 equal sub-buckets. A percentile is reported as the highest value of its bucket, capped at the
+ * largest value seen, so it is at most 1/64 (about 1.6%) above the exact one whatever the range.
+ * <p>
+ * Memory is fixed at about 30 KB however many values are recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int PRECISION_BITS = 7;
+    private static final int EXACT = 1 << PRECISION_BITS;
+    private static final int SUB_BUCKETS = EXACT >> 1;
+    private static final int BUCKETS = EXACT + (63 - PRECISION_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public synchronized void record(long value) {
+        if (value < 0) {
+            return;
+        }
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values recorded by {@code other}.
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherCount;
+        long otherSum;
+        long otherMin;
+        long otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherCount = other.count;
+            otherSum = other.sum;
+            otherMin = other.min;
+            otherMax = other.max;
+        }
+        synchronized (this) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += otherCounts[i];
+            }
+            count += otherCount;
+            sum += otherSum;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public synchronized double getMean() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(highestValueIn(i), max));
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - PRECISION_BITS + 1;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return EXACT + (exponent - PRECISION_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueIn(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int offset = index - EXACT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long mantissa = SUB_BUCKETS + offset % SUB_BUCKETS;
+        long next = (mantissa + 1) << shift;
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
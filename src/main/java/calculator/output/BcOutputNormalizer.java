@@ -0,0 +1,72 @@
+package calculator.output;
+
+/**
+ * Single-pass filter between a bc stream and an {@link OutputSink}: drops line breaks and the
+ * backslash-newline continuations bc inserts every 70 columns. Chunks are compacted in place, so
+ * nothing is copied before it reaches the sink.
+ */
+public class BcOutputNormalizer {
+
+    private static final char[] BACKSLASH = {'\\'};
+    private static final char[] NEWLINE = {'\n'};
+
+    private final OutputSink sink;
+    private boolean pendingBackslash;
+
+    public BcOutputNormalizer(OutputSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Normalizes {@code chars[offset, offset + length)}. The array contents are modified.
+     */
+    public void write(char[] chars, int offset, int length) {
+        int write = offset;
+        int end = offset + length;
+        for (int read = offset; read < end; read++) {
+            char c = chars[read];
+            if (c == '\r') {
+                continue;
+            }
+            if (pendingBackslash) {
+                pendingBackslash = false;
+                if (c == '\n') {
+                    continue;
+                }
+                if (read == offset) {
+                    // the backslash ended the previous chunk, nothing is compacted yet
+                    sink.write(BACKSLASH, 0, 1);
+                } else {
+                    chars[write++] = '\\';
+                }
+            }
+            if (c == '\\') {
+                pendingBackslash = true;
+            } else if (c != '\n') {
+                chars[write++] = c;
+            }
+        }
+        if (write > offset) {
+            sink.write(chars, offset, write - offset);
+        }
+    }
+
+    /**
+     * Feeds one line that was already split off the stream, e.g. by {@code readLine()}.
+     */
+    public void writeLine(String line) {
+        char[] chars = line.toCharArray();
+        write(chars, 0, chars.length);
+        write(NEWLINE, 0, 1);
+    }
+
+    /**
+     * Emits a trailing backslash that turned out not to start a continuation.
+     */
+    public void finish() {
+        if (pendingBackslash) {
+            pendingBackslash = false;
+            sink.write(BACKSLASH, 0, 1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package calculator.output;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Keeps only a SHA-256 digest of the UTF-8 encoded output and its length. Surrogate pairs are
+ * encoded as one 4-byte sequence, also when a write splits them, and unpaired surrogates as
+ * {@code '?'}, so the digest equals that of {@code output.getBytes(UTF_8)}.
+ */
+public class DigestSink implements OutputSink {
+
+    private static final byte REPLACEMENT = '?';
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+    private long length;
+    private String hexDigest;
+    private char pendingHighSurrogate;
+
+    public DigestSink() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of {@code text}, computed the same way this sink digests output.
+     */
+    public static String digestOf(String text) {
+        DigestSink sink = new DigestSink();
+        char[] chars = text.toCharArray();
+        sink.write(chars, 0, chars.length);
+        return sink.getHexDigest();
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        this.length += length;
+        int end = offset + length;
+        while (offset < end) {
+            // at most 4 bytes per char: a surrogate pair completed by its low half, or a dangling
+            // high surrogate's replacement followed by a 3-byte char
+            int count = Math.min(end - offset, buffer.length / 4);
+            int bytes = 0;
+            for (int i = offset; i < offset + count; i++) {
+                char c = chars[i];
+                if (pendingHighSurrogate != 0) {
+                    char high = pendingHighSurrogate;
+                    pendingHighSurrogate = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        int codePoint = Character.toCodePoint(high, c);
+                        buffer[bytes++] = (byte) (0xF0 | (codePoint >> 18));
+                        buffer[bytes++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer[bytes++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer[bytes++] = (byte) (0x80 | (codePoint & 0x3F));
+                        continue;
+                    }
+                    buffer[bytes++] = REPLACEMENT;
+                }
+                if (c < 0x80) {
+                    buffer[bytes++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[bytes++] = (byte) (0xC0 | (c >> 6));
+                    buffer[bytes++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c)) {
+                    // its low half may only arrive with the next write
+                    pendingHighSurrogate = c;
+                } else if (Character.isLowSurrogate(c)) {
+                    buffer[bytes++] = REPLACEMENT;
+                } else {
+                    buffer[bytes++] = (byte) (0xE0 | (c >> 12));
+                    buffer[bytes++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[bytes++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            digest.update(buffer, 0, bytes);
+            offset += count;
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    public String getHexDigest() {
+        if (hexDigest == null) {
+            if (pendingHighSurrogate != 0) {
+                digest.update(REPLACEMENT);
+                pendingHighSurrogate = 0;
+            }
+            hexDigest = HexFormat.of().formatHex(digest.digest());
+        }
+        return hexDigest;
+    }
+
+    @Override
+    public String output() {
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package calculator.output;
+
+/**
+ * Keeps the complete normalized output in memory.
+ */
+public class FullCaptureSink implements OutputSink {
+
+    private final StringBuilder output = new StringBuilder();
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        output.append(chars, offset, length);
+    }
+
+    @Override
+    public long length() {
+        return output.length();
+    }
+
+    @Override
+    public String output() {
+        return output.toString();
+    }
+}
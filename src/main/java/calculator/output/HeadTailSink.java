@@ -0,0 +1,82 @@
+package calculator.output;
+
+/**
+ * Keeps the first {@code headSize} and the last {@code tailSize} characters plus the total length,
+ * so memory stays bounded however large the output gets.
+ */
+public class HeadTailSink implements OutputSink {
+
+    public static final String ELLIPSIS = "...";
+
+    private final int headSize;
+    private final StringBuilder head;
+    private final char[] tail;
+    private int tailStart;
+    private int tailLength;
+    private long length;
+
+    public HeadTailSink(int headSize, int tailSize) {
+        this.headSize = headSize;
+        this.head = new StringBuilder(headSize);
+        this.tail = new char[tailSize];
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        this.length += length;
+        int toHead = Math.min(length, headSize - head.length());
+        head.append(chars, offset, toHead);
+        offset += toHead;
+        length -= toHead;
+        if (length == 0 || tail.length == 0) {
+            return;
+        }
+        if (length >= tail.length) {
+            System.arraycopy(chars, offset + length - tail.length, tail, 0, tail.length);
+            tailStart = 0;
+            tailLength = tail.length;
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            int end = (tailStart + tailLength) % tail.length;
+            tail[end] = chars[offset + i];
+            if (tailLength < tail.length) {
+                tailLength++;
+            } else {
+                tailStart = (tailStart + 1) % tail.length;
+            }
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @return whether head and tail together still hold the whole output
+     */
+    public boolean isComplete() {
+        return length == head.length() + tailLength;
+    }
+
+    public String getHead() {
+        return head.toString();
+    }
+
+    public String getTail() {
+        StringBuilder result = new StringBuilder(tailLength);
+        for (int i = 0; i < tailLength; i++) {
+            result.append(tail[(tailStart + i) % tail.length]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the whole output when it fit, otherwise head and tail joined by {@link #ELLIPSIS}
+     */
+    @Override
+    public String output() {
+        return isComplete() ? getHead() + getTail() : getHead() + ELLIPSIS + getTail();
+    }
+}
@@ -0,0 +1,86 @@
+package calculator.output;
+
+/**
+ * An {@link OutputSink} that checks a property of the output while it streams in, without keeping
+ * the output itself. Matchers that can detect a mismatch before the end stop consuming at the first
+ * one.
+ * <p>
+ * Instances are single-use: create one per evaluation, typically through {@link OutputMatchers}.
+ */
+public abstract class OutputMatcher implements OutputSink {
+
+    private long length;
+    private String mismatch;
+    private boolean finished;
+
+    @Override
+    public final void write(char[] chars, int offset, int length) {
+        this.length += length;
+        if (mismatch == null) {
+            consume(chars, offset, length);
+        }
+    }
+
+    /**
+     * Inspects the next chunk of normalized output. Call {@link #fail(String)} on a mismatch.
+     */
+    protected abstract void consume(char[] chars, int offset, int length);
+
+    /**
+     * Final check once all output was seen.
+     *
+     * @return a mismatch description, or {@code null} if the output matched
+     */
+    protected abstract String checkEnd();
+
+    /**
+     * @return a short description of the expectation, used in mismatch messages
+     */
+    public abstract String describe();
+
+    protected final void fail(String mismatch) {
+        if (this.mismatch == null) {
+            this.mismatch = mismatch;
+        }
+    }
+
+    /**
+     * @return whether the complete output matched; must only be called once the evaluation finished
+     */
+    public boolean matches() {
+        if (!finished) {
+            finished = true;
+            if (mismatch == null) {
+                fail(checkEnd());
+            }
+        }
+        return mismatch == null;
+    }
+
+    /**
+     * @return why the output did not match, or {@code null} if it did
+     */
+    public String describeMismatch() {
+        return matches() ? null : "Expected " + describe() + ", but " + mismatch;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public String output() {
+        return null;
+    }
+
+    @Override
+    public boolean wantsMore() {
+        return mismatch == null;
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+}
@@ -0,0 +1,283 @@
+package calculator.output;
+
+import java.util.List;
+
+/**
+ * Factory methods for the streaming {@link OutputMatcher}s. All of them see the output with
+ * newlines and line continuations already removed.
+ */
+public final class OutputMatchers {
+
+    private OutputMatchers() {
+    }
+
+    /**
+     * Output must equal {@code expected}; stops at the first differing character.
+     */
+    public static OutputMatcher exactly(String expected) {
+        return new OutputMatcher() {
+            private long position;
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                for (int i = offset; i < offset + length; i++, position++) {
+                    if (position >= expected.length()) {
+                        fail("output is longer than " + expected.length() + " characters");
+                        return;
+                    }
+                    if (chars[i] != expected.charAt((int) position)) {
+                        fail("found '" + chars[i] + "' instead of '" + expected.charAt((int) position)
+                                + "' at index " + position);
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            protected String checkEnd() {
+                return position == expected.length() ? null
+                        : "output ended after " + position + " of " + expected.length() + " characters";
+            }
+
+            @Override
+            public String describe() {
+                return expected.length() > 40
+                        ? "exact output of " + expected.length() + " characters"
+                        : "exact output '" + expected + "'";
+            }
+        };
+    }
+
+    public static OutputMatcher startsWith(String prefix) {
+        return new OutputMatcher() {
+            private int position;
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                for (int i = offset; i < offset + length && position < prefix.length(); i++, position++) {
+                    if (chars[i] != prefix.charAt(position)) {
+                        fail("found '" + chars[i] + "' at index " + position);
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            protected String checkEnd() {
+                return position == prefix.length() ? null : "output has only " + position + " characters";
+            }
+
+            @Override
+            public String describe() {
+                return "output starting with '" + prefix + "'";
+            }
+        };
+    }
+
+    public static OutputMatcher endsWith(String suffix) {
+        return new OutputMatcher() {
+            private final HeadTailSink tail = new HeadTailSink(0, suffix.length());
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                tail.write(chars, offset, length);
+            }
+
+            @Override
+            protected String checkEnd() {
+                String actual = tail.getTail();
+                return actual.equals(suffix) ? null : "output ends with '" + actual + "'";
+            }
+
+            @Override
+            public String describe() {
+                return "output ending with '" + suffix + "'";
+            }
+        };
+    }
+
+    /**
+     * Number of digits before the decimal point must be exactly {@code expected}. A leading minus
+     * sign is allowed; bc prints no leading zero for values below 1, so {@code .5} has 0 such digits.
+     */
+    public static OutputMatcher integerDigits(int expected) {
+        return new DigitCountMatcher(false, expected, expected);
+    }
+
+    public static OutputMatcher fractionDigits(int expected) {
+        return new DigitCountMatcher(true, expected, expected);
+    }
+
+    public static OutputMatcher fractionDigitsAtLeast(int minimum) {
+        return new DigitCountMatcher(true, minimum, Long.MAX_VALUE);
+    }
+
+    /**
+     * The fractional part must consist of {@code period} repeated, e.g. {@code "3"} for 1/3 or
+     * {@code "142857"} for 1/7. A truncated last period is fine.
+     */
+    public static OutputMatcher repeatingFraction(String period) {
+        return new OutputMatcher() {
+            private boolean inFraction;
+            private long position;
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    char c = chars[i];
+                    if (!inFraction) {
+                        inFraction = c == '.';
+                        continue;
+                    }
+                    char expected = period.charAt((int) (position % period.length()));
+                    if (c != expected) {
+                        fail("fraction digit " + position + " is '" + c + "' instead of '" + expected + "'");
+                        return;
+                    }
+                    position++;
+                }
+            }
+
+            @Override
+            protected String checkEnd() {
+                return inFraction && position > 0 ? null : "output has no fractional part";
+            }
+
+            @Override
+            public String describe() {
+                return "fraction repeating '" + period + "'";
+            }
+        };
+    }
+
+    /**
+     * SHA-256 of the normalized output must equal {@code expectedHex}, see {@link DigestSink#digestOf(String)}.
+     */
+    public static OutputMatcher sha256(String expectedHex) {
+        return new OutputMatcher() {
+            private final DigestSink digest = new DigestSink();
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                digest.write(chars, offset, length);
+            }
+
+            @Override
+            protected String checkEnd() {
+                String actual = digest.getHexDigest();
+                return actual.equalsIgnoreCase(expectedHex) ? null : "SHA-256 was " + actual;
+            }
+
+            @Override
+            public String describe() {
+                return "output with SHA-256 " + expectedHex;
+            }
+        };
+    }
+
+    /**
+     * All {@code matchers} must match; stops as soon as one of them fails.
+     */
+    public static OutputMatcher allOf(OutputMatcher... matchers) {
+        List<OutputMatcher> all = List.of(matchers);
+        return new OutputMatcher() {
+            private OutputMatcher failed;
+
+            @Override
+            protected void consume(char[] chars, int offset, int length) {
+                for (OutputMatcher matcher : all) {
+                    matcher.write(chars, offset, length);
+                    if (!matcher.wantsMore()) {
+                        failed = matcher;
+                        fail(matcher.describeMismatch());
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            protected String checkEnd() {
+                for (OutputMatcher matcher : all) {
+                    if (!matcher.matches()) {
+                        failed = matcher;
+                        return matcher.describeMismatch();
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public String describe() {
+                return all.size() == 1 ? all.get(0).describe() : "all of " + all;
+            }
+
+            @Override
+            public String describeMismatch() {
+                return matches() ? null : failed.describeMismatch();
+            }
+        };
+    }
+
+    private static final class DigitCountMatcher extends OutputMatcher {
+        private final boolean fraction;
+        private final long minimum;
+        private final long maximum;
+        private boolean afterPoint;
+        private boolean seenAny;
+        private long count;
+
+        private DigitCountMatcher(boolean fraction, long minimum, long maximum) {
+            this.fraction = fraction;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        @Override
+        protected void consume(char[] chars, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                char c = chars[i];
+                if (c == '-' && !seenAny) {
+                    seenAny = true;
+                } else if (c == '.' && !afterPoint) {
+                    seenAny = true;
+                    afterPoint = true;
+                    if (!fraction) {
+                        // the integer part is complete
+                        checkCount();
+                    }
+                } else if (Character.isDigit(c)) {
+                    seenAny = true;
+                    if (afterPoint == fraction && ++count > maximum) {
+                        fail("found more than " + maximum + " digits");
+                        return;
+                    }
+                } else {
+                    fail("found unexpected character '" + c + "'");
+                    return;
+                }
+            }
+        }
+
+        private void checkCount() {
+            if (count < minimum) {
+                fail("found " + count + " digits");
+            }
+        }
+
+        @Override
+        protected String checkEnd() {
+            return count < minimum ? "found " + count + " digits" : null;
+        }
+
+        @Override
+        public String describe() {
+            String where = fraction ? "after" : "before";
+            if (minimum == maximum) {
+                return minimum + " digits " + where + " the decimal point";
+            }
+            return maximum == Long.MAX_VALUE
+                    ? "at least " + minimum + " digits " + where + " the decimal point"
+                    : minimum + ".." + maximum + " digits " + where + " the decimal point";
+        }
+    }
+}
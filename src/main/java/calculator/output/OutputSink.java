@@ -0,0 +1,28 @@
+package calculator.output;
+
+/**
+ * Receives bc stdout in chunks, after {@link BcOutputNormalizer} removed newlines and line
+ * continuations. Implementations decide how much of the output is actually kept.
+ */
+public interface OutputSink {
+
+    void write(char[] chars, int offset, int length);
+
+    /**
+     * @return number of normalized characters written so far
+     */
+    long length();
+
+    /**
+     * @return the text exposed as the evaluation output, or {@code null} if this sink keeps no text
+     */
+    String output();
+
+    /**
+     * @return {@code false} once further output cannot change what this sink reports, e.g. after a
+     * matcher found a mismatch; the remaining output is then drained without being written here
+     */
+    default boolean wantsMore() {
+        return true;
+    }
+}
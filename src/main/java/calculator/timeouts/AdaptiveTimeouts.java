@@ -0,0 +1,171 @@
+package calculator.timeouts;
+
+import calculator.EvaluationDeadline;
+import calculator.cache.CacheKeys;
+import calculator.engine.BcEngine;
+import model.TestCaseData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Timeouts derived from how long each case took on the same tool before: the p99 of its recent
+ * completed evaluations times {@code factor}, kept between {@code floor} and {@code ceiling}.
+ * Cases with fewer than {@code minSamples} completions, such as new cases or cases that always
+ * time out, get the fallback timeout; a timeout set on the case itself always wins.
+ * <p>
+ * Configured by system properties: {@code bc.timeout.adaptive} (default {@code true}),
+ * {@code bc.timeout.factor} (3), {@code bc.timeout.floorMs} (500), {@code bc.timeout.ceilingMs}
+ * (30000), {@code bc.timeout.minSamples} (5) and {@code bc.timeout.historyFile}
+ * ({@code build/bc-latency-history.bin}). The fallback is {@code bc.timeoutMs} (2000).
+ */
+public class AdaptiveTimeouts {
+
+    private static final double PERCENTILE = 0.99;
+
+    private final LatencyHistory history;
+    private final Duration fallback;
+    private final double factor;
+    private final Duration floor;
+    private final Duration ceiling;
+    private final int minSamples;
+
+    /**
+     * @param history {@code null} to always use {@code fallback}
+     */
+    public AdaptiveTimeouts(LatencyHistory history, Duration fallback, double factor, Duration floor,
+                            Duration ceiling, int minSamples) {
+        if (floor.compareTo(ceiling) > 0) {
+            throw new IllegalArgumentException("Timeout floor " + floor + " is above the ceiling " + ceiling);
+        }
+        this.history = history;
+        this.fallback = fallback;
+        this.factor = factor;
+        this.floor = floor;
+        this.ceiling = ceiling;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * The instance configured by the system properties, shared by all calculators of the JVM.
+     * Its history is saved when the JVM exits.
+     */
+    public static AdaptiveTimeouts shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @return the identity of the {@code bc} on {@code PATH}, or {@code "bc"} if there is none
+     */
+    public static String bcTool() {
+        return BcTool.IDENTITY;
+    }
+
+    /**
+     * @return the identity of the classes of the in-process Java engine
+     */
+    public static String javaTool() {
+        return JavaTool.IDENTITY;
+    }
+
+    public LatencyHistory getHistory() {
+        return history;
+    }
+
+    public Duration timeoutFor(String tool, TestCaseData testCase) {
+        if (testCase.getTimeout() != null) {
+            return testCase.getTimeout();
+        }
+        if (history == null || tool == null) {
+            return fallback;
+        }
+        long[] samples = history.samples(tool, testCase.id());
+        if (samples.length < minSamples) {
+            return fallback;
+        }
+        long p99Micros = percentile(samples, PERCENTILE);
+        Duration adaptive = Duration.ofNanos((long) (TimeUnit.MICROSECONDS.toNanos(p99Micros) * factor));
+        Duration timeout = adaptive.compareTo(floor) < 0 ? floor : adaptive.compareTo(ceiling) > 0 ? ceiling : adaptive;
+        getLogger().debug("⏳ [timeouts] Case {}: {}ms from {} samples (p99 {}ms x {})", testCase.id(),
+                timeout.toMillis(), samples.length, String.format(Locale.ROOT, "%.1f", p99Micros / 1000.0), factor);
+        return timeout;
+    }
+
+    /**
+     * Records an evaluation of {@code testCase} that finished, successfully or not, within its
+     * timeout. Evaluations that timed out say nothing about how long the case takes, and cases
+     * with a timeout of their own never use the history, so neither is recorded.
+     */
+    public void record(String tool, TestCaseData testCase, long elapsedNanos) {
+        if (history != null && tool != null && testCase.id() != null && testCase.getTimeout() == null) {
+            history.record(tool, testCase.id(), TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+    }
+
+    /**
+     * @return the sample at rank {@code ceil(q * n)}, e.g. the largest of fewer than 100 samples for p99
+     */
+    static long percentile(long[] samples, double q) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static String identify(String tool) {
+        try {
+            return tool.equals("bc") ? CacheKeys.bcBinaryIdentity() : CacheKeys.codeIdentity(BcEngine.class);
+        } catch (RuntimeException e) {
+            getLogger().warn("⚠️ [timeouts] Cannot identify the {} tool, sharing one history for all: {}",
+                    tool, e.getMessage());
+            return tool;
+        }
+    }
+
+    private static final class BcTool {
+        static final String IDENTITY = identify("bc");
+    }
+
+    private static final class JavaTool {
+        static final String IDENTITY = identify("java");
+    }
+
+    private static final class Shared {
+        static final AdaptiveTimeouts INSTANCE = create();
+
+        private static AdaptiveTimeouts create() {
+            Duration fallback = EvaluationDeadline.DEFAULT_TIMEOUT;
+            Duration floor = Duration.ofMillis(Long.getLong("bc.timeout.floorMs", 500));
+            Duration ceiling = Duration.ofMillis(Long.getLong("bc.timeout.ceilingMs", 30_000));
+            double factor = Double.parseDouble(System.getProperty("bc.timeout.factor", "3"));
+            int minSamples = Integer.getInteger("bc.timeout.minSamples", 5);
+            if (!Boolean.parseBoolean(System.getProperty("bc.timeout.adaptive", "true"))) {
+                return new AdaptiveTimeouts(null, fallback, factor, floor, ceiling, minSamples);
+            }
+            Path file = Path.of(System.getProperty("bc.timeout.historyFile", "build/bc-latency-history.bin"));
+            LatencyHistory history;
+            try {
+                history = new LatencyHistory(file, 64, 10_000);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read latency history " + file, e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    history.save();
+                    getLogger().info("⏳ [timeouts] Saved latencies of {} cases to {}", history.caseCount(), file);
+                } catch (IOException e) {
+                    getLogger().warn("⚠️ [timeouts] Cannot save latency history {}: {}", file, e.getMessage());
+                }
+            }, "bc-latency-history"));
+            getLogger().info("⏳ [timeouts] Adaptive timeouts from {} ({} cases known)", file, history.caseCount());
+            return new AdaptiveTimeouts(history, fallback, factor, floor, ceiling, minSamples);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package calculator.timeouts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most recent completed-evaluation latencies per tool and case ID, kept in one small binary
+ * file.
+ * <p>
+ * Each case keeps at most {@code window} samples, and at most {@code maxCases} cases are kept, the
+ * ones recorded longest ago being dropped first. {@link #save()} merges this run's samples into
+ * whatever the file holds by then and replaces it atomically. The merge holds a lock on a
+ * {@code .lock} file next to the history, so runs sharing the file, such as shards, add up
+ * rather than overwrite each other.
+ */
+public class LatencyHistory {
+
+    private static final int MAGIC = 0x42434c48; // "BCLH"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final int window;
+    private final int maxCases;
+    private final Map<Key, Samples> loaded;
+    private final Map<Key, Samples> recorded = new HashMap<>();
+
+    public LatencyHistory(Path file, int window, int maxCases) throws IOException {
+        if (window < 1 || maxCases < 1) {
+            throw new IllegalArgumentException("window and maxCases must be positive, got " + window + " and " + maxCases);
+        }
+        this.file = file;
+        this.window = window;
+        this.maxCases = maxCases;
+        this.loaded = read(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void record(String tool, String caseId, long latencyMicros) {
+        recorded.computeIfAbsent(new Key(tool, caseId), key -> new Samples()).add(latencyMicros, System.currentTimeMillis());
+    }
+
+    /**
+     * @return the latencies in microseconds, oldest first, from the file as it was loaded followed
+     * by those recorded since, at most {@code window} of them
+     */
+    public synchronized long[] samples(String tool, String caseId) {
+        Key key = new Key(tool, caseId);
+        Samples merged = new Samples();
+        merged.addAll(loaded.get(key));
+        merged.addAll(recorded.get(key));
+        return merged.latest(window);
+    }
+
+    public synchronized int caseCount() {
+        Map<Key, Samples> all = new HashMap<>(loaded);
+        all.putAll(recorded);
+        return all.size();
+    }
+
+    public synchronized void save() throws IOException {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path lockFile = directory.resolve(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            merge(directory);
+        }
+        loaded.clear();
+        loaded.putAll(read(file));
+        recorded.clear();
+    }
+
+    /**
+     * Reads the file, adds this run's samples and replaces the file; callers hold the file lock.
+     */
+    private void merge(Path directory) throws IOException {
+        Map<Key, Samples> merged = read(file);
+        recorded.forEach((key, samples) -> merged.computeIfAbsent(key, k -> new Samples()).addAll(samples));
+        List<Map.Entry<Key, Samples>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<Key, Samples> entry) -> entry.getValue().lastRecordedMillis).reversed());
+
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            int count = Math.min(entries.size(), maxCases);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(count);
+            for (Map.Entry<Key, Samples> entry : entries.subList(0, count)) {
+                long[] latest = entry.getValue().latest(window);
+                out.writeUTF(entry.getKey().tool());
+                out.writeUTF(entry.getKey().caseId());
+                out.writeLong(entry.getValue().lastRecordedMillis);
+                out.writeInt(latest.length);
+                for (long micros : latest) {
+                    out.writeLong(micros);
+                }
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A missing file is an empty history; an unreadable one is started over.
+     */
+    private static Map<Key, Samples> read(Path file) throws IOException {
+        Map<Key, Samples> history = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return history;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = new Key(in.readUTF(), in.readUTF());
+                long lastRecordedMillis = in.readLong();
+                Samples samples = new Samples();
+                int length = in.readInt();
+                for (int j = 0; j < length; j++) {
+                    samples.add(in.readLong(), lastRecordedMillis);
+                }
+                history.put(key, samples);
+            }
+        } catch (NoSuchFileException e) {
+            return history;
+        } catch (EOFException e) {
+            history.clear();
+        }
+        return history;
+    }
+
+    private record Key(String tool, String caseId) {
+    }
+
+    private static final class Samples {
+        private long[] micros = new long[8];
+        private int size;
+        private long lastRecordedMillis;
+
+        void add(long latencyMicros, long recordedMillis) {
+            if (size == micros.length) {
+                micros = Arrays.copyOf(micros, size * 2);
+            }
+            micros[size++] = latencyMicros;
+            lastRecordedMillis = Math.max(lastRecordedMillis, recordedMillis);
+        }
+
+        void addAll(Samples other) {
+            if (other == null) {
+                return;
+            }
+            for (int i = 0; i < other.size; i++) {
+                add(other.micros[i], other.lastRecordedMillis);
+            }
+        }
+
+        long[] latest(int window) {
+            return Arrays.copyOfRange(micros, Math.max(0, size - window), size);
+        }
+    }
+}
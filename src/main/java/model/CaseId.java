@@ -0,0 +1,16 @@
+package model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The ID of the catalog case a test method runs, e.g. {@code @CaseId("007")}. Data providers look
+ * the case up by it, and shards and timings are keyed by it.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CaseId {
+    String value();
+}
@@ -1,6 +1,13 @@
 package model;
 
+import calculator.output.FullCaptureSink;
+import calculator.output.OutputSink;
+
 import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.function.Supplier;
 
 public class TestCaseData {
@@ -9,14 +16,26 @@ public class TestCaseData {
     private final Supplier<String> expectedOutputSupplier;
     private final String description;
     private final Supplier<Reader> streamSupplier;
+    private final Supplier<ReadableByteChannel> byteSupplier;
+    private final Duration timeout;
+    private final Supplier<OutputSink> outputSinkSupplier;
 
     public TestCaseData(String id, Supplier<String> inputSupplier, Supplier<String> expectedOutputSupplier,
                         String description, Supplier<Reader> streamSupplier) {
+        this(id, inputSupplier, expectedOutputSupplier, description, streamSupplier, null, null, FullCaptureSink::new);
+    }
+
+    private TestCaseData(String id, Supplier<String> inputSupplier, Supplier<String> expectedOutputSupplier,
+                         String description, Supplier<Reader> streamSupplier, Supplier<ReadableByteChannel> byteSupplier,
+                         Duration timeout, Supplier<OutputSink> outputSinkSupplier) {
         this.id = id;
         this.inputSupplier = inputSupplier;
         this.expectedOutputSupplier = expectedOutputSupplier;
         this.description = description;
         this.streamSupplier = streamSupplier;
+        this.byteSupplier = byteSupplier;
+        this.timeout = timeout;
+        this.outputSinkSupplier = outputSinkSupplier;
     }
 
     public TestCaseData(String id, String input, String expectedOutput, String description) {
@@ -31,16 +50,41 @@ public class TestCaseData {
         return new TestCaseData(id, null, () -> expectedOutput, description, reader);
     }
 
+    /**
+     * A case whose input is read as raw bytes, e.g. from {@code SyntheticInput.openChannel()},
+     * {@code FileChannel.open(path)} or {@code Channels.newChannel(inputStream)}. bc's stdin is fed
+     * from the channel without any charset step; calculators that need characters decode it as
+     * US-ASCII.
+     */
+    public static TestCaseData fromByteInput(String id, Supplier<ReadableByteChannel> bytes, String expectedOutput,
+                                             String description) {
+        return new TestCaseData(id, null, () -> expectedOutput, description, null, bytes, null, FullCaptureSink::new);
+    }
+
     public TestCaseData(String id, Supplier<Reader> streamSupplier, String expectedOutput, String description) {
         this(id, null, () -> expectedOutput, description, streamSupplier);
     }
 
     public TestCaseData(String id, Supplier<Reader> streamSupplier, Supplier<String> expectedOutputSupplier, String description) {
-        this.id = id;
-        this.streamSupplier = streamSupplier;
-        this.inputSupplier = null;
-        this.expectedOutputSupplier = expectedOutputSupplier;
-        this.description = description;
+        this(id, null, expectedOutputSupplier, description, streamSupplier);
+    }
+
+    /**
+     * Returns a copy of this case that {@code evaluateWithTimeout} stops after {@code timeout}
+     * instead of the default.
+     */
+    public TestCaseData withTimeout(Duration timeout) {
+        return new TestCaseData(id, inputSupplier, expectedOutputSupplier, description, streamSupplier, byteSupplier,
+                timeout, outputSinkSupplier);
+    }
+
+    /**
+     * Returns a copy of this case whose stdout goes to a fresh sink from {@code outputSinkSupplier}
+     * per evaluation, e.g. a {@code HeadTailSink} for outputs too large to keep in full.
+     */
+    public TestCaseData withOutputSink(Supplier<OutputSink> outputSinkSupplier) {
+        return new TestCaseData(id, inputSupplier, expectedOutputSupplier, description, streamSupplier, byteSupplier,
+                timeout, outputSinkSupplier);
     }
 
     public String id() {
@@ -59,12 +103,37 @@ public class TestCaseData {
         return description;
     }
 
+    /**
+     * @return whether the input comes from {@link #getStreamReader()} rather than {@link #input()}
+     */
     public boolean isStreamed() {
-        return streamSupplier != null;
+        return streamSupplier != null || byteSupplier != null;
     }
 
     public Reader getStreamReader() {
+        if (streamSupplier == null && byteSupplier != null) {
+            return Channels.newReader(byteSupplier.get(), StandardCharsets.US_ASCII);
+        }
         return streamSupplier.get();
     }
 
+    public boolean hasByteInput() {
+        return byteSupplier != null;
+    }
+
+    public ReadableByteChannel openByteChannel() {
+        return byteSupplier.get();
+    }
+
+    /**
+     * @return the per-case timeout, or {@code null} to use the calculator default
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public OutputSink createOutputSink() {
+        return outputSinkSupplier.get();
+    }
+
 }
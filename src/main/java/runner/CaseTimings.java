@@ -0,0 +1,82 @@
+package runner;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wall time per case ID, summed over all invocations of the case's test method. Recorded by a run
+ * as {@code case-timings.json} and read by later runs to balance their shards.
+ * <p>
+ * The wall time of each invocation that ran, passed or failed, is kept as well for the
+ * {@link TimingHistory}.
+ */
+public class CaseTimings implements ITestListener {
+
+    public static final String FILE_NAME = "case-timings.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Long> millisById = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> samplesById = new ConcurrentHashMap<>();
+
+    public static Map<String, Long> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, Long>>() {
+        });
+    }
+
+    public static void save(Map<String, Long> timings, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), new TreeMap<>(timings));
+    }
+
+    public Map<String, Long> getTimings() {
+        return millisById;
+    }
+
+    /**
+     * @return the wall time in milliseconds of every invocation per case ID, skipped ones excluded
+     */
+    public Map<String, List<Long>> getSamples() {
+        return samplesById;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, true);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, true);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, false);
+    }
+
+    private void record(ITestResult result, boolean ran) {
+        long millis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        String caseId = Shards.caseIdOf(result.getMethod());
+        millisById.merge(caseId, millis, Long::sum);
+        if (ran) {
+            samplesById.computeIfAbsent(caseId, id -> Collections.synchronizedList(new ArrayList<>())).add(millis);
+        }
+    }
+}
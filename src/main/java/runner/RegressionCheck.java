@@ -0,0 +1,267 @@
+package runner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import runner.TimingHistory.CaseStats;
+import runner.TimingHistory.Run;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compares the case timings of a run with the runs before it in the {@link TimingHistory}.
+ * <p>
+ * A case's baseline is the median, over its last {@value #BASELINE_RUNS} earlier runs on the same
+ * tool, of its median and of its p95. The case is flagged when either grew by more than
+ * {@code threshold} (0.2 for 20%) and by at least {@value #MIN_DELTA_MILLIS} ms; cases with fewer
+ * than {@value #MIN_BASELINE_RUNS} earlier runs are not compared. Each flagged case is added to the
+ * Allure results as a failed test with a chart of its timings over the last {@value #TREND_RUNS}
+ * runs.
+ */
+public class RegressionCheck {
+
+    public static final double DEFAULT_THRESHOLD = 0.2;
+
+    static final int BASELINE_RUNS = 5;
+    static final int MIN_BASELINE_RUNS = 3;
+    static final long MIN_DELTA_MILLIS = 10;
+    static final int TREND_RUNS = 30;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final double threshold;
+
+    public RegressionCheck(double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Regression threshold must not be negative, got " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compares {@code current} with {@code historyFile}, appends it there, reports what regressed
+     * under {@code allureResults} and logs a summary.
+     *
+     * @return the flagged cases
+     */
+    public List<Regression> check(Path historyFile, Run current, Path allureResults) throws IOException {
+        List<Run> history = TimingHistory.read(historyFile);
+        List<Regression> regressions = compare(history, current);
+        TimingHistory.append(historyFile, current, TimingHistory.DEFAULT_MAX_RUNS);
+        for (Regression regression : regressions) {
+            System.out.println("📈 Latency regression in case " + regression.getCaseId() + ": " + regression.summary());
+            writeAllureResult(allureResults, regression);
+        }
+        System.out.println("📈 Compared " + current.getCases().size() + " cases with "
+                + history.stream().filter(run -> run.getLabel().equals(current.getLabel())).count()
+                + " earlier " + current.getLabel() + " runs in " + historyFile + ": "
+                + (regressions.isEmpty() ? "no regressions" : regressions.size() + " regressed by more than "
+                + Math.round(threshold * 100) + "%"));
+        return regressions;
+    }
+
+    /**
+     * @param history earlier runs, oldest first
+     */
+    public List<Regression> compare(List<Run> history, Run current) {
+        List<Run> sameTool = history.stream().filter(run -> run.getLabel().equals(current.getLabel())).toList();
+        List<Regression> regressions = new ArrayList<>();
+        current.getCases().forEach((caseId, stats) -> {
+            List<CaseStats> earlier = sameTool.stream()
+                    .map(run -> run.getCases().get(caseId))
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (earlier.size() < MIN_BASELINE_RUNS) {
+                return;
+            }
+            List<CaseStats> baselineRuns = earlier.subList(earlier.size() - Math.min(BASELINE_RUNS, earlier.size()),
+                    earlier.size());
+            long baselineMedian = median(baselineRuns.stream().mapToLong(CaseStats::getMedianMillis).toArray());
+            long baselineP95 = median(baselineRuns.stream().mapToLong(CaseStats::getP95Millis).toArray());
+            boolean medianRegressed = regressed(baselineMedian, stats.getMedianMillis());
+            boolean p95Regressed = regressed(baselineP95, stats.getP95Millis());
+            if (medianRegressed || p95Regressed) {
+                List<CaseStats> trend = new ArrayList<>(earlier.subList(
+                        Math.max(0, earlier.size() - (TREND_RUNS - 1)), earlier.size()));
+                trend.add(stats);
+                regressions.add(new Regression(caseId, baselineMedian, stats.getMedianMillis(), medianRegressed,
+                        baselineP95, stats.getP95Millis(), p95Regressed, trend));
+            }
+        });
+        return regressions;
+    }
+
+    private boolean regressed(long baselineMillis, long currentMillis) {
+        return currentMillis - baselineMillis >= MIN_DELTA_MILLIS && currentMillis > baselineMillis * (1 + threshold);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return CaseStats.percentile(sorted, 0.5);
+    }
+
+    private static void writeAllureResult(Path allureResults, Regression regression) throws IOException {
+        Files.createDirectories(allureResults);
+        String uuid = UUID.randomUUID().toString();
+        String chart = uuid + "-attachment.svg";
+        Files.writeString(allureResults.resolve(chart), trendChart(regression), StandardCharsets.UTF_8);
+
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("uuid", uuid);
+        result.put("historyId", "latency-regression-" + regression.getCaseId());
+        result.put("name", "Latency regression in case " + regression.getCaseId());
+        result.put("fullName", "runner.RegressionCheck." + regression.getCaseId());
+        result.put("status", "failed");
+        result.put("statusDetails", Map.of("message", regression.summary()));
+        result.put("stage", "finished");
+        result.put("start", now);
+        result.put("stop", now);
+        result.put("labels", List.of(
+                Map.of("name", "suite", "value", "Latency regressions"),
+                Map.of("name", "tag", "value", "latency")));
+        result.put("attachments", List.of(Map.of("name", "Latency trend", "source", chart, "type", "image/svg+xml")));
+        MAPPER.writeValue(allureResults.resolve(uuid + "-result.json").toFile(), result);
+    }
+
+    /**
+     * @return a line chart of the median and p95 over the runs of {@link Regression#getTrend()}
+     */
+    static String trendChart(Regression regression) {
+        int width = 640;
+        int height = 260;
+        int left = 56;
+        int right = 16;
+        int top = 36;
+        int bottom = 36;
+        List<CaseStats> trend = regression.getTrend();
+        long max = Math.max(1, trend.stream().mapToLong(CaseStats::getP95Millis).max().orElse(1));
+        double xStep = trend.size() > 1 ? (width - left - right) / (double) (trend.size() - 1) : 0;
+        double yScale = (height - top - bottom) / (double) max;
+
+        StringBuilder svg = new StringBuilder();
+        svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\""
+                + " font-family=\"sans-serif\" font-size=\"12\">%n", width, height));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"16\">Case %s: %s</text>%n",
+                left, escape(regression.getCaseId()), escape(regression.summary())));
+        svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>%n",
+                left, height - bottom, width - right, height - bottom));
+        svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>%n",
+                left, top, left, height - bottom));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%d ms</text>%n",
+                left - 4, top + 4, max));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"end\">0</text>%n",
+                left - 4, height - bottom + 4));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">%d runs, latest on the right</text>%n",
+                left, height - 12, trend.size()));
+        long[] medians = trend.stream().mapToLong(CaseStats::getMedianMillis).toArray();
+        long[] p95s = trend.stream().mapToLong(CaseStats::getP95Millis).toArray();
+        appendSeries(svg, p95s, "#e8743b", "p95", left, height - bottom, xStep, yScale, width - right - 120);
+        appendSeries(svg, medians, "#2f7ed8", "median", left, height - bottom, xStep, yScale, width - right - 60);
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static void appendSeries(StringBuilder svg, long[] values, String color, String name, int left,
+                                     int baseline, double xStep, double yScale, int legendX) {
+        StringBuilder points = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            points.append(String.format(Locale.ROOT, "%.1f,%.1f ", left + i * xStep, baseline - values[i] * yScale));
+        }
+        svg.append(String.format(Locale.ROOT, "<polyline points=\"%s\" fill=\"none\" stroke=\"%s\""
+                + " stroke-width=\"2\"/>%n", points.toString().trim(), color));
+        int last = values.length - 1;
+        svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"4\" fill=\"%s\"/>%n",
+                left + last * xStep, baseline - values[last] * yScale, color));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"30\" fill=\"%s\">%s</text>%n",
+                legendX, color, name));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    public static class Regression {
+        private final String caseId;
+        private final long baselineMedianMillis;
+        private final long medianMillis;
+        private final boolean medianRegressed;
+        private final long baselineP95Millis;
+        private final long p95Millis;
+        private final boolean p95Regressed;
+        private final List<CaseStats> trend;
+
+        public Regression(String caseId, long baselineMedianMillis, long medianMillis, boolean medianRegressed,
+                          long baselineP95Millis, long p95Millis, boolean p95Regressed, List<CaseStats> trend) {
+            this.caseId = caseId;
+            this.baselineMedianMillis = baselineMedianMillis;
+            this.medianMillis = medianMillis;
+            this.medianRegressed = medianRegressed;
+            this.baselineP95Millis = baselineP95Millis;
+            this.p95Millis = p95Millis;
+            this.p95Regressed = p95Regressed;
+            this.trend = List.copyOf(trend);
+        }
+
+        public String getCaseId() {
+            return caseId;
+        }
+
+        public long getBaselineMedianMillis() {
+            return baselineMedianMillis;
+        }
+
+        public long getMedianMillis() {
+            return medianMillis;
+        }
+
+        public boolean isMedianRegressed() {
+            return medianRegressed;
+        }
+
+        public long getBaselineP95Millis() {
+            return baselineP95Millis;
+        }
+
+        public long getP95Millis() {
+            return p95Millis;
+        }
+
+        public boolean isP95Regressed() {
+            return p95Regressed;
+        }
+
+        /**
+         * @return the case's timings in its earlier runs, oldest first, followed by this run
+         */
+        public List<CaseStats> getTrend() {
+            return trend;
+        }
+
+        public String summary() {
+            List<String> parts = new ArrayList<>();
+            if (medianRegressed) {
+                parts.add(change("median", baselineMedianMillis, medianMillis));
+            }
+            if (p95Regressed) {
+                parts.add(change("p95", baselineP95Millis, p95Millis));
+            }
+            return String.join(", ", parts);
+        }
+
+        private static String change(String metric, long baselineMillis, long currentMillis) {
+            String percent = baselineMillis == 0 ? "new"
+                    : String.format(Locale.ROOT, "+%.0f%%", (currentMillis - baselineMillis) * 100.0 / baselineMillis);
+            return metric + " " + baselineMillis + "ms → " + currentMillis + "ms (" + percent + ")";
+        }
+    }
+}
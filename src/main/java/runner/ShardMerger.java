@@ -0,0 +1,174 @@
+package runner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Combines the results directories written by shards into one:
+ * <ul>
+ *     <li>{@code allure-results} — Allure names every file by UUID, so the files are just copied
+ *     side by side</li>
+ *     <li>{@code testng/testng-results.xml} — the suites of all shards under one root, whose counters
+ *     are summed</li>
+ *     <li>{@code case-timings.json} — the union of the shards' timings, for balancing the next run</li>
+ *     <li>{@code timing-run.bin} — the shards' per-case timings as one run of the {@link TimingHistory}</li>
+ * </ul>
+ * A shard writes its {@code timing-run.bin} last, so a shard without one was killed or crashed
+ * before it finished. Such a shard shows up in the merged Allure results as a failed test, and no
+ * {@code timing-run.bin} is written for the merge, so a partial run never enters the history.
+ */
+public final class ShardMerger {
+
+    public static final String ALLURE_RESULTS = "allure-results";
+    public static final String TESTNG_OUTPUT = "testng";
+
+    private static final String TESTNG_RESULTS = "testng-results.xml";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> COUNTERS = List.of("ignored", "total", "passed", "failed", "skipped");
+
+    private ShardMerger() {
+    }
+
+    /**
+     * @return the shards that did not finish, empty when the merged results are complete
+     */
+    public static List<Path> merge(Path target, List<Path> shards) throws IOException {
+        Path allure = target.resolve(ALLURE_RESULTS);
+        Files.createDirectories(allure);
+        Map<String, Long> timings = new HashMap<>();
+        List<TimingHistory.Run> runs = new ArrayList<>();
+        Document merged = null;
+        int copied = 0;
+        List<Path> incomplete = new ArrayList<>();
+        for (Path shard : shards) {
+            if (!Files.isRegularFile(shard.resolve(TimingHistory.RUN_FILE_NAME))) {
+                incomplete.add(shard);
+                System.out.println("⚠️ Shard " + shard + " did not finish, its results are missing or partial");
+                writeIncompleteShardResult(allure, shard);
+                if (!Files.isDirectory(shard)) {
+                    continue;
+                }
+            }
+            Path shardAllure = shard.resolve(ALLURE_RESULTS);
+            if (Files.isDirectory(shardAllure)) {
+                try (Stream<Path> files = Files.list(shardAllure)) {
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        Files.copy(file, allure.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                        copied++;
+                    }
+                }
+            }
+            Path results = shard.resolve(TESTNG_OUTPUT).resolve(TESTNG_RESULTS);
+            if (Files.isRegularFile(results)) {
+                merged = mergeTestNgResults(merged, parse(results));
+            }
+            timings.putAll(CaseTimings.load(shard.resolve(CaseTimings.FILE_NAME)));
+            runs.addAll(TimingHistory.read(shard.resolve(TimingHistory.RUN_FILE_NAME)));
+        }
+        if (merged != null) {
+            Path testng = target.resolve(TESTNG_OUTPUT);
+            Files.createDirectories(testng);
+            write(merged, testng.resolve(TESTNG_RESULTS));
+        }
+        CaseTimings.save(timings, target.resolve(CaseTimings.FILE_NAME));
+        Path mergedRun = target.resolve(TimingHistory.RUN_FILE_NAME);
+        if (incomplete.isEmpty() && !runs.isEmpty()) {
+            TimingHistory.write(mergedRun, List.of(TimingHistory.Run.merge(runs)));
+        } else {
+            Files.deleteIfExists(mergedRun);
+        }
+        System.out.println("🧩 Merged " + shards.size() + " shards (" + incomplete.size() + " incomplete) into "
+                + target + ": " + copied + " Allure files, "
+                + (merged == null ? "no" : merged.getDocumentElement().getAttribute("total"))
+                + " TestNG results, " + timings.size() + " case timings");
+        return incomplete;
+    }
+
+    private static void writeIncompleteShardResult(Path allureResults, Path shard) throws IOException {
+        String uuid = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("uuid", uuid);
+        result.put("historyId", "incomplete-shard-" + shard.getFileName());
+        result.put("name", "Shard " + shard.getFileName() + " did not finish");
+        result.put("fullName", "runner.ShardMerger." + shard.getFileName());
+        result.put("status", "broken");
+        result.put("statusDetails", Map.of("message", "No " + TimingHistory.RUN_FILE_NAME + " in " + shard
+                + ": the shard was killed or crashed, so the merged results lack some of its cases"));
+        result.put("stage", "finished");
+        result.put("start", now);
+        result.put("stop", now);
+        result.put("labels", List.of(Map.of("name", "suite", "value", "Shards")));
+        MAPPER.writeValue(allureResults.resolve(uuid + "-result.json").toFile(), result);
+    }
+
+    private static Document mergeTestNgResults(Document merged, Document shard) {
+        if (merged == null) {
+            return shard;
+        }
+        Element root = merged.getDocumentElement();
+        Element shardRoot = shard.getDocumentElement();
+        for (String counter : COUNTERS) {
+            long sum = parseLong(root.getAttribute(counter)) + parseLong(shardRoot.getAttribute(counter));
+            root.setAttribute(counter, Long.toString(sum));
+        }
+        NodeList suites = shardRoot.getElementsByTagName("suite");
+        for (int i = 0; i < suites.getLength(); i++) {
+            Node suite = suites.item(i);
+            if (suite.getParentNode() == shardRoot) {
+                root.appendChild(merged.importNode(suite, true));
+            }
+        }
+        return merged;
+    }
+
+    private static long parseLong(String value) {
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private static Document parse(Path file) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(file.toFile());
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot read " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void write(Document document, Path file) throws IOException {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(document), new StreamResult(file.toFile()));
+        } catch (TransformerException e) {
+            throw new IOException("Cannot write " + file + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package runner;
+
+import model.CaseId;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static utils.LoggingService.getLogger;
+
+/**
+ * Splits the test methods of a run into {@code count} shards by their {@link CaseId}; methods
+ * without one are keyed by class and method name.
+ * <p>
+ * IDs are assigned longest first to the currently lightest shard, using the runtimes of an
+ * earlier run where known and their mean otherwise. Without any timings every ID weighs the same
+ * and the IDs are dealt out round robin in sorted order. Every shard computes the same assignment
+ * from the same methods and timings, so together the shards run each case exactly once.
+ */
+public class Shards implements IMethodInterceptor {
+
+    private final int index;
+    private final int count;
+    private final Map<String, Long> timings;
+
+    /**
+     * @param index zero-based shard to keep
+     */
+    public Shards(int index, int count, Map<String, Long> timings) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + (index + 1) + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+        this.timings = timings;
+    }
+
+    /**
+     * @param spec one-based {@code i/n}, e.g. {@code 2/4}
+     */
+    public static Shards parse(String spec, Map<String, Long> timings) {
+        String[] parts = spec.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected --shard i/n, got " + spec);
+        }
+        return new Shards(Integer.parseInt(parts[0].trim()) - 1, Integer.parseInt(parts[1].trim()), timings);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public static String caseIdOf(ITestNGMethod method) {
+        Method javaMethod = method.getConstructorOrMethod().getMethod();
+        CaseId caseId = javaMethod == null ? null : javaMethod.getAnnotation(CaseId.class);
+        if (caseId == null) {
+            return method.getRealClass().getName() + "#" + method.getMethodName();
+        }
+        return caseId.value();
+    }
+
+    /**
+     * @return the shard, zero-based, that runs each of {@code ids}
+     */
+    public Map<String, Integer> assign(Iterable<String> ids) {
+        TreeSet<String> sorted = new TreeSet<>();
+        ids.forEach(sorted::add);
+        double knownMean = sorted.stream().filter(timings::containsKey).mapToLong(timings::get).average().orElse(1);
+        long defaultWeight = Math.max(1, Math.round(knownMean));
+
+        List<String> heaviestFirst = new ArrayList<>(sorted);
+        heaviestFirst.sort(Comparator.comparingLong((String id) -> timings.getOrDefault(id, defaultWeight)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[count];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String id : heaviestFirst) {
+            int lightest = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += Math.max(1, timings.getOrDefault(id, defaultWeight));
+            assignment.put(id, lightest);
+        }
+        return assignment;
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Map<String, Integer> assignment = assign(methods.stream().map(m -> caseIdOf(m.getMethod())).toList());
+        List<IMethodInstance> kept = methods.stream()
+                .filter(m -> assignment.get(caseIdOf(m.getMethod())) == index)
+                .toList();
+        getLogger().info("🧩 [shard {}/{}] Running {} of {} test methods in '{}'",
+                index + 1, count, kept.size(), methods.size(), context.getName());
+        return kept;
+    }
+}
@@ -1,17 +1,258 @@
 package runner;
 
+import calculator.CalculatorTools;
+import calculator.journal.EventJournal;
+import calculator.load.LoadReport;
+import calculator.load.LoadRunner;
+import calculator.load.WorkloadMix;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.testng.IAlterSuiteListener;
 import org.testng.TestNG;
+import org.testng.xml.XmlSuite;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Runs {@code testng.xml} from the working directory.
+ * <p>
+ * Options:
+ * <ul>
+ *     <li>{@code --parallel [methods|classes|tests|instances|none]} — run concurrently; the mode
+ *     defaults to {@code methods}</li>
+ *     <li>{@code --threads <n>} — concurrency level for test methods and data-provider rows alike;
+ *     defaults to the number of available processors, as bc cases are CPU-bound</li>
+ *     <li>{@code --shard <i>/<n>} — run only the i-th of n {@link Shards}, balanced by the
+ *     timings in {@code --timings <file>} (default {@code case-timings.json}) where it exists</li>
+ *     <li>{@code --results-dir <dir>} — write Allure results, TestNG output and case timings under
+ *     {@code dir}; defaults to {@code shards/shard-i-of-n} for shards</li>
+ *     <li>{@code --merge <target> <shard dir>...} — instead of running tests, combine the results
+ *     directories of shards with {@link ShardMerger}; must come after the other options</li>
+ *     <li>{@code --history <file>} — the {@link TimingHistory} the run's per-case timings are
+ *     compared with and appended to by {@link RegressionCheck}; defaults to
+ *     {@code timing-history.bin}. Shards only record their timings, the merge compares them</li>
+ *     <li>{@code --regression-threshold <fraction>} — flag cases whose median or p95 grew by more
+ *     than this, e.g. {@code 0.2} (the default) for 20%</li>
+ *     <li>{@code --fail-on-regression} — exit with {@value #REGRESSION_EXIT_CODE} when a case
+ *     regressed</li>
+ * </ul>
+ * A merge that finds a shard which did not finish exits with {@value #INCOMPLETE_SHARDS_EXIT_CODE}
+ * and skips the regression check.
+ * Load mode replays the data-provider cases against the {@code calculator.tool} with a
+ * {@link LoadRunner} instead of running the suite, and writes {@code load-report.json} to the
+ * working directory or {@code --results-dir}:
+ * <ul>
+ *     <li>{@code --load closed|open} — concurrent clients, or requests at a target rate</li>
+ *     <li>{@code --clients <n>,<n>...} — closed-loop levels; defaults to powers of two up to twice
+ *     the number of processors</li>
+ *     <li>{@code --qps <n>,<n>...} — open-loop levels, required for {@code open}</li>
+ *     <li>{@code --warmup <seconds>}, {@code --duration <seconds>} — per level; default 5 and 20</li>
+ *     <li>{@code --mix <type>=<weight>,...} — case types (data provider names) and their weights;
+ *     defaults to all but the heavy cases, equally weighted</li>
+ *     <li>{@code --max-in-flight <n>} — open-loop requests outstanding at most; default 256</li>
+ * </ul>
+ * Data-provider rows of all methods share one pool, so a parallel run keeps about
+ * {@code 2 * threads} cases in flight at most.
+ */
 public class TestMain {
-    public static void main(String[] args) {
+
+    public static final int REGRESSION_EXIT_CODE = 3;
+    public static final int INCOMPLETE_SHARDS_EXIT_CODE = 4;
+
+    private static final String LOAD_REPORT = "load-report.json";
+
+    public static void main(String[] args) throws IOException {
+        XmlSuite.ParallelMode parallel = XmlSuite.ParallelMode.NONE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String shard = null;
+        Path timingsFile = Path.of(CaseTimings.FILE_NAME);
+        Path resultsDir = null;
+        Path historyFile = Path.of(TimingHistory.FILE_NAME);
+        double threshold = RegressionCheck.DEFAULT_THRESHOLD;
+        boolean failOnRegression = false;
+        String load = null;
+        List<Integer> loadLevels = null;
+        Duration warmup = LoadRunner.DEFAULT_WARMUP;
+        Duration duration = LoadRunner.DEFAULT_DURATION;
+        String mix = null;
+        int maxInFlight = LoadRunner.DEFAULT_MAX_IN_FLIGHT;
+        int merge = -1;
+        for (int i = 0; i < args.length && merge < 0; i++) {
+            switch (args[i]) {
+                case "--parallel" -> {
+                    parallel = XmlSuite.ParallelMode.METHODS;
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        String mode = args[++i].toLowerCase(Locale.ROOT);
+                        parallel = Arrays.stream(XmlSuite.ParallelMode.values())
+                                .filter(candidate -> candidate.toString().equals(mode))
+                                .findFirst()
+                                .orElseThrow(() -> new IllegalArgumentException("Unknown parallel mode " + mode));
+                    }
+                }
+                case "--threads" -> threads = Integer.parseInt(requireValue(args, ++i, "--threads"));
+                case "--shard" -> shard = requireValue(args, ++i, "--shard");
+                case "--timings" -> timingsFile = Path.of(requireValue(args, ++i, "--timings"));
+                case "--results-dir" -> resultsDir = Path.of(requireValue(args, ++i, "--results-dir"));
+                case "--history" -> historyFile = Path.of(requireValue(args, ++i, "--history"));
+                case "--regression-threshold" ->
+                        threshold = Double.parseDouble(requireValue(args, ++i, "--regression-threshold"));
+                case "--fail-on-regression" -> failOnRegression = true;
+                case "--load" -> load = requireValue(args, ++i, "--load");
+                case "--clients", "--qps" -> {
+                    String option = args[i];
+                    loadLevels = Arrays.stream(requireValue(args, ++i, option).split(","))
+                            .map(level -> Integer.parseInt(level.trim()))
+                            .toList();
+                }
+                case "--warmup" -> warmup = seconds(requireValue(args, ++i, "--warmup"));
+                case "--duration" -> duration = seconds(requireValue(args, ++i, "--duration"));
+                case "--mix" -> mix = requireValue(args, ++i, "--mix");
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(requireValue(args, ++i, "--max-in-flight"));
+                case "--merge" -> merge = i;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                        + ", expected --parallel [mode], --threads <n>, --shard <i>/<n>, --timings <file>,"
+                        + " --results-dir <dir>, --history <file>, --regression-threshold <fraction>,"
+                        + " --fail-on-regression, --load closed|open, --clients <n>,..., --qps <n>,...,"
+                        + " --warmup <s>, --duration <s>, --mix <type>=<weight>,..., --max-in-flight <n>"
+                        + " or --merge <target> <shard dir>...");
+            }
+        }
+        if (load != null) {
+            LoadReport report = runLoad(load, loadLevels, warmup, duration, mix, maxInFlight);
+            Path reportFile = (resultsDir == null ? Path.of(".") : resultsDir).resolve(LOAD_REPORT);
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report.toMap());
+            System.out.println("🏋️ Load test (" + report.getMode() + " loop, " + report.getMix() + "):");
+            System.out.print(report.table());
+            LoadReport.Level saturation = report.saturationPoint();
+            if (saturation != null) {
+                System.out.printf(Locale.ROOT, "🏋️ Saturated at %d %s: %.1f req/s; report in %s%n",
+                        saturation.getLevel(), load.equals("open") ? "req/s offered" : "clients",
+                        saturation.throughput(), reportFile);
+            }
+            System.exit(0);
+        }
+        RegressionCheck regressionCheck = new RegressionCheck(threshold);
+        if (merge >= 0) {
+            if (args.length - merge < 3) {
+                throw new IllegalArgumentException("Usage: --merge <target> <shard dir>...");
+            }
+            Path target = Path.of(args[merge + 1]);
+            List<Path> incomplete = ShardMerger.merge(target,
+                    Arrays.stream(args, merge + 2, args.length).map(Path::of).toList());
+            if (!incomplete.isEmpty()) {
+                System.out.println("❌ " + incomplete.size() + " shards did not finish, the merged results are partial");
+                System.exit(INCOMPLETE_SHARDS_EXIT_CODE);
+            }
+            List<TimingHistory.Run> merged = TimingHistory.read(target.resolve(TimingHistory.RUN_FILE_NAME));
+            if (!merged.isEmpty()) {
+                List<RegressionCheck.Regression> regressions = regressionCheck.check(historyFile, merged.get(0),
+                        target.resolve(ShardMerger.ALLURE_RESULTS));
+                if (failOnRegression && !regressions.isEmpty()) {
+                    System.exit(REGRESSION_EXIT_CODE);
+                }
+            }
+            return;
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1, got " + threads);
+        }
+
         TestNG testng = new TestNG();
         testng.setTestSuites(Collections.singletonList("testng.xml"));
+        if (parallel != XmlSuite.ParallelMode.NONE) {
+            System.out.println("🧵 Running " + parallel + " in parallel on " + threads + " threads");
+            testng.addListener(parallelSuites(parallel, threads));
+        }
+        if (shard != null) {
+            Shards shards = Shards.parse(shard, CaseTimings.load(timingsFile));
+            if (resultsDir == null) {
+                resultsDir = Path.of("shards", "shard-" + (shards.getIndex() + 1) + "-of-" + shards.getCount());
+            }
+            System.out.println("🧩 Running shard " + shard + " into " + resultsDir);
+            testng.setMethodInterceptor(shards);
+        }
+        CaseTimings timings = new CaseTimings();
+        testng.addListener(timings);
+        if (resultsDir != null) {
+            System.setProperty("allure.results.directory", resultsDir.resolve(ShardMerger.ALLURE_RESULTS).toString());
+            if (System.getProperty("bc.journal.file") == null) {
+                // shards run side by side and would otherwise replace each other's journal
+                System.setProperty("bc.journal.file", resultsDir.resolve(EventJournal.FILE_NAME).toString());
+            }
+            testng.setOutputDirectory(resultsDir.resolve(ShardMerger.TESTNG_OUTPUT).toString());
+        }
         testng.setDefaultSuiteName("CLI Suite");
         testng.setUseDefaultListeners(true);
+        long started = System.currentTimeMillis();
         testng.run();
+        CaseTimings.save(timings.getTimings(),
+                resultsDir == null ? Path.of(CaseTimings.FILE_NAME) : resultsDir.resolve(CaseTimings.FILE_NAME));
+        TimingHistory.Run run = TimingHistory.Run.of(started,
+                System.getProperty(CalculatorTools.PROPERTY, "bc"), timings.getSamples());
+        int exitCode = 0;
+        if (shard != null) {
+            TimingHistory.write(resultsDir.resolve(TimingHistory.RUN_FILE_NAME), List.of(run));
+        } else {
+            Path allureResults = Path.of(System.getProperty("allure.results.directory", "allure-results"));
+            if (!regressionCheck.check(historyFile, run, allureResults).isEmpty() && failOnRegression) {
+                exitCode = REGRESSION_EXIT_CODE;
+            }
+        }
         System.out.println("✅ TestNG finished, exiting.");
-        System.exit(0);
+        System.exit(exitCode);
+    }
+
+    private static LoadReport runLoad(String mode, List<Integer> levels, Duration warmup, Duration duration,
+                                      String mix, int maxInFlight) {
+        // latencies under load say nothing about how long a case takes on its own, so they stay out
+        // of the adaptive timeout history unless asked for
+        if (System.getProperty("bc.timeout.adaptive") == null) {
+            System.setProperty("bc.timeout.adaptive", "false");
+        }
+        LoadRunner runner = new LoadRunner(CalculatorTools.fromSystemProperty(), WorkloadMix.fromServiceLoader(mix),
+                warmup, duration);
+        return switch (mode) {
+            case "closed" -> runner.closedLoop(levels != null ? levels : LoadRunner.defaultClientCounts());
+            case "open" -> {
+                if (levels == null) {
+                    throw new IllegalArgumentException("--load open needs --qps <n>,<n>...");
+                }
+                yield runner.openLoop(levels, maxInFlight);
+            }
+            default -> throw new IllegalArgumentException("Unknown load mode " + mode + ", expected closed or open");
+        };
+    }
+
+    private static Duration seconds(String value) {
+        return Duration.ofMillis(Math.round(Double.parseDouble(value) * 1000));
+    }
+
+    private static IAlterSuiteListener parallelSuites(XmlSuite.ParallelMode parallel, int threads) {
+        return new IAlterSuiteListener() {
+            @Override
+            public void alter(List<XmlSuite> suites) {
+                for (XmlSuite suite : suites) {
+                    suite.setParallel(parallel);
+                    suite.setThreadCount(threads);
+                    suite.setDataProviderThreadCount(threads);
+                    suite.setShareThreadPoolForDataProviders(true);
+                }
+            }
+        };
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[index];
     }
-}
\ No newline at end of file
+}
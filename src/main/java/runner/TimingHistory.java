@@ -0,0 +1,246 @@
+package runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-case timings of past runs, one block per run appended to a binary file.
+ * <p>
+ * A block is stored column by column: the run's start time and label, the number of cases, then
+ * all case IDs, all invocation counts, all medians and all p95s in milliseconds. Appending a run
+ * writes only its own block; once the file holds {@code maxRuns} runs it is rewritten without the
+ * oldest ones.
+ */
+public final class TimingHistory {
+
+    public static final String FILE_NAME = "timing-history.bin";
+    /**
+     * The timings of a single run, written by each shard for {@link ShardMerger} to combine.
+     */
+    public static final String RUN_FILE_NAME = "timing-run.bin";
+    public static final int DEFAULT_MAX_RUNS = 100;
+
+    private static final int MAGIC = 0x42435448; // "BCTH"
+    private static final int FORMAT_VERSION = 1;
+
+    private TimingHistory() {
+    }
+
+    /**
+     * @return the runs, oldest first; none if the file is missing, unreadable or of another format
+     */
+    public static List<Run> read(Path file) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        readInto(file, runs);
+        return runs;
+    }
+
+    /**
+     * @return whether the file was read to its end; a run cut short by a crash is dropped, the
+     * complete ones before it still count
+     */
+    private static boolean readInto(Path file, List<Run> runs) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            while (true) {
+                long startedMillis;
+                try {
+                    startedMillis = in.readLong();
+                } catch (EOFException e) {
+                    return true;
+                }
+                runs.add(readRun(in, startedMillis));
+            }
+        } catch (NoSuchFileException | EOFException e) {
+            return false;
+        }
+    }
+
+    public static void append(Path file, Run run, int maxRuns) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        if (readInto(file, runs) && runs.size() < maxRuns) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND)))) {
+                writeRun(out, run);
+            }
+            return;
+        }
+        runs.add(run);
+        write(file, runs.subList(Math.max(0, runs.size() - maxRuns), runs.size()));
+    }
+
+    public static void write(Path file, List<Run> runs) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (Run run : runs) {
+                writeRun(out, run);
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Run readRun(DataInputStream in, long startedMillis) throws IOException {
+        String label = in.readUTF();
+        int count = in.readInt();
+        String[] ids = new String[count];
+        int[] invocations = new int[count];
+        long[] medians = new long[count];
+        long[] p95s = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = in.readUTF();
+        }
+        for (int i = 0; i < count; i++) {
+            invocations[i] = in.readInt();
+        }
+        for (int i = 0; i < count; i++) {
+            medians[i] = in.readLong();
+        }
+        for (int i = 0; i < count; i++) {
+            p95s[i] = in.readLong();
+        }
+        Map<String, CaseStats> cases = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            cases.put(ids[i], new CaseStats(invocations[i], medians[i], p95s[i]));
+        }
+        return new Run(startedMillis, label, cases);
+    }
+
+    private static void writeRun(DataOutputStream out, Run run) throws IOException {
+        Collection<CaseStats> stats = run.getCases().values();
+        out.writeLong(run.getStartedMillis());
+        out.writeUTF(run.getLabel());
+        out.writeInt(run.getCases().size());
+        for (String id : run.getCases().keySet()) {
+            out.writeUTF(id);
+        }
+        for (CaseStats caseStats : stats) {
+            out.writeInt(caseStats.getInvocations());
+        }
+        for (CaseStats caseStats : stats) {
+            out.writeLong(caseStats.getMedianMillis());
+        }
+        for (CaseStats caseStats : stats) {
+            out.writeLong(caseStats.getP95Millis());
+        }
+    }
+
+    /**
+     * The timings of one run. Only runs with the same label, the calculator tool they ran against,
+     * are compared with each other.
+     */
+    public static final class Run {
+        private final long startedMillis;
+        private final String label;
+        private final Map<String, CaseStats> cases;
+
+        public Run(long startedMillis, String label, Map<String, CaseStats> cases) {
+            this.startedMillis = startedMillis;
+            this.label = label;
+            this.cases = Collections.unmodifiableMap(new TreeMap<>(cases));
+        }
+
+        /**
+         * @param samples wall times in milliseconds per case ID, as kept by {@link CaseTimings}
+         */
+        public static Run of(long startedMillis, String label, Map<String, ? extends Collection<Long>> samples) {
+            Map<String, CaseStats> cases = new TreeMap<>();
+            samples.forEach((id, millis) -> {
+                if (!millis.isEmpty()) {
+                    cases.put(id, CaseStats.of(millis));
+                }
+            });
+            return new Run(startedMillis, label, cases);
+        }
+
+        /**
+         * @return one run holding the cases of all {@code runs}, such as the shards of one run
+         */
+        public static Run merge(List<Run> runs) {
+            Map<String, CaseStats> cases = new TreeMap<>();
+            runs.forEach(run -> cases.putAll(run.getCases()));
+            long started = runs.stream().mapToLong(Run::getStartedMillis).min().orElse(System.currentTimeMillis());
+            String label = runs.isEmpty() ? "" : runs.get(0).getLabel();
+            return new Run(started, label, cases);
+        }
+
+        public long getStartedMillis() {
+            return startedMillis;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Map<String, CaseStats> getCases() {
+            return cases;
+        }
+    }
+
+    public static final class CaseStats {
+        private final int invocations;
+        private final long medianMillis;
+        private final long p95Millis;
+
+        public CaseStats(int invocations, long medianMillis, long p95Millis) {
+            this.invocations = invocations;
+            this.medianMillis = medianMillis;
+            this.p95Millis = p95Millis;
+        }
+
+        static CaseStats of(Collection<Long> millis) {
+            long[] sorted;
+            synchronized (millis) {
+                sorted = millis.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(sorted);
+            return new CaseStats(sorted.length, percentile(sorted, 0.5), percentile(sorted, 0.95));
+        }
+
+        /**
+         * @return the value at rank {@code ceil(q * n)} of the ascending {@code sorted}
+         */
+        static long percentile(long[] sorted, double q) {
+            int rank = (int) Math.ceil(q * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+        }
+
+        public int getInvocations() {
+            return invocations;
+        }
+
+        public long getMedianMillis() {
+            return medianMillis;
+        }
+
+        public long getP95Millis() {
+            return p95Millis;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package calculator.data;
+
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.annotations.DataProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cases for {@link calculator.CachingCalculator}. The tests answer them from a scripted tool, so the
+ * input only serves as the cache key; the cases stay out of the {@link TestCaseRegistry}.
+ */
+public class CacheDataProvider extends BaseDataProvider {
+
+    public static final String CACHE = "cacheData";
+
+    private static final Map<String, Function<String, TestCaseData>> CASES = Map.of(
+            "040", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "scale=1000000000; 1/3",
+                    "",
+                    "Timed-out case — evaluated again on the next call"
+            ),
+            "041", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "1 + * 2",
+                    "",
+                    "bc syntax error — served from the cache on the next call"
+            )
+    );
+
+    @DataProvider(name = CACHE, parallel = true)
+    public static Object[][] provideCacheData(Method method) {
+        String id = method.getAnnotation(CaseId.class).value();
+        return new Object[][]{{CASES.get(id).apply(id)}};
+    }
+}
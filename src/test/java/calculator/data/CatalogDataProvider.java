@@ -0,0 +1,28 @@
+package calculator.data;
+
+import calculator.catalog.CaseCatalog;
+import org.testng.annotations.DataProvider;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class CatalogDataProvider extends BaseDataProvider {
+
+    /**
+     * Entries of {@link CaseCatalog#fromSystemProperty()}, read as TestNG asks for them. Narrowed
+     * with {@code -Dcatalog.group=<group>} and {@code -Dcatalog.ids=<id>,<id>...}.
+     */
+    @DataProvider(name = "catalogData", parallel = true)
+    public static Iterator<Object[]> provideCatalogCases() {
+        String group = System.getProperty("catalog.group");
+        String ids = System.getProperty("catalog.ids");
+        Set<String> idFilter = ids == null || ids.isBlank() ? null
+                : Arrays.stream(ids.split(",")).map(String::trim).collect(Collectors.toSet());
+        return CaseCatalog.fromSystemProperty()
+                .entries(group == null || group.isBlank() ? null : group, idFilter)
+                .map(entry -> new Object[]{entry.toTestCaseData(), entry})
+                .iterator();
+    }
+}
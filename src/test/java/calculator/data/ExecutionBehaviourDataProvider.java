@@ -4,68 +4,83 @@ import model.TestCaseData;
 import org.testng.annotations.DataProvider;
 
 import java.lang.reflect.Method;
-import java.util.List;
 
 
 public class ExecutionBehaviourDataProvider extends BaseDataProvider {
 
-    @DataProvider(name = "executionBehaviourData")
+    public static final String BEHAVIOUR = "executionBehaviourData";
+
+    @DataProvider(name = BEHAVIOUR, parallel = true)
     public static Object[][] provideBehaviourData(Method method) {
-        return filterByTestId(method, List.of(
-                TestCaseData.fromStringInput(
-                        "011",
-                        () -> "",
-                        "",
-                        "Empty input — should be handled gracefully"
-                ),
-                TestCaseData.fromStringInput(
-                        "012",
-                        () -> "1 + * 2",
-                        "",
-                        "Invalid syntax — should return parser error or descriptive message"
-                ),
-                TestCaseData.fromStringInput(
-                        "013",
-                        () -> "1 / 0",
-                        "",
-                        "Division by zero — should return runtime error or specific message"
-                ),
-                TestCaseData.fromStringInput(
-                        "014",
-                        () -> "a + 1",
-                        "",
-                        "Undefined variable — should return error about undefined symbol"
-                ),
-                TestCaseData.fromStringInput(
-                        "015",
-                        () -> "(1 + (2 + 3)",
-                        "",
-                        "Unterminated parentheses — should trigger syntax or parser error"
-                ),
-                TestCaseData.fromStringInput(
-                        "016",
-                        () -> "1+1\nabc\n2+2",
-                        "",
-                        "Mixed valid and invalid lines — some processed, errors reported for others"
-                ),
-                TestCaseData.fromStringInput(
-                        "017",
-                        () -> "5 +",
-                        "",
-                        "Expression ending with operator — should produce syntax error or request for missing operand"
-                ),
-                TestCaseData.fromStringInput(
-                        "018",
-                        () -> ". + 1",
-                        "1",
-                        "Misplaced decimal treated as 0 — valid input"
-                ),
-                TestCaseData.fromStringInput(
-                        "019",
-                        () -> "scale=abc; 1/2",
-                        "0",
-                        "Malformed scale assignment should fallback to default scale"
-                )
+        return caseFor(BEHAVIOUR, method);
+    }
+
+    static void register(TestCaseRegistry.Builder cases) {
+        cases.add(BEHAVIOUR, "011", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "",
+                "",
+                "Empty input — should be handled gracefully"
+        ));
+        cases.add(BEHAVIOUR, "012", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "1 + * 2",
+                "",
+                "Invalid syntax — should return parser error or descriptive message"
+        ));
+        cases.add(BEHAVIOUR, "013", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "1 / 0",
+                "",
+                "Division by zero — should return runtime error or specific message"
+        ));
+        cases.add(BEHAVIOUR, "014", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "a + 1",
+                "",
+                "Undefined variable — should return error about undefined symbol"
+        ));
+        cases.add(BEHAVIOUR, "015", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "(1 + (2 + 3)",
+                "",
+                "Unterminated parentheses — should trigger syntax or parser error"
+        ));
+        cases.add(BEHAVIOUR, "016", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "1+1\nabc\n2+2",
+                "",
+                "Mixed valid and invalid lines — some processed, errors reported for others"
+        ));
+        cases.add(BEHAVIOUR, "017", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "5 +",
+                "",
+                "Expression ending with operator — should produce syntax error or request for missing operand"
+        ));
+        cases.add(BEHAVIOUR, "018", id -> TestCaseData.fromStringInput(
+                id,
+                () -> ". + 1",
+                "1",
+                "Misplaced decimal treated as 0 — valid input"
+        ));
+        cases.add(BEHAVIOUR, "019", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "scale=abc; 1/2",
+                "0",
+                "Malformed scale assignment should fallback to default scale"
+        ));
+        cases.add(BEHAVIOUR, "038", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "\"abc",
+                "",
+                "Unterminated string — error at end of input, pooled bc answers like one-shot bc"
+        ));
+        cases.add(BEHAVIOUR, "039", id -> TestCaseData.fromStringInput(
+                id,
+                () -> "{ 1+1",
+                "",
+                "Unterminated block — error at end of input, pooled bc answers like one-shot bc"
         ));
     }
 }
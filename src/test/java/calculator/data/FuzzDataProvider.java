@@ -0,0 +1,30 @@
+package calculator.data;
+
+import calculator.fuzz.FuzzCase;
+import calculator.fuzz.FuzzRunner;
+import org.testng.annotations.DataProvider;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+public class FuzzDataProvider extends BaseDataProvider {
+
+    private static final int CASES = Integer.getInteger("fuzz.cases", 25);
+
+    /**
+     * Generated cases are created lazily as TestNG asks for them and run in parallel.
+     */
+    @DataProvider(name = "fuzzData", parallel = true)
+    public static Iterator<Object[]> provideFuzzCases() {
+        long seed = FuzzRunner.seedFromSystemProperty();
+        return IntStream.range(0, CASES)
+                .mapToObj(index -> FuzzCase.generate(seed, index))
+                .map(fuzzCase -> new Object[]{fuzzCase.toTestCaseData(), fuzzCase})
+                .iterator();
+    }
+
+    @DataProvider(name = "fuzzCampaignData", parallel = true)
+    public static Object[][] provideFuzzCampaign() {
+        return new Object[][]{{FuzzRunner.seedFromSystemProperty()}};
+    }
+}
@@ -0,0 +1,33 @@
+package calculator.data;
+
+import calculator.load.WorkloadSource;
+import model.TestCaseData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Offers the cases of the {@link TestCaseRegistry} to load runs, one case type per group. The
+ * heavy group is left out: its billion-digit cases take seconds each and would only measure the
+ * timeout.
+ */
+public class RegistryWorkloadSource implements WorkloadSource {
+
+    @Override
+    public Map<String, List<Supplier<TestCaseData>>> caseTypes() {
+        TestCaseRegistry registry = TestCaseRegistry.getInstance();
+        Map<String, List<Supplier<TestCaseData>>> types = new LinkedHashMap<>();
+        for (String group : registry.groups()) {
+            if (group.equals(ArithmeticDataProvider.HEAVY)) {
+                continue;
+            }
+            List<Supplier<TestCaseData>> cases = new ArrayList<>();
+            registry.ids(group).forEach(id -> cases.add(() -> registry.get(group, id)));
+            types.put(group, cases);
+        }
+        return types;
+    }
+}
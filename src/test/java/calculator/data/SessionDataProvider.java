@@ -0,0 +1,67 @@
+package calculator.data;
+
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.annotations.DataProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cases for {@link calculator.BcSession} and the statement stream built on it. For the session
+ * cases each line of the input is one submission; for the statement cases the expected output
+ * lists the statements the input splits into, separated by blank lines. They are kept out of the
+ * {@link TestCaseRegistry}, since evaluated as a whole, outside a session, they would not test
+ * anything and load runs would only replay a quit or a runaway submission.
+ */
+public class SessionDataProvider extends BaseDataProvider {
+
+    public static final String SESSION = "sessionData";
+
+    private static final Map<String, Function<String, TestCaseData>> CASES = Map.of(
+            "032", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "scale=3; x=5\nx / 3\nx = x * 2\nx",
+                    "1.666\n10",
+                    "State carried over — scale and a variable set in earlier submissions"
+            ),
+            "033", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "define f(n) { return (n * 2); }\nf(21)",
+                    "42",
+                    "Function carried over — defined in one submission, called in the next"
+            ),
+            "034", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "x = 7\nquit",
+                    "",
+                    "Quit — ends the session"
+            ),
+            // thousands of seconds of work for bc; the Java engine stops at the next line once interrupted
+            "035", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "x = 7 ^ 500000\n".repeat(2_000),
+                    "",
+                    "Runaway submission — times out and ends the session"
+            ),
+            "036", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "define f(n) {\n  return (n * 2)\n}\n\n\"a string\nover two lines\"\n1 + \\\n2\nf(3)\n",
+                    "define f(n) {\n  return (n * 2)\n}\n\n\"a string\nover two lines\"\n\n1 + \\\n2\n\nf(3)",
+                    "Multi-line statements — a definition, a string and a continued line stay whole"
+            ),
+            "037", id -> TestCaseData.fromStringInput(
+                    id,
+                    () -> "1 + 1",
+                    "",
+                    "Invalid demand — a request for no results fails the stream"
+            )
+    );
+
+    @DataProvider(name = SESSION, parallel = true)
+    public static Object[][] provideSessionData(Method method) {
+        String id = method.getAnnotation(CaseId.class).value();
+        return new Object[][]{{CASES.get(id).apply(id)}};
+    }
+}
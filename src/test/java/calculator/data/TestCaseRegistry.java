@@ -0,0 +1,113 @@
+package calculator.data;
+
+import model.CaseId;
+import model.TestCaseData;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * All catalog cases, indexed by group (the name of the data provider that serves them) and ID.
+ * <p>
+ * The registry is built once per JVM and holds only a factory per case; the {@link TestCaseData}
+ * and everything it captures is created when a test asks for its case, and not kept afterwards.
+ * Looking a case up costs two hash lookups however many cases the catalog has.
+ */
+public final class TestCaseRegistry {
+
+    private static final TestCaseRegistry INSTANCE = build();
+
+    private final Map<String, Map<String, Function<String, TestCaseData>>> groups;
+
+    private TestCaseRegistry(Map<String, Map<String, Function<String, TestCaseData>>> groups) {
+        this.groups = groups;
+    }
+
+    public static TestCaseRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private static TestCaseRegistry build() {
+        Builder builder = new Builder();
+        ArithmeticDataProvider.register(builder);
+        ExecutionBehaviourDataProvider.register(builder);
+        ArithmeticDecimalBehaviorDataProvider.register(builder);
+        return builder.build();
+    }
+
+    /**
+     * @return the case {@code id} of {@code group}, freshly created
+     */
+    public TestCaseData get(String group, String id) {
+        Function<String, TestCaseData> factory = cases(group).get(id);
+        if (factory == null) {
+            throw new IllegalArgumentException("No case " + id + " in group '" + group + "'");
+        }
+        return factory.apply(id);
+    }
+
+    /**
+     * @return a single data-provider row with the case named by the {@link CaseId} of {@code testMethod}
+     */
+    public Object[][] rowsFor(String group, Method testMethod) {
+        CaseId caseId = testMethod.getAnnotation(CaseId.class);
+        if (caseId == null) {
+            throw new IllegalStateException(testMethod.getDeclaringClass().getSimpleName() + "#"
+                    + testMethod.getName() + " uses '" + group + "' but has no @CaseId");
+        }
+        return new Object[][]{{get(group, caseId.value())}};
+    }
+
+    /**
+     * @return every case of {@code group} in registration order, freshly created
+     */
+    public List<TestCaseData> all(String group) {
+        List<TestCaseData> all = new ArrayList<>();
+        cases(group).forEach((id, factory) -> all.add(factory.apply(id)));
+        return all;
+    }
+
+    public Set<String> ids(String group) {
+        return cases(group).keySet();
+    }
+
+    public Set<String> groups() {
+        return groups.keySet();
+    }
+
+    private Map<String, Function<String, TestCaseData>> cases(String group) {
+        Map<String, Function<String, TestCaseData>> cases = groups.get(group);
+        if (cases == null) {
+            throw new IllegalArgumentException("Unknown case group '" + group + "'");
+        }
+        return cases;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Map<String, Function<String, TestCaseData>>> groups = new LinkedHashMap<>();
+
+        /**
+         * @param factory creates the case from its ID; called each time a test asks for the case
+         */
+        public Builder add(String group, String id, Function<String, TestCaseData> factory) {
+            Map<String, Function<String, TestCaseData>> cases = groups.computeIfAbsent(group, g -> new LinkedHashMap<>());
+            if (cases.putIfAbsent(id, factory) != null) {
+                throw new IllegalStateException("Case " + id + " is registered twice in group '" + group + "'");
+            }
+            return this;
+        }
+
+        public TestCaseRegistry build() {
+            Map<String, Map<String, Function<String, TestCaseData>>> frozen = new LinkedHashMap<>();
+            groups.forEach((group, cases) -> frozen.put(group, Collections.unmodifiableMap(new LinkedHashMap<>(cases))));
+            return new TestCaseRegistry(Collections.unmodifiableMap(frozen));
+        }
+    }
+}
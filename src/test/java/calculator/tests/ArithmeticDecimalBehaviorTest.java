@@ -1,7 +1,7 @@
 package calculator.tests;
 
-import calculator.BcCalculator;
 import calculator.CalculatorTool;
+import calculator.CalculatorTools;
 import calculator.EvaluationResult;
 import calculator.data.ArithmeticDecimalBehaviorDataProvider;
 import io.qameta.allure.Description;
@@ -9,21 +9,25 @@ import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
 import model.TestCaseData;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 @Listeners({AllureTestNg.class})
 public class ArithmeticDecimalBehaviorTest extends BaseTest {
 
-    CalculatorTool calculator = new BcCalculator();
+    CalculatorTool calculator = CalculatorTools.fromSystemProperty();
 
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 020 - Basic decimal addition should return correct result")
+    @CaseId("020")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 020 - Basic decimal addition should return correct result",
@@ -40,6 +44,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 021 - Decimal multiplication with scale should return correct result")
+    @CaseId("021")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 021 - Decimal multiplication with scale should return correct result",
@@ -56,6 +61,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.CRITICAL)
     @Description("ID: 022 - High-precision division should return 50 decimal digits")
+    @CaseId("022")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 022 - High-precision division should return 50 decimal digits",
@@ -73,6 +79,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 023 - Decimal normalization should preserve scale formatting")
+    @CaseId("023")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 023 - Decimal normalization should preserve scale formatting",
@@ -91,6 +98,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 024 - Division with decimal result should produce a decimal")
+    @CaseId("024")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 024 - Division with decimal result should produce a decimal",
@@ -108,6 +116,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 025 - Mixed operations should follow operator precedence")
+    @CaseId("025")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 025 - Mixed operations should follow operator precedence",
@@ -125,6 +134,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 026 - Parentheses should affect operation order correctly")
+    @CaseId("026")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 026 - Parentheses should affect operation order correctly",
@@ -142,6 +152,7 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
     @Story("Decimal arithmetic")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 027 - Full expression should be evaluated respecting operator precedence")
+    @CaseId("027")
     @Test(dataProvider = "decimalArithmeticData",
             dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
             description = "ID: 027 - Full expression should be evaluated respecting operator precedence",
@@ -156,4 +167,24 @@ public class ArithmeticDecimalBehaviorTest extends BaseTest {
         assertEquals(output, expected, "Expected result from full expression evaluation");
     }
 
+    @Story("Decimal arithmetic")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 028 - All decimal cases evaluated as one batch should match their expected results")
+    @CaseId("028")
+    @Test(dataProvider = "decimalArithmeticBatchData",
+            dataProviderClass = ArithmeticDecimalBehaviorDataProvider.class,
+            description = "ID: 028 - All decimal cases evaluated as one batch should match their expected results",
+            groups = {"decimal", "positive"})
+    public void testDecimalCasesAsBatch(List<TestCaseData> testCases) {
+        List<EvaluationResult> results = calculator.evaluateBatch(testCases);
+        assertEquals(results.size(), testCases.size(), "Expected one result per case");
+
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCaseData testCase = testCases.get(i);
+            EvaluationResult result = results.get(i);
+            assertTrue(result.isSuccess(), "Evaluation should succeed for ID: " + testCase.id());
+            assertEquals(result.getOutput().trim(), testCase.getExpectedOutput(),
+                    "Batch result mismatch for ID: " + testCase.id());
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package calculator.tests;
 
+import calculator.metrics.EvaluationStatistics;
 import model.TestCaseData;
 import org.slf4j.Logger;
 import org.testng.ITestResult;
@@ -13,14 +14,26 @@ import java.lang.reflect.Method;
 public class BaseTest {
     protected final Logger logger = LoggingService.getLogger();
 
+    static {
+        // once per JVM rather than per method, so parallel test threads never race on it; shards
+        // choose their own directory before the run starts
+        if (System.getProperty("allure.results.directory") == null) {
+            System.setProperty("allure.results.directory", "./allure-results");
+        }
+    }
+
+    /**
+     * Runs on the thread of the test method itself, also in parallel runs, so the evaluation groups
+     * set here belong to this method only.
+     */
     @BeforeMethod
     public void logTestStart(Method method, Object[] testData) {
-        System.setProperty("allure.results.directory", "./allure-results");
         String methodName = method.getName();
         String description = "";
 
         if (method.isAnnotationPresent(Test.class)) {
             description = method.getAnnotation(Test.class).description();
+            EvaluationStatistics.setCurrentGroups(method.getAnnotation(Test.class).groups());
         }
 
         String id = "N/A";
@@ -50,5 +63,6 @@ public class BaseTest {
         }
 
         logger.info("{} — Method: [{}]", status, methodName);
+        EvaluationStatistics.clearCurrentGroups();
     }
 }
@@ -0,0 +1,114 @@
+package calculator.tests;
+
+import calculator.BcSession;
+import calculator.CachingCalculator;
+import calculator.CalculatorTool;
+import calculator.EvaluationOutcome;
+import calculator.EvaluationResult;
+import calculator.cache.ResultCache;
+import calculator.data.CacheDataProvider;
+import io.qameta.allure.Description;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+@Listeners({AllureTestNg.class})
+public class CachingTest extends BaseTest {
+
+    @Story("Result cache")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("ID: 040 - A timed-out case should be evaluated again on the next call")
+    @CaseId("040")
+    @Test(dataProvider = CacheDataProvider.CACHE,
+            dataProviderClass = CacheDataProvider.class,
+            description = "ID: 040 - A timed-out case should be evaluated again on the next call",
+            groups = {"cache"})
+    public void testTimeoutIsNotCached(TestCaseData testCase) throws IOException {
+        ScriptedTool tool = new ScriptedTool(
+                EvaluationResult.timeout("deadline expired"),
+                new EvaluationResult("0", ""));
+        CachingCalculator calculator = cachingCalculator(tool);
+
+        assertEquals(calculator.evaluate(testCase).getOutcome(), EvaluationOutcome.TIMEOUT);
+        EvaluationResult second = calculator.evaluate(testCase);
+
+        assertEquals(tool.calls, 2, "Expected the timed-out case to be evaluated again");
+        assertEquals(second.getOutcome(), EvaluationOutcome.OK);
+        assertEquals(second.getOutput(), "0");
+    }
+
+    @Story("Result cache")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 041 - A bc syntax error should be served from the cache")
+    @CaseId("041")
+    @Test(dataProvider = CacheDataProvider.CACHE,
+            dataProviderClass = CacheDataProvider.class,
+            description = "ID: 041 - A bc syntax error should be served from the cache",
+            groups = {"cache"})
+    public void testBcErrorIsCached(TestCaseData testCase) throws IOException {
+        String syntaxError = "(standard_in) 1: syntax error";
+        ScriptedTool tool = new ScriptedTool(new EvaluationResult("", syntaxError));
+        CachingCalculator calculator = cachingCalculator(tool);
+
+        assertEquals(calculator.evaluate(testCase).getOutcome(), EvaluationOutcome.BC_ERROR);
+        EvaluationResult second = calculator.evaluate(testCase);
+
+        assertEquals(tool.calls, 1, "Expected the bc error to be answered from the cache");
+        assertEquals(second.getOutcome(), EvaluationOutcome.BC_ERROR);
+        assertEquals(second.getError(), syntaxError);
+        assertEquals(calculator.getCache().getHits(), 1);
+    }
+
+    private static CachingCalculator cachingCalculator(CalculatorTool tool) throws IOException {
+        ResultCache cache = new ResultCache(Files.createTempDirectory("bc-result-cache"), 1 << 20);
+        return new CachingCalculator(tool, "scripted", cache);
+    }
+
+    /**
+     * Answers every evaluation with the next of its scripted results, without running anything.
+     */
+    private static class ScriptedTool implements CalculatorTool {
+        private final Deque<EvaluationResult> answers;
+        private int calls;
+
+        ScriptedTool(EvaluationResult... answers) {
+            this.answers = new ArrayDeque<>(List.of(answers));
+        }
+
+        @Override
+        public EvaluationResult evaluate(TestCaseData testCase) {
+            calls++;
+            return answers.size() > 1 ? answers.poll() : answers.peek();
+        }
+
+        @Override
+        public EvaluationResult evaluateWithTimeout(TestCaseData testCase) {
+            return evaluate(testCase);
+        }
+
+        @Override
+        public Stream<EvaluationResult> evaluateBatchStream(Iterator<TestCaseData> testCases) {
+            throw new UnsupportedOperationException("scripted tool evaluates single cases only");
+        }
+
+        @Override
+        public BcSession openSession() {
+            throw new UnsupportedOperationException("scripted tool has no sessions");
+        }
+    }
+}
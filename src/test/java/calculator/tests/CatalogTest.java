@@ -0,0 +1,52 @@
+package calculator.tests;
+
+import calculator.CalculatorTool;
+import calculator.CalculatorTools;
+import calculator.EvaluationResult;
+import calculator.catalog.CatalogEntry;
+import calculator.data.CatalogDataProvider;
+import calculator.output.OutputMatcher;
+import io.qameta.allure.Description;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static calculator.output.OutputMatchers.exactly;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Listeners({AllureTestNg.class})
+public class CatalogTest extends BaseTest {
+
+    CalculatorTool calculator = CalculatorTools.fromSystemProperty();
+
+    @Story("Catalog")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 031 - Catalog cases should produce their expected output or error")
+    @CaseId("031")
+    @Test(dataProvider = "catalogData",
+            dataProviderClass = CatalogDataProvider.class,
+            description = "ID: 031 - Catalog cases should produce their expected output or error",
+            groups = {"catalog"})
+    public void testCatalogCase(TestCaseData testCase, CatalogEntry entry) {
+        if (entry.isExpectError()) {
+            EvaluationResult result = calculator.evaluateWithTimeout(testCase);
+            assertFalse(result.isSuccess(), "Expected an error for catalog case " + entry + ", got: " + result.getOutput());
+            return;
+        }
+        if (entry.getExpected() == null) {
+            EvaluationResult result = calculator.evaluateWithTimeout(testCase);
+            assertTrue(result.isSuccess(), "Catalog case " + entry + " failed: " + result.getError());
+            return;
+        }
+        OutputMatcher matcher = exactly(entry.getExpected());
+        EvaluationResult result = calculator.evaluateWithTimeout(testCase.withOutputSink(() -> matcher));
+        assertTrue(result.isSuccess(), "Catalog case " + entry + " failed: " + result.getError());
+        assertTrue(matcher.matches(), "Catalog case " + entry + ": " + matcher.describeMismatch());
+    }
+}
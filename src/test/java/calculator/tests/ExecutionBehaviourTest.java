@@ -2,27 +2,35 @@ package calculator.tests;
 
 import calculator.BcCalculator;
 import calculator.CalculatorTool;
+import calculator.CalculatorTools;
 import calculator.EvaluationResult;
+import calculator.PooledBcCalculator;
+import calculator.StatementPublisher;
+import calculator.StatementResult;
 import calculator.data.ExecutionBehaviourDataProvider;
 import io.qameta.allure.Description;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
 import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
 import model.TestCaseData;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static org.testng.Assert.*;
 
 @Listeners({AllureTestNg.class})
 public class ExecutionBehaviourTest extends BaseTest {
 
-    CalculatorTool calculator = new BcCalculator();
+    CalculatorTool calculator = CalculatorTools.fromSystemProperty();
 
     @Story("Execution behavior")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 011 - Empty input should be handled gracefully")
+    @CaseId("011")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 011 - Empty input should be handled gracefully",
@@ -42,6 +50,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.CRITICAL)
     @Description("ID: 012 - Invalid syntax should return descriptive parser error")
+    @CaseId("012")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 012 - Invalid syntax should return descriptive parser error",
@@ -56,6 +65,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.CRITICAL)
     @Description("ID: 013 - Division by zero should trigger a runtime error")
+    @CaseId("013")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 013 - Division by zero should trigger a runtime error",
@@ -71,6 +81,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 015 - Unterminated parentheses should produce syntax or parser error")
+    @CaseId("015")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 015 - Unterminated parentheses should produce syntax or parser error",
@@ -86,6 +97,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 016 - Mixed valid and invalid lines should partially execute or report errors")
+    @CaseId("016")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 016 - Mixed valid and invalid lines should partially execute or report errors",
@@ -99,11 +111,17 @@ public class ExecutionBehaviourTest extends BaseTest {
         assertTrue(hasOutput || hasError,
                 "Expected at least partial output or error message. Got neither.\nOutput: "
                         + result.getOutput() + "\nError: " + result.getError());
+
+        List<StatementResult> lines = StatementPublisher.collect(calculator.evaluateStatements(testCase));
+        assertEquals(lines.size(), 3, "Expected one result per input line, got " + lines);
+        assertEquals(lines.get(0).getOutput(), "2", "Line 1 (1+1) should print 2: " + lines.get(0));
+        assertEquals(lines.get(2).getOutput(), "4", "Line 3 (2+2) should print 4 despite line 2: " + lines.get(2));
     }
 
     @Story("Execution behavior")
     @Severity(SeverityLevel.NORMAL)
     @Description("ID: 017 - Expression ending with operator should produce syntax error")
+    @CaseId("017")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 017 - Expression ending with operator should produce syntax error",
@@ -121,6 +139,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.MINOR)
     @Description("ID: 018 - Misplaced decimal point should be treated as 0")
+    @CaseId("018")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 018 - Misplaced decimal point should be treated as 0",
@@ -135,6 +154,7 @@ public class ExecutionBehaviourTest extends BaseTest {
     @Story("Execution behavior")
     @Severity(SeverityLevel.MINOR)
     @Description("ID: 019 - Malformed scale assignment should fallback to default scale")
+    @CaseId("019")
     @Test(dataProvider = "executionBehaviourData",
             dataProviderClass = ExecutionBehaviourDataProvider.class,
             description = "ID: 019 - Malformed scale assignment should fallback to default scale",
@@ -145,4 +165,44 @@ public class ExecutionBehaviourTest extends BaseTest {
         assertEquals(result.getOutput().trim(), testCase.getExpectedOutput(),
                 "Expected fallback to default scale (scale=0) when malformed scale assignment provided.");
     }
+
+    @Story("Execution behavior")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 038 - Unterminated string should produce an error at end of input")
+    @CaseId("038")
+    @Test(dataProvider = "executionBehaviourData",
+            dataProviderClass = ExecutionBehaviourDataProvider.class,
+            description = "ID: 038 - Unterminated string should produce an error at end of input",
+            groups = {"behavior", "negative"})
+    public void testUnterminatedString(TestCaseData testCase) {
+        assertErrorAtEndOfInput(testCase);
+    }
+
+    @Story("Execution behavior")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 039 - Unterminated block should produce an error at end of input")
+    @CaseId("039")
+    @Test(dataProvider = "executionBehaviourData",
+            dataProviderClass = ExecutionBehaviourDataProvider.class,
+            description = "ID: 039 - Unterminated block should produce an error at end of input",
+            groups = {"behavior", "negative"})
+    public void testUnterminatedBlock(TestCaseData testCase) {
+        assertErrorAtEndOfInput(testCase);
+    }
+
+    /**
+     * A pooled worker must not wait for the rest of the input: it has to answer like a bc that
+     * reaches the end of its input.
+     */
+    private void assertErrorAtEndOfInput(TestCaseData testCase) {
+        EvaluationResult result = calculator.evaluate(testCase);
+
+        assertTrue(result.getError() != null && !result.getError().isBlank(),
+                "Expected an error for input left open at its end, but got:\nOutput: " + result.getOutput());
+        if (calculator instanceof PooledBcCalculator) {
+            EvaluationResult oneShot = new BcCalculator().evaluate(testCase);
+            assertEquals(result.getOutput(), oneShot.getOutput(), "Expected pooled bc to print what one-shot bc prints");
+            assertEquals(result.getError(), oneShot.getError(), "Expected pooled bc to report what one-shot bc reports");
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package calculator.tests;
+
+import calculator.CalculatorTool;
+import calculator.CalculatorTools;
+import calculator.EvaluationResult;
+import calculator.data.FuzzDataProvider;
+import calculator.fuzz.FuzzCase;
+import calculator.fuzz.FuzzReport;
+import calculator.fuzz.FuzzRunner;
+import io.qameta.allure.Description;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Listeners({AllureTestNg.class})
+public class FuzzTest extends BaseTest {
+
+    CalculatorTool calculator = CalculatorTools.fromSystemProperty();
+
+    @Story("Fuzzing")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 029 - Generated expressions should match their exact expected values")
+    @CaseId("029")
+    @Test(dataProvider = "fuzzData",
+            dataProviderClass = FuzzDataProvider.class,
+            description = "ID: 029 - Generated expressions should match their exact expected values",
+            groups = {"fuzz"})
+    public void testGeneratedExpression(TestCaseData testCase, FuzzCase fuzzCase) {
+        EvaluationResult result = calculator.evaluateWithTimeout(testCase);
+        String mismatch = fuzzCase.mismatch(result);
+        if (mismatch != null) {
+            FuzzCase minimal = new FuzzRunner(calculator, 1).shrink(fuzzCase);
+            fail("Generated case " + testCase.id() + " `" + testCase.input() + "`: " + mismatch
+                    + "\nMinimal failing input: `" + minimal.input() + "`, expected [" + minimal.expectedOutput() + "]");
+        }
+    }
+
+    @Story("Fuzzing")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 030 - A parallel fuzzing campaign should find no mismatches")
+    @CaseId("030")
+    @Test(dataProvider = "fuzzCampaignData",
+            dataProviderClass = FuzzDataProvider.class,
+            description = "ID: 030 - A parallel fuzzing campaign should find no mismatches",
+            groups = {"fuzz"})
+    public void testFuzzCampaign(long seed) {
+        FuzzRunner runner = new FuzzRunner(calculator);
+        FuzzReport report = FuzzRunner.isCampaign()
+                ? runner.run(seed, FuzzRunner.DEFAULT_BUDGET, FuzzRunner.DEFAULT_MAX_CASES)
+                : runner.run(seed, FuzzRunner.DEFAULT_SUITE_CASES);
+
+        assertTrue(report.getExecutedCases() > 0, "Expected the campaign to run at least one case");
+        assertTrue(report.getFailures().isEmpty(), report.toString());
+    }
+}
@@ -0,0 +1,216 @@
+package calculator.tests;
+
+import calculator.BcSession;
+import calculator.CalculatorTool;
+import calculator.CalculatorTools;
+import calculator.EvaluationResult;
+import calculator.StatementPublisher;
+import calculator.StatementResult;
+import calculator.data.SessionDataProvider;
+import io.qameta.allure.Description;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import io.qameta.allure.Story;
+import io.qameta.allure.testng.AllureTestNg;
+import model.CaseId;
+import model.TestCaseData;
+import org.testng.SkipException;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+@Listeners({AllureTestNg.class})
+public class SessionTest extends BaseTest {
+
+    CalculatorTool calculator = CalculatorTools.fromSystemProperty();
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("ID: 032 - Scale and variables set in one submission should carry over to the next")
+    @CaseId("032")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 032 - Scale and variables set in one submission should carry over to the next",
+            groups = {"session"})
+    public void testStateCarriesOver(TestCaseData testCase) {
+        BcSession session = calculator.openSession();
+        try {
+            assertEquals(submitEachLine(session, testCase), testCase.getExpectedOutput(),
+                    "Expected later submissions to see the scale and variable set by earlier ones");
+            assertTrue(session.isOpen(), "Expected the session to stay open between submissions");
+        } finally {
+            session.close();
+        }
+
+        assertFalse(session.isOpen(), "Expected the session to be closed");
+        assertThrows(IllegalStateException.class, () -> session.submit("x"));
+    }
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 033 - A function defined in one submission should be callable in the next")
+    @CaseId("033")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 033 - A function defined in one submission should be callable in the next",
+            groups = {"session"})
+    public void testFunctionCarriesOver(TestCaseData testCase) {
+        try (BcSession session = calculator.openSession()) {
+            assertEquals(submitEachLine(session, testCase), testCase.getExpectedOutput(),
+                    "Expected the function defined by the first submission to be called by the second");
+        }
+    }
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 034 - Quit should end the session")
+    @CaseId("034")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 034 - Quit should end the session",
+            groups = {"session"})
+    public void testQuitEndsSession(TestCaseData testCase) {
+        try (BcSession session = calculator.openSession()) {
+            for (String statements : testCase.input().split("\n")) {
+                session.submit(statements);
+            }
+
+            assertFalse(session.isOpen(), "Expected quit to end the session");
+            assertThrows(IllegalStateException.class, () -> session.submit("x"));
+        }
+    }
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 035 - A timed-out submission should end the session")
+    @CaseId("035")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 035 - A timed-out submission should end the session",
+            groups = {"session"})
+    public void testTimeoutEndsSession(TestCaseData testCase) {
+        try (BcSession session = calculator.openSession()) {
+            EvaluationResult result = session.submit(testCase.input());
+
+            assertTrue(result.getError() != null && !result.getError().isBlank(),
+                    "Expected the runaway submission to time out, but got:\nOutput: " + result.getOutput());
+            assertFalse(session.isOpen(), "Expected the timeout to end the session");
+            assertThrows(IllegalStateException.class, () -> session.submit("x"));
+        }
+    }
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("ID: 036 - Multi-line statements should reach the session whole")
+    @CaseId("036")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 036 - Multi-line statements should reach the session whole",
+            groups = {"session"})
+    public void testMultiLineStatements(TestCaseData testCase) {
+        List<String> submitted = new ArrayList<>();
+        List<StatementResult> results = StatementPublisher.collect(
+                new StatementPublisher(() -> new RecordingSession(submitted), testCase));
+
+        List<String> expected = List.of(testCase.getExpectedOutput().split("\n\n"));
+        assertEquals(submitted, expected, "Expected a definition, a string and a continued line to stay whole");
+        assertEquals(results.stream().map(StatementResult::getLine).toList(), List.of(1, 5, 7, 9),
+                "Expected each statement to report the line it starts on: " + results);
+    }
+
+    @Story("Sessions")
+    @Severity(SeverityLevel.MINOR)
+    @Description("ID: 037 - A request for no results should fail the stream without opening a session")
+    @CaseId("037")
+    @Test(dataProvider = SessionDataProvider.SESSION,
+            dataProviderClass = SessionDataProvider.class,
+            description = "ID: 037 - A request for no results should fail the stream without opening a session",
+            groups = {"session"})
+    public void testInvalidDemand(TestCaseData testCase) {
+        AtomicInteger opened = new AtomicInteger();
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        new StatementPublisher(() -> {
+            opened.incrementAndGet();
+            return new RecordingSession(new ArrayList<>());
+        }, testCase).subscribe(new Flow.Subscriber<StatementResult>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(StatementResult item) {
+                failure.completeExceptionally(new AssertionError("Unexpected result " + item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                failure.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                failure.completeExceptionally(new AssertionError("Expected the stream to fail"));
+            }
+        });
+
+        assertTrue(failure.join() instanceof IllegalArgumentException, "Expected an IllegalArgumentException");
+        assertEquals(opened.get(), 0, "Expected no session to be opened for an invalid request");
+    }
+
+    /**
+     * Submits each line of the case on its own.
+     *
+     * @return the trimmed, non-blank outputs of the submissions, one per line
+     */
+    private static String submitEachLine(BcSession session, TestCaseData testCase) {
+        List<String> outputs = new ArrayList<>();
+        for (String statements : testCase.input().split("\n")) {
+            EvaluationResult result = session.submit(statements);
+            String error = result.getError();
+            if (error != null && error.contains("not supported by the Java bc engine")) {
+                throw new SkipException("Case " + testCase.id() + " needs bc: " + error.trim());
+            }
+            assertTrue(error == null || error.isBlank(), "Submission `" + statements + "` failed: " + error);
+            if (result.getOutput() != null && !result.getOutput().isBlank()) {
+                outputs.add(result.getOutput().trim());
+            }
+        }
+        return String.join("\n", outputs);
+    }
+
+    /**
+     * Records what it is given instead of evaluating it, so statement splitting is checked without bc.
+     */
+    private static class RecordingSession implements BcSession {
+        private final List<String> submitted;
+        private boolean open = true;
+
+        RecordingSession(List<String> submitted) {
+            this.submitted = submitted;
+        }
+
+        @Override
+        public EvaluationResult submit(String statements) {
+            submitted.add(statements);
+            return new EvaluationResult("", "");
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}